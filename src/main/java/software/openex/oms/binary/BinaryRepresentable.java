@@ -42,6 +42,12 @@ public interface BinaryRepresentable {
     // Representation's version
     byte VR1 = 0b00000001;
 
+    // Representation's version that carries a correlation id right after header; used to pipeline requests
+    byte VR2 = 0b00000010;
+
+    // Representation's header size of version 2, including correlation id
+    int RHS2 = RHS + 8;
+
     // Flags; 8 flags can be used in a single byte
     byte FGS = 0b00000000;
 
@@ -75,10 +81,36 @@ public interface BinaryRepresentable {
         return segment.get(INT, 6);
     }
 
+    static long correlationId(final MemorySegment segment) {
+        return segment.get(LONG, RHS);
+    }
+
     static int originalSize(final MemorySegment segment) {
         return segment.get(INT, RHS);
     }
 
+    /**
+     * Reads a null terminated string whose size, including terminator, is known; no scan for terminator is needed.
+     */
+    static String string(final MemorySegment segment, final long position, final int size) {
+        return new String(segment.asSlice(position, size - 1).toArray(BYTE), UTF_8);
+    }
+
+    /**
+     * Skips a non-empty null terminated string whose size is at position, without reading out of segment.
+     *
+     * @return position right after string, or -1 if string is out of segment, empty or not null terminated
+     */
+    static long skipString(final MemorySegment segment, final long position) {
+        if (position + 4 > segment.byteSize()) return -1;
+
+        final var size = segment.get(INT, position);
+        if (size <= 1 || position + 4 + size > segment.byteSize()) return -1;
+        if (segment.get(BYTE, position + 4 + size - 1) != 0) return -1;
+
+        return position + 4 + size;
+    }
+
     static int representationSize(final String value) {
         return incrementExact(addExact(4, value.getBytes(UTF_8).length));
     }
@@ -138,6 +138,16 @@ public abstract class BinaryRepresentation<T> implements BinaryRepresentable, Au
         }
     }
 
+    protected final void putSegments(final List<MemorySegment> segments) {
+        putInt(segments.size());
+
+        for (final var s : segments) {
+            final var sSize = s.byteSize();
+            copy(s, 0, segment, position, sSize);
+            position = addExact(position, sSize);
+        }
+    }
+
     protected abstract int id();
 
     protected abstract void encodeRecord();
@@ -0,0 +1,59 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.binary.batch;
+
+import java.lang.foreign.MemorySegment;
+import java.util.List;
+
+import static java.lang.Math.addExact;
+import static java.lang.Math.toIntExact;
+import static java.util.Collections.emptyList;
+
+/**
+ * An envelope of several messages (or their responses) that are sent at once; messages are kept as their already
+ * encoded bytes.
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class Batch {
+    private final List<MemorySegment> messages;
+
+    public Batch(final List<MemorySegment> messages) {
+        this.messages = messages == null ? emptyList() : messages;
+    }
+
+    public int size() {
+        var size = 4;
+        for (final var message : messages) {
+            size = addExact(size, toIntExact(message.byteSize()));
+        }
+
+        return size;
+    }
+
+    public List<MemorySegment> getMessages() {
+        return messages;
+    }
+
+    @Override
+    public String toString() {
+        return "Batch{" +
+                "messages=" + messages.size() +
+                '}';
+    }
+}
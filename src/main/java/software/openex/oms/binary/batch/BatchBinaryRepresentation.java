@@ -0,0 +1,101 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.binary.batch;
+
+import software.openex.oms.binary.BinaryRepresentable;
+import software.openex.oms.binary.BinaryRepresentation;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public final class BatchBinaryRepresentation extends BinaryRepresentation<Batch> {
+    private final Batch batch;
+
+    public BatchBinaryRepresentation(final Batch batch) {
+        super(batch.size());
+        this.batch = batch;
+    }
+
+    public BatchBinaryRepresentation(final Arena arena, final Batch batch) {
+        super(arena, batch.size());
+        this.batch = batch;
+    }
+
+    @Override
+    protected int id() {
+        return 126;
+    }
+
+    @Override
+    protected void encodeRecord() {
+        try {
+            putSegments(batch.getMessages());
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Validates the envelope of a batch in place before it is sliced; every message must be a version 1 message that
+     * ends inside the batch, and messages must end exactly where the batch ends.
+     *
+     * @return false if batch is not valid or it has more than maxMessages messages
+     */
+    public static boolean isValid(final MemorySegment segment, final int maxMessages) {
+        if (segment.byteSize() < RHS + INT.byteSize()) return false;
+
+        final var messagesSize = segment.get(INT, RHS);
+        if (messagesSize < 0 || messagesSize > maxMessages) return false;
+
+        long position = RHS + INT.byteSize();
+        for (int i = 1; i <= messagesSize; i++) {
+            if (position + RHS > segment.byteSize()) return false;
+
+            final var size = BinaryRepresentable.size(segment.asSlice(position));
+            if (BinaryRepresentable.version(segment.asSlice(position)) != VR1) return false;
+            if (size <= 0 || position + RHS + size > segment.byteSize()) return false;
+            position += RHS + size;
+        }
+
+        return position == segment.byteSize();
+    }
+
+    /**
+     * Slices messages of a batch; slices share the memory of batch's segment.
+     */
+    public static List<MemorySegment> messages(final MemorySegment segment) {
+        long position = RHS;
+
+        final var messagesSize = segment.get(INT, position);
+        position += INT.byteSize();
+
+        final var messages = new ArrayList<MemorySegment>(messagesSize);
+        for (int i = 1; i <= messagesSize; i++) {
+            final var size = RHS + BinaryRepresentable.size(segment.asSlice(position));
+            messages.add(segment.asSlice(position, size));
+            position += size;
+        }
+
+        return messages;
+    }
+}
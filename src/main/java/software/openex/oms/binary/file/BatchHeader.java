@@ -0,0 +1,40 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.binary.file;
+
+/**
+ * Header of a batch of events; it precedes the records of one incoming command in an events file and carries the time
+ * engine handed them to journal.
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class BatchHeader {
+    private final long ts;
+
+    public BatchHeader(final long ts) {
+        this.ts = ts;
+    }
+
+    public int size() {
+        return 8;
+    }
+
+    public long getTs() {
+        return ts;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.binary.file;
+
+import software.openex.oms.binary.BinaryRepresentation;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public final class BatchHeaderBinaryRepresentation extends BinaryRepresentation<BatchHeader> {
+    private final BatchHeader batchHeader;
+
+    public BatchHeaderBinaryRepresentation(final BatchHeader batchHeader) {
+        super(batchHeader.size());
+        this.batchHeader = batchHeader;
+    }
+
+    public BatchHeaderBinaryRepresentation(final Arena arena, final BatchHeader batchHeader) {
+        super(arena, batchHeader.size());
+        this.batchHeader = batchHeader;
+    }
+
+    @Override
+    protected int id() {
+        return 3;
+    }
+
+    @Override
+    protected void encodeRecord() {
+        try {
+            putLong(batchHeader.getTs());
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    public static BatchHeader decode(final MemorySegment segment) {
+        final var ts = segment.get(LONG, RHS);
+
+        return new BatchHeader(ts);
+    }
+}
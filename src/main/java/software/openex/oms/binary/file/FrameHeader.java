@@ -0,0 +1,46 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.binary.file;
+
+/**
+ * Header of a write-ahead log frame; it precedes the records of one append and carries their total length and CRC32C
+ * checksum.
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class FrameHeader {
+    private final int length;
+    private final int checksum;
+
+    public FrameHeader(final int length, final int checksum) {
+        this.length = length;
+        this.checksum = checksum;
+    }
+
+    public int size() {
+        return 8;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getChecksum() {
+        return checksum;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.binary.file;
+
+import software.openex.oms.binary.BinaryRepresentation;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public final class FrameHeaderBinaryRepresentation extends BinaryRepresentation<FrameHeader> {
+    private final FrameHeader frameHeader;
+
+    public FrameHeaderBinaryRepresentation(final FrameHeader frameHeader) {
+        super(frameHeader.size());
+        this.frameHeader = frameHeader;
+    }
+
+    public FrameHeaderBinaryRepresentation(final Arena arena, final FrameHeader frameHeader) {
+        super(arena, frameHeader.size());
+        this.frameHeader = frameHeader;
+    }
+
+    @Override
+    protected int id() {
+        return 2;
+    }
+
+    @Override
+    protected void encodeRecord() {
+        try {
+            putInt(frameHeader.getLength());
+            putInt(frameHeader.getChecksum());
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    public static FrameHeader decode(final MemorySegment segment) {
+        long position = RHS;
+
+        final var length = segment.get(INT, position);
+        position += INT.byteSize();
+
+        final var checksum = segment.get(INT, position);
+
+        return new FrameHeader(length, checksum);
+    }
+}
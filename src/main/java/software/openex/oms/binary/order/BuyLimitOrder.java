@@ -60,19 +60,19 @@ public sealed class BuyLimitOrder extends LimitOrder permits IOCBuyLimitOrder {
         final var symbolSize = segment.get(INT, position);
         position += INT.byteSize();
 
-        final var symbol = segment.getString(position);
+        final var symbol = string(segment, position, symbolSize);
         position += symbolSize;
 
         final var quantitySize = segment.get(INT, position);
         position += INT.byteSize();
 
-        final var quantity = segment.getString(position);
+        final var quantity = string(segment, position, quantitySize);
         position += quantitySize;
 
         final var priceSize = segment.get(INT, position);
         position += INT.byteSize();
 
-        final var price = segment.getString(position);
+        final var price = string(segment, position, priceSize);
 
         return new BuyLimitOrder(id, ts, symbol, quantity, price);
     }
@@ -47,13 +47,13 @@ public sealed class BuyMarketOrder extends MarketOrder permits FOKBuyMarketOrder
         final var symbolSize = segment.get(INT, position);
         position += INT.byteSize();
 
-        final var symbol = segment.getString(position);
+        final var symbol = string(segment, position, symbolSize);
         position += symbolSize;
 
         final var quantitySize = segment.get(INT, position);
         position += INT.byteSize();
 
-        final var quantity = segment.getString(position);
+        final var quantity = string(segment, position, quantitySize);
 
         return new BuyMarketOrder(id, ts, symbol, quantity);
     }
@@ -47,13 +47,13 @@ public final class CancelOrder extends Order {
         final var symbolSize = segment.get(INT, position);
         position += INT.byteSize();
 
-        final var symbol = segment.getString(position);
+        final var symbol = string(segment, position, symbolSize);
         position += symbolSize;
 
         final var quantitySize = segment.get(INT, position);
         position += INT.byteSize();
 
-        final var quantity = segment.getString(position);
+        final var quantity = string(segment, position, quantitySize);
 
         return new CancelOrder(id, ts, symbol, quantity);
     }
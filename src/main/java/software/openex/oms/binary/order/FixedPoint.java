@@ -0,0 +1,81 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.binary.order;
+
+import java.math.BigDecimal;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.max;
+
+/**
+ * Package level utility class to convert decimal values into/from scaled long (fixed point) units.
+ *
+ * @author Alireza Pourtaghi
+ */
+final class FixedPoint {
+    private static final int MAX_SCALE = 18;
+
+    static void checkScale(final int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("scale must be between 0 and " + MAX_SCALE + "!");
+        }
+    }
+
+    /**
+     * Converts a decimal value into units of provided scale; throws if value does not fit into scale without losing
+     * precision or does not fit into a long.
+     */
+    static long toUnits(final BigDecimal value, final int scale) {
+        return value.movePointRight(scale).longValueExact();
+    }
+
+    /**
+     * Formats units of provided scale as a plain decimal string without trailing zeros.
+     */
+    static String toPlainString(final long units, final int scale) {
+        if (units == 0) {
+            return "0";
+        }
+
+        var unscaled = units;
+        var fractionDigits = scale;
+        while (fractionDigits > 0 && unscaled % 10 == 0) {
+            unscaled /= 10;
+            fractionDigits--;
+        }
+
+        final var digits = Long.toString(abs(unscaled));
+        final var builder = new StringBuilder(max(digits.length(), fractionDigits + 1) + 2);
+        if (unscaled < 0) {
+            builder.append('-');
+        }
+
+        if (fractionDigits == 0) {
+            return builder.append(digits).toString();
+        }
+
+        if (digits.length() > fractionDigits) {
+            final var point = digits.length() - fractionDigits;
+            return builder.append(digits, 0, point).append('.').append(digits, point, digits.length()).toString();
+        }
+
+        builder.append("0.");
+        builder.repeat('0', fractionDigits - digits.length());
+        return builder.append(digits).toString();
+    }
+}
@@ -19,6 +19,7 @@ package software.openex.oms.binary.order;
 
 import java.math.BigDecimal;
 
+import static java.lang.Long.compare;
 import static java.lang.Math.addExact;
 import static software.openex.oms.binary.BinaryRepresentable.representationSize;
 
@@ -30,6 +31,9 @@ public abstract sealed class LimitOrder extends Order implements Comparable<Limi
 
     private final String price;
     private final BigDecimal _price;
+    // Fixed point representation; only used if price scale is set for order's symbol.
+    private boolean priceScaled;
+    private long priceUnits;
 
     public LimitOrder(final long id, final long ts, final String symbol, final String quantity, final String price) {
         this(id, ts, symbol, quantity, quantity, price);
@@ -41,6 +45,23 @@ public abstract sealed class LimitOrder extends Order implements Comparable<Limi
         super(id, ts, symbol, quantity, remaining);
         this.price = price == null ? "" : price;
         this._price = new BigDecimal(this.price);
+        this.priceScaled = false;
+        this.priceUnits = 0;
+    }
+
+    /**
+     * Switches order's price and remaining quantity into fixed point representation with provided scales.
+     *
+     * @param priceScale    the number of fraction digits of prices
+     * @param quantityScale the number of fraction digits of quantities
+     * @throws ArithmeticException if price or remaining quantity does not fit into provided scales
+     */
+    public final void scale(final int priceScale, final int quantityScale) {
+        FixedPoint.checkScale(priceScale);
+        final var units = FixedPoint.toUnits(_price, priceScale);
+        scale(quantityScale);
+        this.priceUnits = units;
+        this.priceScaled = true;
     }
 
     @Override
@@ -56,6 +77,21 @@ public abstract sealed class LimitOrder extends Order implements Comparable<Limi
         return _price;
     }
 
+    public final boolean isPriceScaled() {
+        return priceScaled;
+    }
+
+    /**
+     * @return price in units of price scale; only meaningful if price is scaled
+     */
+    public final long getPriceUnits() {
+        return priceUnits;
+    }
+
+    public final int comparePrice(final LimitOrder o) {
+        return priceScaled && o.priceScaled ? compare(priceUnits, o.priceUnits) : _price.compareTo(o._price);
+    }
+
     @Override
     public String toString() {
         return "LimitOrder{" +
@@ -19,7 +19,10 @@ package software.openex.oms.binary.order;
 
 import java.math.BigDecimal;
 
+import static java.lang.Long.compare;
 import static java.lang.Math.addExact;
+import static java.math.BigDecimal.ZERO;
+import static java.math.BigDecimal.valueOf;
 import static software.openex.oms.binary.BinaryRepresentable.representationSize;
 
 /**
@@ -32,6 +35,9 @@ public abstract sealed class Order permits LimitOrder, CancelOrder, MarketOrder
     private final String quantity;
     private final BigDecimal _quantity;
     private BigDecimal _remaining;
+    // Fixed point representation; only used if quantity scale is set for order's symbol.
+    private int quantityScale;
+    private long remainingUnits;
 
     public Order(final long id, final long ts, final String symbol, final String quantity) {
         this(id, ts, symbol, quantity, quantity);
@@ -44,6 +50,32 @@ public abstract sealed class Order permits LimitOrder, CancelOrder, MarketOrder
         this.quantity = quantity == null ? "" : quantity;
         this._quantity = new BigDecimal(this.quantity);
         this._remaining = new BigDecimal(remaining);
+        this.quantityScale = -1;
+        this.remainingUnits = 0;
+    }
+
+    /**
+     * Switches order's remaining quantity into fixed point representation with provided scale; after that, all
+     * remaining quantity operations use primitive long arithmetic.
+     *
+     * @param quantityScale the number of fraction digits of quantities
+     * @throws ArithmeticException if remaining quantity does not fit into provided scale
+     */
+    public final void scale(final int quantityScale) {
+        FixedPoint.checkScale(quantityScale);
+        this.remainingUnits = FixedPoint.toUnits(get_remaining(), quantityScale);
+        this.quantityScale = quantityScale;
+    }
+
+    public final boolean isScaled() {
+        return quantityScale >= 0;
+    }
+
+    /**
+     * @return remaining quantity in units of quantity scale; only meaningful if order is scaled
+     */
+    public final long getRemainingUnits() {
+        return remainingUnits;
     }
 
     public int size() {
@@ -73,11 +105,64 @@ public abstract sealed class Order permits LimitOrder, CancelOrder, MarketOrder
     }
 
     public final BigDecimal get_remaining() {
-        return _remaining;
+        return isScaled() ? valueOf(remainingUnits, quantityScale) : _remaining;
     }
 
     public final void set_remaining(final BigDecimal _remaining) {
-        this._remaining = _remaining;
+        if (isScaled()) {
+            this.remainingUnits = FixedPoint.toUnits(_remaining, quantityScale);
+        } else {
+            this._remaining = _remaining;
+        }
+    }
+
+    public final boolean hasRemaining() {
+        return isScaled() ? remainingUnits > 0 : _remaining.signum() > 0;
+    }
+
+    public final int compareRemaining(final Order o) {
+        return isScaled() && o.isScaled() ?
+                compare(remainingUnits, o.remainingUnits) :
+                get_remaining().compareTo(o.get_remaining());
+    }
+
+    /**
+     * Returns remaining quantity as a plain string without trailing zeros to be used in trades; scaled and decimal
+     * orders are formatted the same way.
+     */
+    public final String remainingAsPlainString() {
+        return isScaled() ?
+                FixedPoint.toPlainString(remainingUnits, quantityScale) :
+                _remaining.stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Returns what remains after subtracting remaining quantity of provided order from this one, formatted for trade
+     * metadata; no state is changed.
+     */
+    public final String remainingAfter(final Order o) {
+        return isScaled() && o.isScaled() ?
+                FixedPoint.toPlainString(remainingUnits - o.remainingUnits, quantityScale) :
+                get_remaining().subtract(o.get_remaining()).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Subtracts remaining quantity of provided order from this one.
+     */
+    public final void reduceRemaining(final Order o) {
+        if (isScaled() && o.isScaled()) {
+            remainingUnits -= o.remainingUnits;
+        } else {
+            set_remaining(get_remaining().subtract(o.get_remaining()));
+        }
+    }
+
+    public final void clearRemaining() {
+        if (isScaled()) {
+            remainingUnits = 0;
+        } else {
+            _remaining = ZERO;
+        }
     }
 
     @Override
@@ -90,9 +175,8 @@ public abstract sealed class Order permits LimitOrder, CancelOrder, MarketOrder
 
     @Override
     public final int hashCode() {
-        var result = Long.hashCode(getId());
-        result = 31 * result + getSymbol().hashCode();
-        return result;
+        // Ids are hardly shared between symbols; hashing symbol would only cost a string hash of every decoded order.
+        return Long.hashCode(getId());
     }
 
     @Override
@@ -103,7 +187,7 @@ public abstract sealed class Order permits LimitOrder, CancelOrder, MarketOrder
                 ", symbol='" + symbol + '\'' +
                 ", quantity='" + quantity + '\'' +
                 ", _quantity=" + _quantity +
-                ", _remaining=" + _remaining +
+                ", _remaining=" + get_remaining() +
                 '}';
     }
 }
@@ -0,0 +1,144 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.binary.order;
+
+import java.lang.foreign.MemorySegment;
+
+import static software.openex.oms.binary.BinaryRepresentable.*;
+
+/**
+ * A reusable view over an encoded order or cancel order message that validates it in place, without creating strings
+ * or decimals, and exposes what dispatching needs: id and symbol's bytes. Quantity and price must be positive plain
+ * decimals, like 12 or 0.5, except quantity of a cancel order that can be zero to cancel all remaining quantity; the
+ * view is not thread safe.
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class OrderFlyweight {
+    private MemorySegment segment;
+    private long symbolPosition;
+    private int symbolLength;
+
+    /**
+     * Wraps a message of an order (101, 102, 107 to 114) or a cancel order (104).
+     *
+     * @return false if message is not an order or it is not valid; view must not be used then
+     */
+    public boolean wrap(final MemorySegment segment) {
+        this.segment = segment;
+        final var id = id(segment);
+        if (!isOrder(id) || segment.byteSize() != (long) RHS + size(segment)) {
+            return false;
+        }
+
+        // id and ts
+        var position = (long) RHS + 16;
+
+        symbolPosition = position + 4;
+        symbolLength = string(position);
+        if (symbolLength <= 0) return false;
+        position = symbolPosition + symbolLength + 1;
+
+        final var quantityPosition = position + 4;
+        final var quantityLength = string(position);
+        if (quantityLength <= 0 || !isDecimal(quantityPosition, quantityLength)) return false;
+        if (id != 104 && isZero(quantityPosition, quantityLength)) return false;
+        position = quantityPosition + quantityLength + 1;
+
+        if (hasPrice(id)) {
+            final var pricePosition = position + 4;
+            final var priceLength = string(position);
+            if (priceLength <= 0 || !isDecimal(pricePosition, priceLength)) return false;
+            if (isZero(pricePosition, priceLength)) return false;
+            position = pricePosition + priceLength + 1;
+        }
+
+        return position == segment.byteSize();
+    }
+
+    public static boolean isOrder(final int id) {
+        return id == 101 || id == 102 || id == 104 || (id >= 107 && id <= 114);
+    }
+
+    public static boolean hasPrice(final int id) {
+        return id == 101 || id == 102 || (id >= 109 && id <= 112);
+    }
+
+    public long id() {
+        return segment.get(LONG, RHS);
+    }
+
+    public MemorySegment segment() {
+        return segment;
+    }
+
+    /**
+     * @return offset of symbol's bytes in segment
+     */
+    public long symbolOffset() {
+        return symbolPosition;
+    }
+
+    /**
+     * @return length of symbol's bytes, without null terminator
+     */
+    public int symbolLength() {
+        return symbolLength;
+    }
+
+    /**
+     * Reads length of a null terminated string whose size is at position.
+     *
+     * @return length without null terminator, or -1 if string is out of message or is not null terminated
+     */
+    private int string(final long position) {
+        if (position + 4 > segment.byteSize()) return -1;
+
+        final var size = segment.get(INT, position);
+        if (size <= 0 || position + 4 + size > segment.byteSize()) return -1;
+        if (segment.get(BYTE, position + 4 + size - 1) != 0) return -1;
+
+        return size - 1;
+    }
+
+    private boolean isDecimal(final long position, final int length) {
+        var digits = 0;
+        var points = 0;
+        for (int i = 0; i < length; i++) {
+            final var b = segment.get(BYTE, position + i);
+            if (b == '.') {
+                points++;
+            } else if (b >= '0' && b <= '9') {
+                digits++;
+            } else {
+                return false;
+            }
+        }
+
+        return digits > 0 && points <= 1;
+    }
+
+    private boolean isZero(final long position, final int length) {
+        for (int i = 0; i < length; i++) {
+            final var b = segment.get(BYTE, position + i);
+            if (b != '0' && b != '.') return false;
+        }
+
+        return true;
+    }
+}
@@ -47,13 +47,13 @@ public sealed class SellMarketOrder extends MarketOrder permits FOKSellMarketOrd
         final var symbolSize = segment.get(INT, position);
         position += INT.byteSize();
 
-        final var symbol = segment.getString(position);
+        final var symbol = string(segment, position, symbolSize);
         position += symbolSize;
 
         final var quantitySize = segment.get(INT, position);
         position += INT.byteSize();
 
-        final var quantity = segment.getString(position);
+        final var quantity = string(segment, position, quantitySize);
 
         return new SellMarketOrder(id, ts, symbol, quantity);
     }
@@ -0,0 +1,110 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.binary.order.book;
+
+import static java.lang.Math.addExact;
+import static software.openex.oms.binary.BinaryRepresentable.representationSize;
+
+/**
+ * Top of an order book besides the last trade. Instances are immutable; every change of top of book is published as a
+ * new instance with a greater sequence. Empty strings mean absence (empty side or no trade yet).
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class BestBidOffer {
+    private final long sequence;
+    private final String symbol;
+    private final String bidPrice;
+    private final String bidQuantity;
+    private final String askPrice;
+    private final String askQuantity;
+    private final String lastTradeQuantity;
+    private final String lastTradeBuyPrice;
+    private final String lastTradeSellPrice;
+    private final long ts;
+
+    public BestBidOffer(final long sequence, final String symbol, final String bidPrice, final String bidQuantity,
+                        final String askPrice, final String askQuantity, final String lastTradeQuantity,
+                        final String lastTradeBuyPrice, final String lastTradeSellPrice, final long ts) {
+
+        this.sequence = sequence;
+        this.symbol = symbol == null ? "" : symbol;
+        this.bidPrice = bidPrice == null ? "" : bidPrice;
+        this.bidQuantity = bidQuantity == null ? "" : bidQuantity;
+        this.askPrice = askPrice == null ? "" : askPrice;
+        this.askQuantity = askQuantity == null ? "" : askQuantity;
+        this.lastTradeQuantity = lastTradeQuantity == null ? "" : lastTradeQuantity;
+        this.lastTradeBuyPrice = lastTradeBuyPrice == null ? "" : lastTradeBuyPrice;
+        this.lastTradeSellPrice = lastTradeSellPrice == null ? "" : lastTradeSellPrice;
+        this.ts = ts;
+    }
+
+    public int size() {
+        // Sequence and ts besides all strings.
+        var size = addExact(16, representationSize(symbol));
+        size = addExact(size, representationSize(bidPrice));
+        size = addExact(size, representationSize(bidQuantity));
+        size = addExact(size, representationSize(askPrice));
+        size = addExact(size, representationSize(askQuantity));
+        size = addExact(size, representationSize(lastTradeQuantity));
+        size = addExact(size, representationSize(lastTradeBuyPrice));
+        size = addExact(size, representationSize(lastTradeSellPrice));
+
+        return size;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public String getBidPrice() {
+        return bidPrice;
+    }
+
+    public String getBidQuantity() {
+        return bidQuantity;
+    }
+
+    public String getAskPrice() {
+        return askPrice;
+    }
+
+    public String getAskQuantity() {
+        return askQuantity;
+    }
+
+    public String getLastTradeQuantity() {
+        return lastTradeQuantity;
+    }
+
+    public String getLastTradeBuyPrice() {
+        return lastTradeBuyPrice;
+    }
+
+    public String getLastTradeSellPrice() {
+        return lastTradeSellPrice;
+    }
+
+    public long getTs() {
+        return ts;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.binary.order.book;
+
+import software.openex.oms.binary.BinaryRepresentation;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public final class BestBidOfferBinaryRepresentation extends BinaryRepresentation<BestBidOffer> {
+    private final BestBidOffer bestBidOffer;
+
+    public BestBidOfferBinaryRepresentation(final BestBidOffer bestBidOffer) {
+        super(bestBidOffer.size());
+        this.bestBidOffer = bestBidOffer;
+    }
+
+    public BestBidOfferBinaryRepresentation(final Arena arena, final BestBidOffer bestBidOffer) {
+        super(arena, bestBidOffer.size());
+        this.bestBidOffer = bestBidOffer;
+    }
+
+    @Override
+    protected int id() {
+        return 125;
+    }
+
+    @Override
+    protected void encodeRecord() {
+        try {
+            putLong(bestBidOffer.getSequence());
+            putString(bestBidOffer.getSymbol());
+            putString(bestBidOffer.getBidPrice());
+            putString(bestBidOffer.getBidQuantity());
+            putString(bestBidOffer.getAskPrice());
+            putString(bestBidOffer.getAskQuantity());
+            putString(bestBidOffer.getLastTradeQuantity());
+            putString(bestBidOffer.getLastTradeBuyPrice());
+            putString(bestBidOffer.getLastTradeSellPrice());
+            putLong(bestBidOffer.getTs());
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    public static BestBidOffer decode(final MemorySegment segment) {
+        long position = RHS;
+
+        final var sequence = segment.get(LONG, position);
+        position += LONG.byteSize();
+
+        final var symbolSize = segment.get(INT, position);
+        position += INT.byteSize();
+
+        final var symbol = segment.getString(position);
+        position += symbolSize;
+
+        final var bidPriceSize = segment.get(INT, position);
+        position += INT.byteSize();
+
+        final var bidPrice = segment.getString(position);
+        position += bidPriceSize;
+
+        final var bidQuantitySize = segment.get(INT, position);
+        position += INT.byteSize();
+
+        final var bidQuantity = segment.getString(position);
+        position += bidQuantitySize;
+
+        final var askPriceSize = segment.get(INT, position);
+        position += INT.byteSize();
+
+        final var askPrice = segment.getString(position);
+        position += askPriceSize;
+
+        final var askQuantitySize = segment.get(INT, position);
+        position += INT.byteSize();
+
+        final var askQuantity = segment.getString(position);
+        position += askQuantitySize;
+
+        final var lastTradeQuantitySize = segment.get(INT, position);
+        position += INT.byteSize();
+
+        final var lastTradeQuantity = segment.getString(position);
+        position += lastTradeQuantitySize;
+
+        final var lastTradeBuyPriceSize = segment.get(INT, position);
+        position += INT.byteSize();
+
+        final var lastTradeBuyPrice = segment.getString(position);
+        position += lastTradeBuyPriceSize;
+
+        final var lastTradeSellPriceSize = segment.get(INT, position);
+        position += INT.byteSize();
+
+        final var lastTradeSellPrice = segment.getString(position);
+        position += lastTradeSellPriceSize;
+
+        final var ts = segment.get(LONG, position);
+
+        return new BestBidOffer(sequence, symbol, bidPrice, bidQuantity, askPrice, askQuantity, lastTradeQuantity,
+                lastTradeBuyPrice, lastTradeSellPrice, ts);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.binary.order.book;
+
+import static java.lang.Math.addExact;
+import static software.openex.oms.binary.BinaryRepresentable.representationSize;
+
+/**
+ * Aggregate of one price level: total remaining quantity and number of resting orders.
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class DepthLevel {
+    private final String price;
+    private final String quantity;
+    private final int count;
+
+    public DepthLevel(final String price, final String quantity, final int count) {
+        this.price = price == null ? "" : price;
+        this.quantity = quantity == null ? "" : quantity;
+        this.count = count;
+    }
+
+    public int size() {
+        return addExact(representationSize(price), addExact(representationSize(quantity), 4));
+    }
+
+    public String getPrice() {
+        return price;
+    }
+
+    public String getQuantity() {
+        return quantity;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
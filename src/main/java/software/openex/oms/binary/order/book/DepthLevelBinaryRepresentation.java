@@ -0,0 +1,76 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.binary.order.book;
+
+import software.openex.oms.binary.BinaryRepresentation;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public final class DepthLevelBinaryRepresentation extends BinaryRepresentation<DepthLevel> {
+    private final DepthLevel depthLevel;
+
+    public DepthLevelBinaryRepresentation(final DepthLevel depthLevel) {
+        super(depthLevel.size());
+        this.depthLevel = depthLevel;
+    }
+
+    public DepthLevelBinaryRepresentation(final Arena arena, final DepthLevel depthLevel) {
+        super(arena, depthLevel.size());
+        this.depthLevel = depthLevel;
+    }
+
+    @Override
+    protected int id() {
+        return 123;
+    }
+
+    @Override
+    protected void encodeRecord() {
+        try {
+            putString(depthLevel.getPrice());
+            putString(depthLevel.getQuantity());
+            putInt(depthLevel.getCount());
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    public static DepthLevel decode(final MemorySegment segment) {
+        long position = RHS;
+
+        final var priceSize = segment.get(INT, position);
+        position += INT.byteSize();
+
+        final var price = segment.getString(position);
+        position += priceSize;
+
+        final var quantitySize = segment.get(INT, position);
+        position += INT.byteSize();
+
+        final var quantity = segment.getString(position);
+        position += quantitySize;
+
+        final var count = segment.get(INT, position);
+
+        return new DepthLevel(price, quantity, count);
+    }
+}
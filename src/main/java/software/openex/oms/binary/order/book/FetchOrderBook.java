@@ -26,14 +26,28 @@ import static software.openex.oms.binary.BinaryRepresentable.representationSize;
 public final class FetchOrderBook {
     private final String symbol;
     private final int fetchSize;
+    private final int depth;
 
     public FetchOrderBook(final String symbol, final int fetchSize) {
+        this(symbol, fetchSize, 0);
+    }
+
+    /**
+     * @param depth the maximum number of price levels of each side to fetch orders from; zero means unlimited
+     */
+    public FetchOrderBook(final String symbol, final int fetchSize, final int depth) {
         this.symbol = symbol == null ? "" : symbol;
         this.fetchSize = fetchSize;
+        this.depth = depth;
     }
 
     public int size() {
-        return addExact(representationSize(symbol), 4);
+        // Depth is an optional trailing field, so requests of older clients stay valid.
+        return addExact(representationSize(symbol), hasDepth() ? 8 : 4);
+    }
+
+    public boolean hasDepth() {
+        return depth > 0;
     }
 
     public String getSymbol() {
@@ -43,4 +57,8 @@ public final class FetchOrderBook {
     public int getFetchSize() {
         return fetchSize;
     }
+
+    public int getDepth() {
+        return depth;
+    }
 }
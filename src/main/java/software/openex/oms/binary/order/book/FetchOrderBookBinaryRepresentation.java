@@ -17,6 +17,7 @@
  */
 package software.openex.oms.binary.order.book;
 
+import software.openex.oms.binary.BinaryRepresentable;
 import software.openex.oms.binary.BinaryRepresentation;
 
 import java.lang.foreign.Arena;
@@ -48,6 +49,9 @@ public final class FetchOrderBookBinaryRepresentation extends BinaryRepresentati
         try {
             putString(fetchOrderBook.getSymbol());
             putInt(fetchOrderBook.getFetchSize());
+            if (fetchOrderBook.hasDepth()) {
+                putInt(fetchOrderBook.getDepth());
+            }
         } catch (Exception ex) {
             throw new RuntimeException(ex);
         }
@@ -63,7 +67,12 @@ public final class FetchOrderBookBinaryRepresentation extends BinaryRepresentati
         position += symbolSize;
 
         final var fetchSize = segment.get(INT, position);
+        position += INT.byteSize();
+
+        // Depth is present only if the record has room for it.
+        final var end = RHS + BinaryRepresentable.size(segment);
+        final var depth = position + INT.byteSize() <= end ? segment.get(INT, position) : 0;
 
-        return new FetchOrderBook(symbol, fetchSize);
+        return new FetchOrderBook(symbol, fetchSize, depth);
     }
 }
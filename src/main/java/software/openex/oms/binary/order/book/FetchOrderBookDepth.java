@@ -0,0 +1,48 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.binary.order.book;
+
+import static java.lang.Math.addExact;
+import static software.openex.oms.binary.BinaryRepresentable.representationSize;
+
+/**
+ * Request of aggregated order book depth; every price level is summed up instead of listing its orders.
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class FetchOrderBookDepth {
+    private final String symbol;
+    private final int depth;
+
+    public FetchOrderBookDepth(final String symbol, final int depth) {
+        this.symbol = symbol == null ? "" : symbol;
+        this.depth = depth;
+    }
+
+    public int size() {
+        return addExact(representationSize(symbol), 4);
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.binary.order.book;
+
+import software.openex.oms.binary.BinaryRepresentation;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+import static software.openex.oms.binary.BinaryRepresentable.skipString;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public final class FetchOrderBookDepthBinaryRepresentation extends BinaryRepresentation<FetchOrderBookDepth> {
+    private final FetchOrderBookDepth fetchOrderBookDepth;
+
+    public FetchOrderBookDepthBinaryRepresentation(final FetchOrderBookDepth fetchOrderBookDepth) {
+        super(fetchOrderBookDepth.size());
+        this.fetchOrderBookDepth = fetchOrderBookDepth;
+    }
+
+    public FetchOrderBookDepthBinaryRepresentation(final Arena arena, final FetchOrderBookDepth fetchOrderBookDepth) {
+        super(arena, fetchOrderBookDepth.size());
+        this.fetchOrderBookDepth = fetchOrderBookDepth;
+    }
+
+    @Override
+    protected int id() {
+        return 121;
+    }
+
+    @Override
+    protected void encodeRecord() {
+        try {
+            putString(fetchOrderBookDepth.getSymbol());
+            putInt(fetchOrderBookDepth.getDepth());
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Validates a message in place before it is decoded.
+     *
+     * @return false if symbol is empty, message has extra or missing bytes or depth is not between 1 and maxDepth
+     */
+    public static boolean isValid(final MemorySegment segment, final int maxDepth) {
+        final var position = skipString(segment, RHS);
+        if (position < 0 || position + INT.byteSize() != segment.byteSize()) return false;
+
+        final var depth = segment.get(INT, position);
+        return depth > 0 && depth <= maxDepth;
+    }
+
+    public static FetchOrderBookDepth decode(final MemorySegment segment) {
+        long position = RHS;
+
+        final var symbolSize = segment.get(INT, position);
+        position += INT.byteSize();
+
+        final var symbol = segment.getString(position);
+        position += symbolSize;
+
+        final var depth = segment.get(INT, position);
+
+        return new FetchOrderBookDepth(symbol, depth);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.binary.order.book;
+
+import software.openex.oms.binary.BinaryRepresentable;
+import software.openex.oms.binary.BinaryRepresentation;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public final class OrderBookDepthBinaryRepresentation extends BinaryRepresentation<OrderBookDepth> {
+    private final OrderBookDepth orderBookDepth;
+
+    public OrderBookDepthBinaryRepresentation(final OrderBookDepth orderBookDepth) {
+        super(orderBookDepth.size());
+        this.orderBookDepth = orderBookDepth;
+    }
+
+    public OrderBookDepthBinaryRepresentation(final Arena arena, final OrderBookDepth orderBookDepth) {
+        super(arena, orderBookDepth.size());
+        this.orderBookDepth = orderBookDepth;
+    }
+
+    @Override
+    protected int id() {
+        return 122;
+    }
+
+    @Override
+    protected void encodeRecord() {
+        try {
+            putBinaryRepresentations(orderBookDepth.getBids());
+            putBinaryRepresentations(orderBookDepth.getAsks());
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    public static List<DepthLevel> bids(final MemorySegment segment) {
+        long position = RHS;
+
+        final var bidsSize = segment.get(INT, position);
+        position += INT.byteSize();
+
+        final var bids = new ArrayList<DepthLevel>(bidsSize);
+        for (int i = 1; i <= bidsSize; i++) {
+            final var size = RHS + BinaryRepresentable.size(segment.asSlice(position));
+            bids.add(DepthLevelBinaryRepresentation.decode(segment.asSlice(position, size)));
+            position += size;
+        }
+
+        return bids;
+    }
+
+    public static List<DepthLevel> asks(final MemorySegment segment) {
+        long position = RHS;
+
+        final var bidsSize = segment.get(INT, position);
+        position += INT.byteSize();
+        for (int i = 1; i <= bidsSize; i++) {
+            final var size = RHS + BinaryRepresentable.size(segment.asSlice(position));
+            position += size;
+        }
+
+        final var asksSize = segment.get(INT, position);
+        position += INT.byteSize();
+
+        final var asks = new ArrayList<DepthLevel>(asksSize);
+        for (int i = 1; i <= asksSize; i++) {
+            final var size = RHS + BinaryRepresentable.size(segment.asSlice(position));
+            asks.add(DepthLevelBinaryRepresentation.decode(segment.asSlice(position, size)));
+            position += size;
+        }
+
+        return asks;
+    }
+}
@@ -18,26 +18,38 @@
 package software.openex.oms.context;
 
 import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Query;
 import org.jooq.Record10;
 import org.jooq.Record8;
 import org.jooq.Result;
 import org.jooq.conf.Settings;
 import org.slf4j.Logger;
-import software.openex.oms.binary.order.LimitOrder;
-import software.openex.oms.binary.order.MarketOrder;
-import software.openex.oms.binary.order.Order;
+import software.openex.oms.binary.order.*;
 import software.openex.oms.binary.trade.Trade;
 import software.openex.oms.models.enums.OrderMessageSide;
 import software.openex.oms.models.enums.OrderMessageState;
 import software.openex.oms.models.enums.OrderMessageType;
 
+import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 
+import static java.lang.Math.min;
 import static java.time.Instant.ofEpochMilli;
 import static org.jooq.SQLDialect.POSTGRES;
+import static org.jooq.impl.DSL.inline;
+import static org.jooq.impl.DSL.trueCondition;
 import static org.jooq.impl.DSL.using;
+import static org.jooq.impl.DSL.when;
 import static org.slf4j.LoggerFactory.getLogger;
+import static software.openex.oms.models.Tables.SYNC_POSITION;
 import static software.openex.oms.models.Tables.TRADE;
+import static software.openex.oms.models.enums.OrderMessageSide.BUY;
+import static software.openex.oms.models.enums.OrderMessageSide.SELL;
 import static software.openex.oms.models.enums.OrderMessageState.*;
 import static software.openex.oms.models.enums.OrderMessageType.LIMIT;
 import static software.openex.oms.models.enums.OrderMessageType.MARKET;
@@ -50,6 +62,10 @@ import static software.openex.oms.models.tables.OrderMessage.ORDER_MESSAGE;
  */
 public final class DataBase {
     private static final Logger logger = getLogger(DataBase.class);
+    // PostgreSQL limits a statement to 65535 bind parameters; multi-row inserts are split into statements by rows.
+    private static final int MAX_PARAMETERS = 65535;
+    private static final int ORDER_ROWS = MAX_PARAMETERS / 9;
+    private static final int TRADE_ROWS = MAX_PARAMETERS / 8;
 
     private final DSLContext dslContext;
 
@@ -64,54 +80,22 @@ public final class DataBase {
         return dslContext;
     }
 
-    public boolean insertLimitOrder(final LimitOrder order, final OrderMessageSide side) {
-        final var count = postgresql()
-                .insertInto(ORDER_MESSAGE)
-                .columns(ORDER_MESSAGE.ID,
-                        ORDER_MESSAGE.SYMBOL,
-                        ORDER_MESSAGE.SIDE,
-                        ORDER_MESSAGE.TYPE,
-                        ORDER_MESSAGE.QUANTITY,
-                        ORDER_MESSAGE.PRICE,
-                        ORDER_MESSAGE.REMAINING,
-                        ORDER_MESSAGE.TS)
-                .values(order.getId(),
-                        order.getSymbol(),
-                        side,
-                        LIMIT,
-                        order.getQuantity(),
-                        order.getPrice(),
-                        order.getQuantity(),
-                        ofEpochMilli(order.getTs()))
-                .execute();
-
-        return count == 1;
-    }
-
-    public boolean insertMarketOrder(final MarketOrder order, final OrderMessageSide side) {
-        final var count = postgresql()
-                .insertInto(ORDER_MESSAGE)
-                .columns(ORDER_MESSAGE.ID,
-                        ORDER_MESSAGE.SYMBOL,
-                        ORDER_MESSAGE.SIDE,
-                        ORDER_MESSAGE.TYPE,
-                        ORDER_MESSAGE.QUANTITY,
-                        ORDER_MESSAGE.REMAINING,
-                        ORDER_MESSAGE.TS)
-                .values(order.getId(),
-                        order.getSymbol(),
-                        side,
-                        MARKET,
-                        order.getQuantity(),
-                        order.getQuantity(),
-                        ofEpochMilli(order.getTs()))
-                .execute();
+    /**
+     * Inserts all orders with multi-row insert statements of at most 7281 rows each. A batch is never synced twice, see
+     * {@link #updateSyncPosition}, so an order that already exists is an id that was reused after it left engine's
+     * window of known ids; insert fails loudly instead of dropping the order.
+     */
+    public int insertOrders(final DSLContext dslContext, final List<Order> orders) {
+        var count = 0;
+        for (int from = 0; from < orders.size(); from += ORDER_ROWS) {
+            count += insertOrderRows(dslContext, orders.subList(from, min(orders.size(), from + ORDER_ROWS)));
+        }
 
-        return count == 1;
+        return count;
     }
 
-    public boolean insertIOCLimitOrder(final LimitOrder order, final OrderMessageSide side) {
-        final var count = postgresql()
+    private static int insertOrderRows(final DSLContext dslContext, final List<Order> orders) {
+        var insert = dslContext
                 .insertInto(ORDER_MESSAGE)
                 .columns(ORDER_MESSAGE.ID,
                         ORDER_MESSAGE.SYMBOL,
@@ -121,72 +105,24 @@ public final class DataBase {
                         ORDER_MESSAGE.PRICE,
                         ORDER_MESSAGE.REMAINING,
                         ORDER_MESSAGE.METADATA,
-                        ORDER_MESSAGE.TS)
-                .values(order.getId(),
-                        order.getSymbol(),
-                        side,
-                        LIMIT,
-                        order.getQuantity(),
-                        order.getPrice(),
-                        order.getQuantity(),
-                        "tif:ioc;aon:false",
-                        ofEpochMilli(order.getTs()))
-                .execute();
+                        ORDER_MESSAGE.TS);
 
-        return count == 1;
-    }
+        for (final var order : orders) {
+            insert = insert.values(order.getId(),
+                    order.getSymbol(),
+                    order instanceof BuyLimitOrder || order instanceof BuyMarketOrder ? BUY : SELL,
+                    order instanceof LimitOrder ? LIMIT : MARKET,
+                    decimal(order.getQuantity()),
+                    order instanceof LimitOrder limitOrder ? decimal(limitOrder.getPrice()) : null,
+                    decimal(order.getQuantity()),
+                    metadata(order),
+                    ofEpochMilli(order.getTs()));
+        }
 
-    public boolean insertFOKLimitOrder(final LimitOrder order, final OrderMessageSide side) {
-        final var count = postgresql()
-                .insertInto(ORDER_MESSAGE)
-                .columns(ORDER_MESSAGE.ID,
-                        ORDER_MESSAGE.SYMBOL,
-                        ORDER_MESSAGE.SIDE,
-                        ORDER_MESSAGE.TYPE,
-                        ORDER_MESSAGE.QUANTITY,
-                        ORDER_MESSAGE.PRICE,
-                        ORDER_MESSAGE.REMAINING,
-                        ORDER_MESSAGE.METADATA,
-                        ORDER_MESSAGE.TS)
-                .values(order.getId(),
-                        order.getSymbol(),
-                        side,
-                        LIMIT,
-                        order.getQuantity(),
-                        order.getPrice(),
-                        order.getQuantity(),
-                        "tif:ioc;aon:true",
-                        ofEpochMilli(order.getTs()))
-                .execute();
-
-        return count == 1;
+        return insert.execute();
     }
 
-    public boolean insertFOKMarketOrder(final MarketOrder order, final OrderMessageSide side) {
-        final var count = postgresql()
-                .insertInto(ORDER_MESSAGE)
-                .columns(ORDER_MESSAGE.ID,
-                        ORDER_MESSAGE.SYMBOL,
-                        ORDER_MESSAGE.SIDE,
-                        ORDER_MESSAGE.TYPE,
-                        ORDER_MESSAGE.QUANTITY,
-                        ORDER_MESSAGE.REMAINING,
-                        ORDER_MESSAGE.METADATA,
-                        ORDER_MESSAGE.TS)
-                .values(order.getId(),
-                        order.getSymbol(),
-                        side,
-                        MARKET,
-                        order.getQuantity(),
-                        order.getQuantity(),
-                        "aon:true",
-                        ofEpochMilli(order.getTs()))
-                .execute();
-
-        return count == 1;
-    }
-
-    public Record10<Long, String, OrderMessageSide, OrderMessageType, String, String, String, OrderMessageState, String, Instant>
+    public Record10<Long, String, OrderMessageSide, OrderMessageType, BigDecimal, BigDecimal, BigDecimal, OrderMessageState, String, Instant>
     fetchOrderMessage(final long id, final String symbol) {
 
         return postgresql()
@@ -206,8 +142,20 @@ public final class DataBase {
                 .fetchOne();
     }
 
-    public int insertTrade(final DSLContext dslContext, final Trade trade) {
-        return dslContext
+    /**
+     * Inserts all trades with multi-row insert statements of at most 8191 rows each.
+     */
+    public int insertTrades(final DSLContext dslContext, final List<Trade> trades) {
+        var count = 0;
+        for (int from = 0; from < trades.size(); from += TRADE_ROWS) {
+            count += insertTradeRows(dslContext, trades.subList(from, min(trades.size(), from + TRADE_ROWS)));
+        }
+
+        return count;
+    }
+
+    private static int insertTradeRows(final DSLContext dslContext, final List<Trade> trades) {
+        var insert = dslContext
                 .insertInto(TRADE)
                 .columns(TRADE.BUY_ORDER_ID,
                         TRADE.SELL_ORDER_ID,
@@ -216,51 +164,91 @@ public final class DataBase {
                         TRADE.BUY_PRICE,
                         TRADE.SELL_PRICE,
                         TRADE.METADATA,
-                        TRADE.TS)
-                .values(trade.getBuyOrderId(),
-                        trade.getSellOrderId(),
-                        trade.getSymbol(),
-                        trade.getQuantity(),
-                        trade.getBuyPrice(),
-                        trade.getSellPrice(),
-                        trade.getMetadata(),
-                        ofEpochMilli(trade.getTs()))
-                .execute();
-    }
+                        TRADE.TS);
 
-    public int cancelOrder(final DSLContext dslContext, final Order order) {
-        return dslContext
-                .update(ORDER_MESSAGE)
-                .set(ORDER_MESSAGE.STATE, CANCELED)
-                .where(ORDER_MESSAGE.ID.eq(order.getId()))
-                .and(ORDER_MESSAGE.SYMBOL.eq(order.getSymbol()))
-                .execute();
+        for (final var trade : trades) {
+            insert = insert.values(trade.getBuyOrderId(),
+                    trade.getSellOrderId(),
+                    trade.getSymbol(),
+                    decimal(trade.getQuantity()),
+                    decimal(trade.getBuyPrice()),
+                    decimal(trade.getSellPrice()),
+                    trade.getMetadata(),
+                    ofEpochMilli(trade.getTs()));
+        }
+
+        return insert.execute();
     }
 
-    public int executeOrder(final DSLContext dslContext, final long orderId, final String symbol,
-                            final String remaining) {
+    /**
+     * Applies all updates of a symbol's order messages as one JDBC batch, in order.
+     */
+    public int[] updateOrderMessages(final DSLContext dslContext, final String symbol,
+                                     final Collection<OrderMessageUpdate> updates) {
 
-        return dslContext
-                .update(ORDER_MESSAGE)
-                .set(ORDER_MESSAGE.STATE, EXECUTED)
-                .set(ORDER_MESSAGE.REMAINING, remaining)
-                .where(ORDER_MESSAGE.ID.eq(orderId))
-                .and(ORDER_MESSAGE.SYMBOL.eq(symbol))
-                .execute();
+        final var queries = new ArrayList<Query>(updates.size());
+        for (final var update : updates) {
+            if (update.getCanceledQuantity() != null) {
+                queries.add(cancelOrderQuery(dslContext, update.getId(), symbol, update.getCanceledQuantity()));
+                continue;
+            }
+
+            final var values = new HashMap<Field<?>, Object>();
+            if (update.getRemaining() != null) {
+                values.put(ORDER_MESSAGE.REMAINING, update.getRemaining());
+            }
+
+            if (update.getState() != null) {
+                values.put(ORDER_MESSAGE.STATE, update.getState());
+            }
+
+            if (!values.isEmpty()) {
+                queries.add(dslContext
+                        .update(ORDER_MESSAGE)
+                        .set(values)
+                        .where(ORDER_MESSAGE.ID.eq(update.getId()))
+                        .and(ORDER_MESSAGE.SYMBOL.eq(symbol)));
+            }
+        }
+
+        return queries.isEmpty() ? new int[0] : dslContext.batch(queries).execute();
     }
 
-    public int updateRemaining(final DSLContext dslContext, final long orderId, final String symbol,
-                               final String remaining) {
+    /**
+     * @return next position of symbol's events file to sync, or null if nothing is synced into database yet
+     */
+    public Long fetchSyncPosition(final String symbol) {
+        return postgresql()
+                .select(SYNC_POSITION.POSITION)
+                .from(SYNC_POSITION)
+                .where(SYNC_POSITION.SYMBOL.eq(symbol))
+                .fetchOne(SYNC_POSITION.POSITION);
+    }
 
-        return dslContext
-                .update(ORDER_MESSAGE)
-                .set(ORDER_MESSAGE.REMAINING, remaining)
-                .where(ORDER_MESSAGE.ID.eq(orderId))
-                .and(ORDER_MESSAGE.SYMBOL.eq(symbol))
+    /**
+     * Moves next position of symbol's events file to sync from one position to another, in the transaction of synced
+     * rows. A batch that is synced again after a crash or by a stale synchronizer does not start at stored position, so
+     * it is not applied twice.
+     *
+     * @return false if stored position is not the one batch started at
+     */
+    public boolean updateSyncPosition(final DSLContext dslContext, final String symbol, final long from,
+                                      final long to) {
+
+        final var count = dslContext
+                .insertInto(SYNC_POSITION)
+                .columns(SYNC_POSITION.SYMBOL, SYNC_POSITION.POSITION)
+                .values(symbol, to)
+                .onConflict(SYNC_POSITION.SYMBOL)
+                .doUpdate()
+                .set(SYNC_POSITION.POSITION, to)
+                .where(SYNC_POSITION.POSITION.eq(from))
                 .execute();
+
+        return count == 1;
     }
 
-    public Result<Record8<Long, String, OrderMessageSide, OrderMessageType, String, String, String, Instant>>
+    public Result<Record8<Long, String, OrderMessageSide, OrderMessageType, BigDecimal, BigDecimal, BigDecimal, Instant>>
     fetchActiveOrderMessages(final Instant from, final int limit) {
 
         return postgresql()
@@ -279,4 +267,36 @@ public final class DataBase {
                 .limit(limit)
                 .fetch();
     }
+
+    /**
+     * Cancels an order atomically with one statement: the order is canceled if cancel quantity is zero or equals its
+     * remaining, otherwise remaining is decreased by cancel quantity if it is more than that. Decreasing is relative, so
+     * a synced cancel must be committed together with its sync position; see {@link #updateSyncPosition}.
+     */
+    private static Query cancelOrderQuery(final DSLContext dslContext, final long id, final String symbol,
+                                          final BigDecimal quantity) {
+
+        final var canceled = quantity.signum() == 0 ? trueCondition() : ORDER_MESSAGE.REMAINING.eq(quantity);
+        return dslContext
+                .update(ORDER_MESSAGE)
+                .set(ORDER_MESSAGE.STATE, when(canceled, inline(CANCELED)).otherwise(ORDER_MESSAGE.STATE))
+                .set(ORDER_MESSAGE.REMAINING, when(canceled, ORDER_MESSAGE.REMAINING)
+                        .when(ORDER_MESSAGE.REMAINING.gt(quantity), ORDER_MESSAGE.REMAINING.minus(quantity))
+                        .otherwise(ORDER_MESSAGE.REMAINING))
+                .where(ORDER_MESSAGE.ID.eq(id))
+                .and(ORDER_MESSAGE.SYMBOL.eq(symbol));
+    }
+
+    private static String metadata(final Order order) {
+        return switch (order) {
+            case FOKBuyLimitOrder _, FOKSellLimitOrder _ -> "tif:ioc;aon:true";
+            case IOCBuyLimitOrder _, IOCSellLimitOrder _ -> "tif:ioc;aon:false";
+            case FOKBuyMarketOrder _, FOKSellMarketOrder _ -> "aon:true";
+            default -> null;
+        };
+    }
+
+    private static BigDecimal decimal(final String value) {
+        return value == null ? null : new BigDecimal(value);
+    }
 }
@@ -19,24 +19,35 @@ package software.openex.oms.context;
 
 import org.slf4j.Logger;
 import software.openex.oms.binary.order.*;
+import software.openex.oms.binary.order.book.BestBidOffer;
+import software.openex.oms.binary.order.book.FetchBestBidOffer;
 import software.openex.oms.binary.order.book.FetchOrderBook;
+import software.openex.oms.binary.order.book.FetchOrderBookDepth;
 import software.openex.oms.matching.Engine;
+import software.openex.oms.matching.Engine.Depth;
 import software.openex.oms.matching.Engine.OrderBook;
+import software.openex.oms.matching.EngineShards;
+import software.openex.oms.matching.SymbolRegistry;
+import software.openex.oms.matching.WaitStrategy;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.lang.foreign.MemorySegment;
 import java.nio.file.Path;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 
+import static java.lang.Math.max;
 import static java.lang.Thread.sleep;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.nio.file.Files.list;
 import static java.nio.file.Path.of;
 import static java.time.Instant.EPOCH;
+import static java.util.Arrays.copyOf;
 import static org.slf4j.LoggerFactory.getLogger;
 import static software.openex.oms.context.AppContext.context;
 import static software.openex.oms.models.enums.OrderMessageSide.BUY;
@@ -44,106 +55,200 @@ import static software.openex.oms.models.enums.OrderMessageSide.SELL;
 import static software.openex.oms.models.enums.OrderMessageType.LIMIT;
 
 /**
- * A component that contains all matching engines.
+ * A component that contains all matching engines. Engines are looked up by dense symbol ids of a {@link SymbolRegistry}
+ * on hot paths; symbols are registered by configuration at startup, or on first use if it is enabled.
  *
  * @author Alireza Pourtaghi
  */
 public final class MatchingEngines implements Closeable {
     private static final Logger logger = getLogger(MatchingEngines.class);
 
-    private final ConcurrentHashMap<String, Engine> engines;
+    private final SymbolRegistry symbols;
+    private final boolean registerOnFirstUse;
+    // Indexed by symbol id; replaced as a whole when an engine is created.
+    private volatile Engine[] engines;
+    private final EngineShards shards;
     private final int initialCap;
     private final Path dataDirectoryPath;
 
     MatchingEngines(final Configuration configuration) {
-        this.engines = new ConcurrentHashMap<>();
+        this.symbols = new SymbolRegistry();
+        configuration.loadStringList("matching.engine.symbols.registered").forEach(this.symbols::register);
+        this.registerOnFirstUse = configuration.loadBoolean("matching.engine.symbols.register_on_first_use");
+        this.engines = new Engine[0];
+        this.shards = shards(configuration);
         this.initialCap = configuration.loadInt("matching.engine.queues_initial_cap");
         this.dataDirectoryPath = of(configuration.loadString("matching.engine.data_directory_path"));
     }
 
+    public EngineShards shards() {
+        return shards;
+    }
+
     public synchronized void start() {
         // We may have no engines yet!
-        engines.values().forEach(Engine::startMatching);
+        for (final var engine : engines) {
+            if (engine != null) engine.startMatching();
+        }
+    }
+
+    /**
+     * Resolves symbol bytes of an incoming message, without creating a string for a registered symbol.
+     *
+     * @return id of symbol, or -1 if symbol is not registered and can not be registered on first use
+     */
+    public int symbolId(final MemorySegment segment, final long offset, final long length) {
+        final var id = symbols.id(segment, offset, length);
+        if (id >= 0 || !registerOnFirstUse) {
+            return id;
+        }
+
+        return symbols.register(new String(segment.asSlice(offset, length).toArray(JAVA_BYTE), UTF_8));
+    }
+
+    /**
+     * Reserves the id of an incoming order in its symbol's engine, without touching database.
+     *
+     * @return false if id belongs to a live or a recently completed order of the same symbol
+     */
+    public boolean reserve(final int symbolId, final long id) {
+        return engine(symbolId).reserve(id);
+    }
+
+    /**
+     * Releases the reserved id of an order whose offer failed, so that client can retry it.
+     */
+    public void release(final int symbolId, final long id) {
+        engine(symbolId).release(id);
+    }
+
+    public CompletableFuture<Void> offer(final int symbolId, final BuyLimitOrder order) {
+        return engine(symbolId).offer(order);
     }
 
     public CompletableFuture<Void> offer(final BuyLimitOrder order) {
-        return engines.computeIfAbsent(order.getSymbol(), symbol -> new Engine(symbol, initialCap, true))
-                .offer(order);
+        return offer(symbolId(order.getSymbol()), order);
+    }
+
+    public CompletableFuture<Void> offer(final int symbolId, final SellLimitOrder order) {
+        return engine(symbolId).offer(order);
     }
 
     public CompletableFuture<Void> offer(final SellLimitOrder order) {
-        return engines.computeIfAbsent(order.getSymbol(), symbol -> new Engine(symbol, initialCap, true))
-                .offer(order);
+        return offer(symbolId(order.getSymbol()), order);
+    }
+
+    public CompletableFuture<Void> offer(final int symbolId, final BuyMarketOrder order) {
+        return engine(symbolId).offer(order);
+    }
+
+    public CompletableFuture<Void> offer(final BuyMarketOrder order) {
+        return offer(symbolId(order.getSymbol()), order);
+    }
+
+    public CompletableFuture<Void> offer(final int symbolId, final SellMarketOrder order) {
+        return engine(symbolId).offer(order);
+    }
+
+    public CompletableFuture<Void> offer(final SellMarketOrder order) {
+        return offer(symbolId(order.getSymbol()), order);
+    }
+
+    public CompletableFuture<Void> offer(final int symbolId, final IOCBuyLimitOrder order) {
+        return engine(symbolId).offer(order);
+    }
+
+    public CompletableFuture<Void> offer(final IOCBuyLimitOrder order) {
+        return offer(symbolId(order.getSymbol()), order);
+    }
+
+    public CompletableFuture<Void> offer(final int symbolId, final IOCSellLimitOrder order) {
+        return engine(symbolId).offer(order);
+    }
+
+    public CompletableFuture<Void> offer(final IOCSellLimitOrder order) {
+        return offer(symbolId(order.getSymbol()), order);
     }
 
-    public void offer(final BuyMarketOrder order) {
-        engines.computeIfAbsent(order.getSymbol(), symbol -> new Engine(symbol, initialCap, true))
-                .offer(order);
+    public CompletableFuture<Void> offer(final int symbolId, final FOKBuyLimitOrder order) {
+        return engine(symbolId).offer(order);
     }
 
-    public void offer(final SellMarketOrder order) {
-        engines.computeIfAbsent(order.getSymbol(), symbol -> new Engine(symbol, initialCap, true))
-                .offer(order);
+    public CompletableFuture<Void> offer(final FOKBuyLimitOrder order) {
+        return offer(symbolId(order.getSymbol()), order);
     }
 
-    public void offer(final IOCBuyLimitOrder order) {
-        engines.computeIfAbsent(order.getSymbol(), symbol -> new Engine(symbol, initialCap, true))
-                .offer(order);
+    public CompletableFuture<Void> offer(final int symbolId, final FOKSellLimitOrder order) {
+        return engine(symbolId).offer(order);
     }
 
-    public void offer(final IOCSellLimitOrder order) {
-        engines.computeIfAbsent(order.getSymbol(), symbol -> new Engine(symbol, initialCap, true))
-                .offer(order);
+    public CompletableFuture<Void> offer(final FOKSellLimitOrder order) {
+        return offer(symbolId(order.getSymbol()), order);
     }
 
-    public void offer(final FOKBuyLimitOrder order) {
-        engines.computeIfAbsent(order.getSymbol(), symbol -> new Engine(symbol, initialCap, true))
-                .offer(order);
+    public CompletableFuture<Void> offer(final int symbolId, final FOKBuyMarketOrder order) {
+        return engine(symbolId).offer(order);
     }
 
-    public void offer(final FOKSellLimitOrder order) {
-        engines.computeIfAbsent(order.getSymbol(), symbol -> new Engine(symbol, initialCap, true))
-                .offer(order);
+    public CompletableFuture<Void> offer(final FOKBuyMarketOrder order) {
+        return offer(symbolId(order.getSymbol()), order);
     }
 
-    public void offer(final FOKBuyMarketOrder order) {
-        engines.computeIfAbsent(order.getSymbol(), symbol -> new Engine(symbol, initialCap, true))
-                .offer(order);
+    public CompletableFuture<Void> offer(final int symbolId, final FOKSellMarketOrder order) {
+        return engine(symbolId).offer(order);
     }
 
-    public void offer(final FOKSellMarketOrder order) {
-        engines.computeIfAbsent(order.getSymbol(), symbol -> new Engine(symbol, initialCap, true))
-                .offer(order);
+    public CompletableFuture<Void> offer(final FOKSellMarketOrder order) {
+        return offer(symbolId(order.getSymbol()), order);
+    }
+
+    public CompletableFuture<Boolean> cancel(final int symbolId, final CancelOrder order) {
+        return engine(symbolId).cancel(order);
     }
 
     public CompletableFuture<Boolean> cancel(final CancelOrder order) {
-        return engines.computeIfAbsent(order.getSymbol(), symbol -> new Engine(symbol, initialCap, true))
-                .cancel(order);
+        return cancel(symbolId(order.getSymbol()), order);
+    }
+
+    /**
+     * Submits orders and cancel orders of one symbol to its engine as one batch.
+     */
+    public List<CompletableFuture<?>> submit(final int symbolId, final List<Order> orders) {
+        return engine(symbolId).submit(orders);
     }
 
     public CompletableFuture<OrderBook> orderBook(final FetchOrderBook fetchOrderBook) {
-        return engines.computeIfAbsent(fetchOrderBook.getSymbol(), symbol -> new Engine(symbol, initialCap, true))
-                .orderBook(fetchOrderBook);
+        return engine(symbolId(fetchOrderBook.getSymbol())).orderBook(fetchOrderBook);
+    }
+
+    public CompletableFuture<Depth> depth(final FetchOrderBookDepth fetchOrderBookDepth) {
+        return engine(symbolId(fetchOrderBookDepth.getSymbol())).depth(fetchOrderBookDepth);
+    }
+
+    public BestBidOffer bestBidOffer(final FetchBestBidOffer fetchBestBidOffer) {
+        return engine(symbolId(fetchBestBidOffer.getSymbol())).bestBidOffer();
     }
 
     public synchronized void syncEventsWithDatabase() {
         try {
-            findSymbols().forEach(foundSymbol -> engines.computeIfAbsent(foundSymbol, symbol -> {
-                // We should call startSyncing just one time; not more!
-                final var engine = new Engine(symbol, initialCap, false);
-                engine.startSyncing();
-                return engine;
-            }));
-
-            for (final var engine : engines.entrySet()) {
-                while (!engine.getValue().isInSync()) {
+            // Symbols of existing files are always registered.
+            findSymbols().forEach(symbol -> engine(symbols.register(symbol), false));
+            // Engines of configured symbols are created before accepting connections, not on reading threads.
+            for (int id = 0; id < symbols.size(); id++) {
+                engine(id, false);
+            }
+
+            final var engines = this.engines;
+            for (int id = 0; id < engines.length; id++) {
+                while (engines[id] != null && !engines[id].isInSync()) {
                     // Sleep for 1 second to check at next round!
-                    logger.info("Events file is syncing for {}; still can't accept incoming messages!", engine.getKey());
+                    logger.info("Events file is syncing for {}; still can't accept incoming messages!",
+                            symbols.symbol(id));
                     sleep(1000);
                 }
             }
 
-            if (!engines.isEmpty()) {
+            if (engines.length > 0) {
                 logger.info("✅ Synced events successfully");
             }
         } catch (Exception ex) {
@@ -175,7 +280,8 @@ public final class MatchingEngines implements Closeable {
                 map.computeIfAbsent(record.component2(), _ -> new HashSet<>());
                 if (map.get(record.component2()).add(record.component1())) {
                     offerButNotMatch(new BuyLimitOrder(record.component1(), record.component8().toEpochMilli(),
-                            record.component2(), record.component5(), record.component7(), record.component6()));
+                            record.component2(), record.component5().toPlainString(), record.component7().toPlainString(),
+                            record.component6().toPlainString()));
                 }
             }
 
@@ -183,7 +289,8 @@ public final class MatchingEngines implements Closeable {
                 map.computeIfAbsent(record.component2(), _ -> new HashSet<>());
                 if (map.get(record.component2()).add(record.component1())) {
                     offerButNotMatch(new SellLimitOrder(record.component1(), record.component8().toEpochMilli(),
-                            record.component2(), record.component5(), record.component7(), record.component6()));
+                            record.component2(), record.component5().toPlainString(), record.component7().toPlainString(),
+                            record.component6().toPlainString()));
                 }
             }
         });
@@ -195,33 +302,83 @@ public final class MatchingEngines implements Closeable {
     }
 
     private void offerButNotMatch(final BuyLimitOrder order) {
-        engines.computeIfAbsent(order.getSymbol(), symbol -> {
-            // We should call startSyncing just one time; not more!
-            final var engine = new Engine(symbol, initialCap, false);
-            engine.startSyncing();
-            return engine;
-        }).offer(order);
+        // Symbols of stored orders are always registered.
+        engine(symbols.register(order.getSymbol()), false).load(order);
     }
 
     private void offerButNotMatch(final SellLimitOrder order) {
-        engines.computeIfAbsent(order.getSymbol(), symbol -> {
+        // Symbols of stored orders are always registered.
+        engine(symbols.register(order.getSymbol()), false).load(order);
+    }
+
+    private Engine engine(final int symbolId) {
+        final var engines = this.engines;
+        final var engine = symbolId < engines.length ? engines[symbolId] : null;
+        return engine != null ? engine : engine(symbolId, true);
+    }
+
+    private int symbolId(final String symbol) {
+        final var id = symbols.id(symbol);
+        if (id >= 0) {
+            return id;
+        }
+
+        if (!registerOnFirstUse) {
+            throw new IllegalArgumentException("symbol is not registered: " + symbol);
+        }
+
+        return symbols.register(symbol);
+    }
+
+    /**
+     * Creates engine of a symbol if it does not exist yet.
+     *
+     * @param start whether to start matching and syncing; otherwise only syncing is started
+     */
+    private synchronized Engine engine(final int symbolId, final boolean start) {
+        if (symbolId < engines.length && engines[symbolId] != null) {
+            return engines[symbolId];
+        }
+
+        final var engine = new Engine(symbols.symbol(symbolId), initialCap, shards, start);
+        if (!start) {
             // We should call startSyncing just one time; not more!
-            final var engine = new Engine(symbol, initialCap, false);
             engine.startSyncing();
-            return engine;
-        }).offer(order);
+        }
+
+        final var newEngines = copyOf(engines, max(engines.length, symbolId + 1));
+        newEngines[symbolId] = engine;
+        engines = newEngines;
+        return engine;
+    }
+
+    private static EngineShards shards(final Configuration configuration) {
+        final var mapping = new HashMap<String, Integer>();
+        configuration.loadObject("matching.engine.shards.mapping").unwrapped()
+                .forEach((symbol, index) -> mapping.put(symbol, ((Number) index).intValue()));
+
+        return new EngineShards(
+                configuration.loadInt("matching.engine.shards.count"),
+                WaitStrategy.of(configuration.loadString("matching.engine.wait_strategy")),
+                mapping,
+                configuration.loadInt("matching.engine.shards.sync_threads"),
+                configuration.loadInt("matching.engine.shards.journal_size"));
     }
 
     @Override
     public void close() throws IOException {
         logger.info("Closing matching engines ...");
 
-        engines.forEach((symbol, engine) -> {
+        // Engines' tasks must be finished before closing their files.
+        shards.close();
+
+        final var engines = this.engines;
+        for (int id = 0; id < engines.length; id++) {
             try {
-                engine.close();
+                if (engines[id] != null) engines[id].close();
             } catch (Exception ex) {
-                logger.error("could not close matching engine of symbol: {}", symbol);
+                logger.error("could not close matching engine of symbol: {}", symbols.symbol(id));
             }
-        });
+        }
     }
 }
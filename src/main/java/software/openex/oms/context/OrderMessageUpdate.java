@@ -0,0 +1,60 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.context;
+
+import software.openex.oms.models.enums.OrderMessageState;
+
+import java.math.BigDecimal;
+
+/**
+ * Coalesced change of an order message; null fields are left untouched. An update with a canceled quantity is applied
+ * atomically against the stored remaining, see {@link DataBase#cancelOrder}.
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class OrderMessageUpdate {
+    private final long id;
+    private final BigDecimal remaining;
+    private final OrderMessageState state;
+    private final BigDecimal canceledQuantity;
+
+    public OrderMessageUpdate(final long id, final BigDecimal remaining, final OrderMessageState state,
+                              final BigDecimal canceledQuantity) {
+
+        this.id = id;
+        this.remaining = remaining;
+        this.state = state;
+        this.canceledQuantity = canceledQuantity;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public BigDecimal getRemaining() {
+        return remaining;
+    }
+
+    public OrderMessageState getState() {
+        return state;
+    }
+
+    public BigDecimal getCanceledQuantity() {
+        return canceledQuantity;
+    }
+}
@@ -25,8 +25,8 @@ import software.openex.oms.event.OMSEvent;
 /**
  * @author Alireza Pourtaghi
  */
-@Description("Event that is used to measure syncing of a trade from events file into database.")
-@Label("Trade Syncing Duration")
-@Name("software.openex.oms.event.matching.SyncTradeEvent")
-public final class SyncTradeEvent extends OMSEvent {
+@Description("Event that is used to measure aggregated order book depth fetching.")
+@Label("Order Book Depth Fetching Duration")
+@Name("software.openex.oms.event.matching.FetchOrderBookDepthEvent")
+public final class FetchOrderBookDepthEvent extends OMSEvent {
 }
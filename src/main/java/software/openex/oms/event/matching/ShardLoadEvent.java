@@ -0,0 +1,70 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.event.matching;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.Timespan;
+import software.openex.oms.event.OMSEvent;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+@Description("Periodic event that reports load of a matching shard to find hot symbols that should be isolated.")
+@Label("Matching Shard Load")
+@Name("software.openex.oms.event.matching.ShardLoadEvent")
+@Period("1 s")
+public final class ShardLoadEvent extends OMSEvent {
+    @Label("Shard")
+    private final int shard;
+
+    @Label("Symbols")
+    private final String symbols;
+
+    @Label("Executed Tasks")
+    private final long executed;
+
+    @Label("Busy Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private final long busyNanos;
+
+    public ShardLoadEvent(final int shard, final String symbols, final long executed, final long busyNanos) {
+        this.shard = shard;
+        this.symbols = symbols;
+        this.executed = executed;
+        this.busyNanos = busyNanos;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public String getSymbols() {
+        return symbols;
+    }
+
+    public long getExecuted() {
+        return executed;
+    }
+
+    public long getBusyNanos() {
+        return busyNanos;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.event.matching;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import software.openex.oms.event.OMSEvent;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+@Description("Event that is used to measure syncing of a batch of events from events file into database.")
+@Label("Events Batch Syncing Duration")
+@Name("software.openex.oms.event.matching.SyncBatchEvent")
+public final class SyncBatchEvent extends OMSEvent {
+    @Label("Events File")
+    private final String file;
+
+    @Label("Stored Orders")
+    private final int stored;
+
+    @Label("Trades")
+    private final int trades;
+
+    @Label("Canceled Orders")
+    private final int cancels;
+
+    @Label("Updated Orders")
+    private final int orders;
+
+    public SyncBatchEvent(final String file, final int stored, final int trades, final int cancels, final int orders) {
+        this.file = file;
+        this.stored = stored;
+        this.trades = trades;
+        this.cancels = cancels;
+        this.orders = orders;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public int getStored() {
+        return stored;
+    }
+
+    public int getTrades() {
+        return trades;
+    }
+
+    public int getCancels() {
+        return cancels;
+    }
+
+    public int getOrders() {
+        return orders;
+    }
+}
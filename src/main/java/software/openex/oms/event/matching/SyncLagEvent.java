@@ -0,0 +1,52 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.event.matching;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+import software.openex.oms.event.OMSEvent;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+@Description("Event that is raised when events of a file are not synced into database for longer than max lag.")
+@Label("Events Sync Lag")
+@Name("software.openex.oms.event.matching.SyncLagEvent")
+public final class SyncLagEvent extends OMSEvent {
+    @Label("Events File")
+    private final String file;
+
+    @Label("Lag")
+    @Timespan(Timespan.MILLISECONDS)
+    private final long lagMillis;
+
+    public SyncLagEvent(final String file, final long lagMillis) {
+        this.file = file;
+        this.lagMillis = lagMillis;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+}
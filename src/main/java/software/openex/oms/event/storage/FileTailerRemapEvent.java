@@ -15,7 +15,7 @@
  * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
  * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
  */
-package software.openex.oms.event.matching;
+package software.openex.oms.event.storage;
 
 import jdk.jfr.Description;
 import jdk.jfr.Label;
@@ -25,8 +25,8 @@ import software.openex.oms.event.OMSEvent;
 /**
  * @author Alireza Pourtaghi
  */
-@Description("Event that is used to measure syncing of a canceled order from events file into database.")
-@Label("Canceled Order Syncing Duration")
-@Name("software.openex.oms.event.matching.SyncCanceledOrderEvent")
-public final class SyncCanceledOrderEvent extends OMSEvent {
+@Description("Event that is used to measure file tailer remap operation.")
+@Label("File Tailer Remap Duration")
+@Name("software.openex.oms.event.storage.FileTailerRemapEvent")
+public final class FileTailerRemapEvent extends OMSEvent {
 }
@@ -21,53 +21,54 @@ import org.slf4j.Logger;
 import software.openex.oms.binary.order.*;
 import software.openex.oms.binary.trade.Trade;
 import software.openex.oms.event.matching.MatchEvent;
-import software.openex.oms.storage.ThreadSafeAtomicFile;
-
-import java.util.PriorityQueue;
 
 import static java.lang.String.format;
 import static java.math.BigDecimal.ZERO;
 import static java.time.Instant.now;
 import static org.slf4j.LoggerFactory.getLogger;
-import static software.openex.oms.matching.Util.append;
 
 /**
- * An IOC limit order matcher as a runnable to be submitted into engine's single threaded executor.
+ * An IOC limit order matcher that is created once per engine and reused by engine's thread for every incoming order.
  *
  * @author Alireza Pourtaghi
  */
-public final class BuyLimitOrderMatcher implements Runnable {
+public final class BuyLimitOrderMatcher {
     private static final Logger logger = getLogger(BuyLimitOrderMatcher.class);
 
-    private final PriorityQueue<LimitOrder> sellOrders;
-    private final ThreadSafeAtomicFile tradesFile;
-    private final BuyLimitOrder buyLimitOrder;
+    private final PriceLevelBook sellOrders;
+    private final EventsBatch events;
+    private final LastTrade lastTrade;
+    private BuyLimitOrder buyLimitOrder;
 
-    public BuyLimitOrderMatcher(final PriorityQueue<LimitOrder> sellOrders, final ThreadSafeAtomicFile tradesFile,
-                                final BuyLimitOrder buyLimitOrder) {
+    public BuyLimitOrderMatcher(final PriceLevelBook sellOrders, final EventsBatch events,
+                                final LastTrade lastTrade) {
 
         this.sellOrders = sellOrders;
-        this.tradesFile = tradesFile;
-        this.buyLimitOrder = buyLimitOrder;
+        this.events = events;
+        this.lastTrade = lastTrade;
     }
 
-    @Override
-    public void run() {
-        if (buyLimitOrder instanceof FOKBuyLimitOrder) {
-            handleFOK();
-        } else if (buyLimitOrder instanceof IOCBuyLimitOrder) {
-            handleIOC();
-        } else {
-            // Do nothing special, Just warn!
-            logger.warn("must not reach block reached for order: {}", buyLimitOrder);
+    public void match(final BuyLimitOrder buyLimitOrder) {
+        this.buyLimitOrder = buyLimitOrder;
+        try {
+            if (buyLimitOrder instanceof FOKBuyLimitOrder) {
+                handleFOK();
+            } else if (buyLimitOrder instanceof IOCBuyLimitOrder) {
+                handleIOC();
+            } else {
+                // Do nothing special, Just warn!
+                logger.warn("must not reach block reached for order: {}", buyLimitOrder);
+            }
+        } finally {
+            this.buyLimitOrder = null;
         }
     }
 
     private void handleFOK() {
         final var sellOrdersHead = sellOrders.peek();
         if (sellOrdersHead != null &&
-                buyLimitOrder.get_remaining().compareTo(sellOrdersHead.get_remaining()) <= 0 &&
-                buyLimitOrder.get_price().compareTo(sellOrdersHead.get_price()) >= 0) {
+                buyLimitOrder.compareRemaining(sellOrdersHead) <= 0 &&
+                buyLimitOrder.comparePrice(sellOrdersHead) >= 0) {
 
             trade((SellLimitOrder) sellOrdersHead);
         } else {
@@ -78,16 +79,16 @@ public final class BuyLimitOrderMatcher implements Runnable {
                     // Set ZERO to cancel all remaining.
                     ZERO.toPlainString());
 
-            append(cancelOrder, tradesFile);
+            events.add(cancelOrder);
         }
     }
 
     private void handleIOC() {
         for (; ; ) {
             final var sellOrdersHead = sellOrders.peek();
-            if (buyLimitOrder.get_remaining().compareTo(ZERO) > 0 &&
+            if (buyLimitOrder.hasRemaining() &&
                     sellOrdersHead != null &&
-                    buyLimitOrder.get_price().compareTo(sellOrdersHead.get_price()) >= 0) {
+                    buyLimitOrder.comparePrice(sellOrdersHead) >= 0) {
 
                 trade((SellLimitOrder) sellOrdersHead);
             } else {
@@ -96,7 +97,7 @@ public final class BuyLimitOrderMatcher implements Runnable {
         }
 
         // Because of IOC feature we should cancel remaining quantity in order message.
-        if (buyLimitOrder.get_remaining().compareTo(ZERO) > 0) {
+        if (buyLimitOrder.hasRemaining()) {
             final var cancelOrder = new CancelOrder(
                     buyLimitOrder.getId(),
                     buyLimitOrder.getTs(),
@@ -104,7 +105,7 @@ public final class BuyLimitOrderMatcher implements Runnable {
                     // Set ZERO to cancel all remaining.
                     ZERO.toPlainString());
 
-            append(cancelOrder, tradesFile);
+            events.add(cancelOrder);
         }
     }
 
@@ -113,7 +114,7 @@ public final class BuyLimitOrderMatcher implements Runnable {
         event.begin();
 
         logger.trace("match: buy: {} sell: {}", buyLimitOrder, sellOrder);
-        switch (buyLimitOrder.get_remaining().compareTo(sellOrder.get_remaining())) {
+        switch (buyLimitOrder.compareRemaining(sellOrder)) {
             case 0 -> handleEquality(sellOrder);
             case 1 -> handleGreaterThan(sellOrder);
             case -1 -> handleLessThan(sellOrder);
@@ -130,15 +131,16 @@ public final class BuyLimitOrderMatcher implements Runnable {
                 buyLimitOrder.getId(),
                 sellOrder.getId(),
                 buyLimitOrder.getSymbol(),
-                buyLimitOrder.get_remaining().toPlainString(),
+                buyLimitOrder.remainingAsPlainString(),
                 buyLimitOrder.getPrice(),
                 sellOrder.getPrice(),
                 format("bor:%s;sor:%s", ZERO, ZERO),
                 now.toEpochMilli());
 
-        append(trade, tradesFile);
-        buyLimitOrder.set_remaining(ZERO);
-        sellOrder.set_remaining(ZERO);
+        events.add(trade);
+        lastTrade.set(trade);
+        buyLimitOrder.clearRemaining();
+        sellOrder.clearRemaining();
         sellOrders.poll();
 
         logger.trace("poll: sell: {}", sellOrder);
@@ -147,20 +149,21 @@ public final class BuyLimitOrderMatcher implements Runnable {
     private void handleGreaterThan(final SellLimitOrder sellOrder) {
         // Sell order must be polled.
         final var now = now();
-        final var remaining = buyLimitOrder.get_remaining().subtract(sellOrder.get_remaining());
+        final var remaining = buyLimitOrder.remainingAfter(sellOrder);
         final var trade = new Trade(
                 buyLimitOrder.getId(),
                 sellOrder.getId(),
                 buyLimitOrder.getSymbol(),
-                sellOrder.get_remaining().toPlainString(),
+                sellOrder.remainingAsPlainString(),
                 buyLimitOrder.getPrice(),
                 sellOrder.getPrice(),
-                format("bor:%s;sor:%s", remaining.stripTrailingZeros(), ZERO),
+                format("bor:%s;sor:%s", remaining, ZERO),
                 now.toEpochMilli());
 
-        append(trade, tradesFile);
-        buyLimitOrder.set_remaining(remaining);
-        sellOrder.set_remaining(ZERO);
+        events.add(trade);
+        lastTrade.set(trade);
+        buyLimitOrder.reduceRemaining(sellOrder);
+        sellOrder.clearRemaining();
         sellOrders.poll();
 
         logger.trace("poll: sell: {}", sellOrder);
@@ -168,19 +171,21 @@ public final class BuyLimitOrderMatcher implements Runnable {
 
     private void handleLessThan(final SellLimitOrder sellOrder) {
         final var now = now();
-        final var remaining = sellOrder.get_remaining().subtract(buyLimitOrder.get_remaining());
+        final var remaining = sellOrder.remainingAfter(buyLimitOrder);
         final var trade = new Trade(
                 buyLimitOrder.getId(),
                 sellOrder.getId(),
                 buyLimitOrder.getSymbol(),
-                buyLimitOrder.get_remaining().toPlainString(),
+                buyLimitOrder.remainingAsPlainString(),
                 buyLimitOrder.getPrice(),
                 sellOrder.getPrice(),
-                format("bor:%s;sor:%s", ZERO, remaining.stripTrailingZeros()),
+                format("bor:%s;sor:%s", ZERO, remaining),
                 now.toEpochMilli());
 
-        append(trade, tradesFile);
-        buyLimitOrder.set_remaining(ZERO);
-        sellOrder.set_remaining(remaining);
+        events.add(trade);
+        lastTrade.set(trade);
+        sellOrder.reduceRemaining(buyLimitOrder);
+        sellOrders.update(sellOrder);
+        buyLimitOrder.clearRemaining();
     }
 }
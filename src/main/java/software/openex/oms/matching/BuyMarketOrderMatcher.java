@@ -21,49 +21,50 @@ import org.slf4j.Logger;
 import software.openex.oms.binary.order.*;
 import software.openex.oms.binary.trade.Trade;
 import software.openex.oms.event.matching.MatchEvent;
-import software.openex.oms.storage.ThreadSafeAtomicFile;
-
-import java.util.PriorityQueue;
 
 import static java.lang.String.format;
 import static java.math.BigDecimal.ZERO;
 import static java.time.Instant.now;
 import static org.slf4j.LoggerFactory.getLogger;
-import static software.openex.oms.matching.Util.append;
 
 /**
- * A market order matcher as a runnable to be submitted into engine's single threaded executor.
+ * A market order matcher that is created once per engine and reused by engine's thread for every incoming order.
  *
  * @author Alireza Pourtaghi
  */
-public final class BuyMarketOrderMatcher implements Runnable {
+public final class BuyMarketOrderMatcher {
     private static final Logger logger = getLogger(BuyMarketOrderMatcher.class);
 
-    private final PriorityQueue<LimitOrder> sellOrders;
-    private final ThreadSafeAtomicFile tradesFile;
-    private final BuyMarketOrder buyMarketOrder;
+    private final PriceLevelBook sellOrders;
+    private final EventsBatch events;
+    private final LastTrade lastTrade;
+    private BuyMarketOrder buyMarketOrder;
 
-    public BuyMarketOrderMatcher(final PriorityQueue<LimitOrder> sellOrders, final ThreadSafeAtomicFile tradesFile,
-                                 final BuyMarketOrder buyMarketOrder) {
+    public BuyMarketOrderMatcher(final PriceLevelBook sellOrders, final EventsBatch events,
+                                 final LastTrade lastTrade) {
 
         this.sellOrders = sellOrders;
-        this.tradesFile = tradesFile;
-        this.buyMarketOrder = buyMarketOrder;
+        this.events = events;
+        this.lastTrade = lastTrade;
     }
 
-    @Override
-    public void run() {
-        if (buyMarketOrder instanceof FOKBuyMarketOrder) {
-            handleFOK();
-        } else {
-            handle();
+    public void match(final BuyMarketOrder buyMarketOrder) {
+        this.buyMarketOrder = buyMarketOrder;
+        try {
+            if (buyMarketOrder instanceof FOKBuyMarketOrder) {
+                handleFOK();
+            } else {
+                handle();
+            }
+        } finally {
+            this.buyMarketOrder = null;
         }
     }
 
     private void handleFOK() {
         final var sellOrdersHead = sellOrders.peek();
         if (sellOrdersHead != null &&
-                buyMarketOrder.get_remaining().compareTo(sellOrdersHead.get_remaining()) <= 0) {
+                buyMarketOrder.compareRemaining(sellOrdersHead) <= 0) {
 
             trade((SellLimitOrder) sellOrdersHead);
         } else {
@@ -74,14 +75,14 @@ public final class BuyMarketOrderMatcher implements Runnable {
                     // Set ZERO to cancel all remaining.
                     ZERO.toPlainString());
 
-            append(cancelOrder, tradesFile);
+            events.add(cancelOrder);
         }
     }
 
     private void handle() {
         for (; ; ) {
             final var sellOrdersHead = sellOrders.peek();
-            if (buyMarketOrder.get_remaining().compareTo(ZERO) > 0 && sellOrdersHead != null) {
+            if (buyMarketOrder.hasRemaining() && sellOrdersHead != null) {
                 trade((SellLimitOrder) sellOrdersHead);
             } else {
                 break;
@@ -89,7 +90,7 @@ public final class BuyMarketOrderMatcher implements Runnable {
         }
 
         // Because of IOC feature we should cancel remaining quantity in order message.
-        if (buyMarketOrder.get_remaining().compareTo(ZERO) > 0) {
+        if (buyMarketOrder.hasRemaining()) {
             final var cancelOrder = new CancelOrder(
                     buyMarketOrder.getId(),
                     buyMarketOrder.getTs(),
@@ -97,7 +98,7 @@ public final class BuyMarketOrderMatcher implements Runnable {
                     // Set ZERO to cancel all remaining.
                     ZERO.toPlainString());
 
-            append(cancelOrder, tradesFile);
+            events.add(cancelOrder);
         }
     }
 
@@ -106,7 +107,7 @@ public final class BuyMarketOrderMatcher implements Runnable {
         event.begin();
 
         logger.trace("match: buy: {} sell: {}", buyMarketOrder, sellOrder);
-        switch (buyMarketOrder.get_remaining().compareTo(sellOrder.get_remaining())) {
+        switch (buyMarketOrder.compareRemaining(sellOrder)) {
             case 0 -> handleEquality(sellOrder);
             case 1 -> handleGreaterThan(sellOrder);
             case -1 -> handleLessThan(sellOrder);
@@ -123,15 +124,16 @@ public final class BuyMarketOrderMatcher implements Runnable {
                 buyMarketOrder.getId(),
                 sellOrder.getId(),
                 buyMarketOrder.getSymbol(),
-                buyMarketOrder.get_remaining().toPlainString(),
+                buyMarketOrder.remainingAsPlainString(),
                 ZERO.toPlainString(),
                 sellOrder.getPrice(),
                 format("bor:%s;sor:%s", ZERO, ZERO),
                 now.toEpochMilli());
 
-        append(trade, tradesFile);
-        buyMarketOrder.set_remaining(ZERO);
-        sellOrder.set_remaining(ZERO);
+        events.add(trade);
+        lastTrade.set(trade);
+        buyMarketOrder.clearRemaining();
+        sellOrder.clearRemaining();
         sellOrders.poll();
 
         logger.trace("poll: sell: {}", sellOrder);
@@ -140,20 +142,21 @@ public final class BuyMarketOrderMatcher implements Runnable {
     private void handleGreaterThan(final SellLimitOrder sellOrder) {
         // Sell order must be polled.
         final var now = now();
-        final var remaining = buyMarketOrder.get_remaining().subtract(sellOrder.get_remaining());
+        final var remaining = buyMarketOrder.remainingAfter(sellOrder);
         final var trade = new Trade(
                 buyMarketOrder.getId(),
                 sellOrder.getId(),
                 buyMarketOrder.getSymbol(),
-                sellOrder.get_remaining().toPlainString(),
+                sellOrder.remainingAsPlainString(),
                 ZERO.toPlainString(),
                 sellOrder.getPrice(),
-                format("bor:%s;sor:%s", remaining.stripTrailingZeros(), ZERO),
+                format("bor:%s;sor:%s", remaining, ZERO),
                 now.toEpochMilli());
 
-        append(trade, tradesFile);
-        buyMarketOrder.set_remaining(remaining);
-        sellOrder.set_remaining(ZERO);
+        events.add(trade);
+        lastTrade.set(trade);
+        buyMarketOrder.reduceRemaining(sellOrder);
+        sellOrder.clearRemaining();
         sellOrders.poll();
 
         logger.trace("poll: sell: {}", sellOrder);
@@ -161,19 +164,21 @@ public final class BuyMarketOrderMatcher implements Runnable {
 
     private void handleLessThan(final SellLimitOrder sellOrder) {
         final var now = now();
-        final var remaining = sellOrder.get_remaining().subtract(buyMarketOrder.get_remaining());
+        final var remaining = sellOrder.remainingAfter(buyMarketOrder);
         final var trade = new Trade(
                 buyMarketOrder.getId(),
                 sellOrder.getId(),
                 buyMarketOrder.getSymbol(),
-                buyMarketOrder.get_remaining().toPlainString(),
+                buyMarketOrder.remainingAsPlainString(),
                 ZERO.toPlainString(),
                 sellOrder.getPrice(),
-                format("bor:%s;sor:%s", ZERO, remaining.stripTrailingZeros()),
+                format("bor:%s;sor:%s", ZERO, remaining),
                 now.toEpochMilli());
 
-        append(trade, tradesFile);
-        buyMarketOrder.set_remaining(ZERO);
-        sellOrder.set_remaining(remaining);
+        events.add(trade);
+        lastTrade.set(trade);
+        sellOrder.reduceRemaining(buyMarketOrder);
+        sellOrders.update(sellOrder);
+        buyMarketOrder.clearRemaining();
     }
 }
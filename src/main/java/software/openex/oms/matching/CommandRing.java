@@ -0,0 +1,140 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.matching;
+
+import jdk.jfr.Event;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.Integer.bitCount;
+import static java.lang.Thread.onSpinWait;
+
+/**
+ * A bounded, preallocated, lock free multi producer single consumer ring buffer of engine commands. Producers claim a
+ * slot with a CAS on tail sequence, fill it and publish it through slot's own sequence; the single consumer (engine's
+ * thread) reads published slots in order and hands them back to producers. Slots are reused, so submitting a command
+ * allocates nothing.
+ *
+ * @author Alireza Pourtaghi
+ */
+final class CommandRing {
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail;
+    private long head;
+
+    CommandRing(final int capacity) {
+        if (capacity < 2 || bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("ring capacity must be a power of two!");
+        }
+
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            this.slots[i] = new Slot(i);
+        }
+
+        this.mask = capacity - 1;
+        this.tail = new AtomicLong(0);
+        this.head = 0;
+    }
+
+    /**
+     * Publishes a command; spins while the ring is full. Must not be called by the consumer thread.
+     */
+    void publish(final int type, final Object payload, final CompletableFuture<?> future, final Event event) {
+        var spins = 0;
+        for (; ; ) {
+            final var position = tail.get();
+            final var slot = slots[(int) position & mask];
+            final var difference = slot.sequence - position;
+
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slot.type = type;
+                    slot.payload = payload;
+                    slot.future = future;
+                    slot.event = event;
+                    // Volatile write publishes all above fields to the consumer.
+                    slot.sequence = position + 1;
+                    return;
+                }
+            } else if (difference < 0) {
+                // Ring is full; wait for the consumer to release slots.
+                if (++spins < 100) onSpinWait();
+                else Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Returns the next published slot or null if there is none; must only be called by the consumer thread.
+     */
+    Slot peek() {
+        final var slot = slots[(int) head & mask];
+        return slot.sequence == head + 1 ? slot : null;
+    }
+
+    /**
+     * Hands a consumed slot back to producers; must only be called by the consumer thread.
+     */
+    void release(final Slot slot) {
+        slot.payload = null;
+        slot.future = null;
+        slot.event = null;
+        slot.sequence = head + slots.length;
+        head++;
+    }
+
+    boolean isEmpty() {
+        return peek() == null;
+    }
+
+    /**
+     * A reusable command slot.
+     *
+     * @author Alireza Pourtaghi
+     */
+    static final class Slot {
+        private volatile long sequence;
+        private int type;
+        private Object payload;
+        private CompletableFuture<?> future;
+        private Event event;
+
+        Slot(final long sequence) {
+            this.sequence = sequence;
+        }
+
+        int type() {
+            return type;
+        }
+
+        Object payload() {
+            return payload;
+        }
+
+        CompletableFuture<?> future() {
+            return future;
+        }
+
+        Event event() {
+            return event;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.matching;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+
+/**
+ * Sequence numbers of event batches an engine hands to its {@link Journal}, and the highest one the journal has
+ * published as durable. Batches are journaled in order, so a durable sequence number means all batches up to it are
+ * durable. Numbers are taken by engine's thread only; the durable one is published by journal's thread and can be
+ * read or waited on by any thread. Once a batch could not be journaled, the sequence is poisoned: durable number never
+ * passes it and waiting on it or any later batch fails, since the journal has a gap from then on.
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class DurableSequence {
+    private final ArrayDeque<Waiter> waiters;
+    private final Runnable listener;
+    // Only used by engine's thread.
+    private long next;
+    private volatile long durable;
+    // Guarded by waiters; sequence number of the first batch that could not be journaled.
+    private long failed;
+    // Written while holding waiters; read by engine's and journal's threads without it.
+    private volatile Throwable failure;
+
+    /**
+     * @param listener called by journal's thread every time a batch is published as durable; must be cheap
+     */
+    public DurableSequence(final Runnable listener) {
+        this.waiters = new ArrayDeque<>();
+        this.listener = listener;
+        this.next = 0;
+        this.durable = 0;
+        this.failed = Long.MAX_VALUE;
+        this.failure = null;
+    }
+
+    long next() {
+        return ++next;
+    }
+
+    /**
+     * @return the highest sequence number whose batch and all batches before it are durable
+     */
+    public long durable() {
+        return durable;
+    }
+
+    /**
+     * @return the failure of the first batch that could not be journaled, or null if no batch failed
+     */
+    public Throwable failure() {
+        return failure;
+    }
+
+    /**
+     * Returns a future that completes once batch of provided sequence number is durable, or exceptionally if it could
+     * not be journaled.
+     */
+    public CompletableFuture<Void> whenDurable(final long number) {
+        if (number <= durable) {
+            return completedFuture(null);
+        }
+
+        final var future = new CompletableFuture<Void>();
+        synchronized (waiters) {
+            if (number <= durable) {
+                return completedFuture(null);
+            }
+
+            if (number >= failed) {
+                return failedFuture(failure);
+            }
+
+            waiters.add(new Waiter(number, future));
+        }
+
+        return future;
+    }
+
+    /**
+     * Publishes batch of provided sequence number, and so all batches before it, as processed by journal; a batch that
+     * could not be journaled poisons the sequence and fails waiters of it and of all later batches.
+     */
+    void publish(final long number, final Throwable failure) {
+        final var ready = new ArrayList<Waiter>();
+        final long firstFailed;
+        final Throwable cause;
+        var advanced = false;
+        synchronized (waiters) {
+            if (failure != null && number < failed) {
+                this.failed = number;
+                this.failure = failure;
+            }
+
+            if (number < failed && number > durable) {
+                durable = number;
+                advanced = true;
+            }
+
+            while (!waiters.isEmpty() && (waiters.peek().number <= number || waiters.peek().number >= failed)) {
+                ready.add(waiters.poll());
+            }
+
+            firstFailed = failed;
+            cause = this.failure;
+        }
+
+        // Completed without holding the lock; dependents of futures may run on this thread.
+        for (final var waiter : ready) {
+            if (waiter.number < firstFailed) {
+                waiter.future.complete(null);
+            } else {
+                waiter.future.completeExceptionally(cause);
+            }
+        }
+
+        if (advanced) {
+            listener.run();
+        }
+    }
+
+    /**
+     * @author Alireza Pourtaghi
+     */
+    private static final class Waiter {
+        private final long number;
+        private final CompletableFuture<Void> future;
+
+        private Waiter(final long number, final CompletableFuture<Void> future) {
+            this.number = number;
+            this.future = future;
+        }
+    }
+}
@@ -17,31 +17,42 @@
  */
 package software.openex.oms.matching;
 
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigObject;
 import jdk.jfr.Event;
 import org.slf4j.Logger;
 import software.openex.oms.binary.order.*;
+import software.openex.oms.binary.order.book.BestBidOffer;
+import software.openex.oms.binary.order.book.DepthLevel;
 import software.openex.oms.binary.order.book.FetchOrderBook;
+import software.openex.oms.binary.order.book.FetchOrderBookDepth;
 import software.openex.oms.event.matching.CancelOrderEvent;
+import software.openex.oms.event.matching.FetchOrderBookDepthEvent;
 import software.openex.oms.event.matching.FetchOrderBookEvent;
+import software.openex.oms.storage.DurabilityPolicy;
+import software.openex.oms.storage.DurableFile;
 import software.openex.oms.storage.ThreadSafeAtomicFile;
+import software.openex.oms.storage.WriteAheadLogFile;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.PriorityQueue;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
 
 import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
-import static java.math.BigDecimal.ZERO;
+import static java.lang.System.currentTimeMillis;
 import static java.nio.file.Path.of;
-import static java.time.Duration.ofSeconds;
-import static java.util.concurrent.Executors.newSingleThreadExecutor;
-import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.concurrent.CompletableFuture.failedFuture;
 import static org.slf4j.LoggerFactory.getLogger;
 import static software.openex.oms.context.AppContext.context;
-import static software.openex.oms.matching.Util.append;
+import static software.openex.oms.matching.PriceLevelBook.asks;
+import static software.openex.oms.matching.PriceLevelBook.bids;
 
 /**
  * A buy/sell orders matching engine.
@@ -51,22 +62,97 @@ import static software.openex.oms.matching.Util.append;
 public final class Engine implements Closeable {
     private static final Logger logger = getLogger(Engine.class);
 
+    // Types of commands published into engine's ring.
+    private static final int BUY_LIMIT = 1;
+    private static final int SELL_LIMIT = 2;
+    private static final int BUY_MARKET = 3;
+    private static final int SELL_MARKET = 4;
+    private static final int IMMEDIATE_BUY_LIMIT = 5;
+    private static final int IMMEDIATE_SELL_LIMIT = 6;
+    private static final int CANCEL = 7;
+    private static final int ORDER_BOOK = 8;
+    private static final int START_MATCHING = 9;
+    private static final int ORDER_BOOK_DEPTH = 10;
+    private static final int LOAD_BUY_LIMIT = 11;
+    private static final int LOAD_SELL_LIMIT = 12;
+    private static final int BATCH = 13;
+    private static final int RELEASE = 14;
+
+    private final String symbol;
     private final ExecutorService executor;
     private final ExecutorService eventsSynchronizerExecutor;
-    private final PriorityQueue<LimitOrder> buyOrders;
-    private final PriorityQueue<LimitOrder> sellOrders;
-    private final ThreadSafeAtomicFile eventsFile;
+    private final OrderIds orderIds;
+    private final PriceLevelBook buyOrders;
+    private final PriceLevelBook sellOrders;
+    private final DurableFile eventsFile;
+    private final EventsBatch events;
+    private final LastTrade lastTrade;
     private final Matcher matcher;
+    private final BuyLimitOrderMatcher buyLimitOrderMatcher;
+    private final SellLimitOrderMatcher sellLimitOrderMatcher;
+    private final BuyMarketOrderMatcher buyMarketOrderMatcher;
+    private final SellMarketOrderMatcher sellMarketOrderMatcher;
+    private final CommandRing commands;
+    private final int drainBatchSize;
+    private final AtomicBoolean draining;
+    private final Runnable drainer;
     private final EventsSynchronizer eventsSynchronizer;
+    private boolean matching;
+    // Set once matching failed; order book may be crossed, so symbol is halted.
+    private RuntimeException matchingFailure;
+    private final boolean storeOrders;
+    private final int priceScale;
+    private final int quantityScale;
+    // Published by engine's thread, read by any thread without hopping onto engine's thread.
+    private volatile BestBidOffer bestBidOffer;
+    // Versions of books' tops the current best bid/offer was built from; unchanged tops are not published again.
+    private long publishedBidVersion;
+    private long publishedAskVersion;
+    private long publishedTrades;
+
+    public Engine(final String symbol, final int initialCapacity, final EngineShards shards, final boolean start) {
+        this(symbol, initialCapacity, shards, eventsFile(symbol, shards), _ -> {}, start);
+    }
 
-    public Engine(final String symbol, final int initialCapacity, final boolean start) {
-        this.executor = newSingleThreadExecutor();
-        this.eventsSynchronizerExecutor = newSingleThreadExecutor();
-        this.buyOrders = new PriorityQueue<>(initialCapacity);
-        this.sellOrders = new PriorityQueue<>(initialCapacity);
-        this.eventsFile = eventsFile(symbol);
-        this.matcher = new Matcher(this.executor, this.buyOrders, this.sellOrders, this.eventsFile);
-        this.eventsSynchronizer = new EventsSynchronizer(this.eventsSynchronizerExecutor, this.eventsFile);
+    /**
+     * @param removed called with the id of every order that leaves order book, after it is completed
+     */
+    Engine(final String symbol, final int initialCapacity, final EngineShards shards, final DurableFile eventsFile,
+           final LongConsumer removed, final boolean start) {
+
+        this.symbol = symbol;
+        // Executors are shared between engines; all tasks of a symbol run sequentially on its shard.
+        this.executor = shards.shard(symbol);
+        this.eventsSynchronizerExecutor = shards.syncExecutor();
+        this.orderIds = new OrderIds(context().config().loadInt("matching.engine.completed_orders_window"));
+
+        // Fixed point arithmetic is enabled only for configured symbols.
+        final var fixedPoint = fixedPoint(symbol);
+        this.priceScale = fixedPoint == null ? -1 : fixedPoint.getInt("price_scale");
+        this.quantityScale = fixedPoint == null ? -1 : fixedPoint.getInt("quantity_scale");
+
+        // Orders that leave the book are filled or canceled.
+        final LongConsumer completed = this.orderIds::complete;
+        this.buyOrders = bids(initialCapacity, this.priceScale, this.quantityScale, completed.andThen(removed));
+        this.sellOrders = asks(initialCapacity, this.priceScale, this.quantityScale, completed.andThen(removed));
+        this.eventsFile = eventsFile;
+        this.events = new EventsBatch(this.eventsFile, shards.journal(symbol), this::eventsDurable);
+        this.lastTrade = new LastTrade();
+        this.matcher = new Matcher(this.buyOrders, this.sellOrders, this.events, this.lastTrade);
+        this.buyLimitOrderMatcher = new BuyLimitOrderMatcher(this.sellOrders, this.events, this.lastTrade);
+        this.sellLimitOrderMatcher = new SellLimitOrderMatcher(this.buyOrders, this.events, this.lastTrade);
+        this.buyMarketOrderMatcher = new BuyMarketOrderMatcher(this.sellOrders, this.events, this.lastTrade);
+        this.sellMarketOrderMatcher = new SellMarketOrderMatcher(this.buyOrders, this.events, this.lastTrade);
+        this.commands = new CommandRing(context().config().loadInt("matching.engine.ring_size"));
+        this.drainBatchSize = context().config().loadInt("matching.engine.drain_batch_size");
+        this.draining = new AtomicBoolean(false);
+        this.drainer = this::drain;
+        this.eventsSynchronizer = new EventsSynchronizer(this.eventsSynchronizerExecutor, shards.scheduler(),
+                this.eventsFile);
+        this.matching = false;
+        this.matchingFailure = null;
+        this.storeOrders = context().config().loadBoolean("matching.engine.store_orders");
+        this.bestBidOffer = new BestBidOffer(0, symbol, "", "", "", "", "", "", "", 0);
 
         if (start) {
             startMatching();
@@ -75,133 +161,184 @@ public final class Engine implements Closeable {
     }
 
     public void startMatching() {
-        executor.execute(matcher);
+        submit(START_MATCHING, null, null, null);
     }
 
     public void startSyncing() {
-        eventsSynchronizerExecutor.execute(eventsSynchronizer);
+        eventsSynchronizer.wakeUp();
     }
 
     public boolean isInSync() {
         return eventsSynchronizer.isInSync();
     }
 
+    /**
+     * Reserves the id of an incoming order; can be called by any thread before offering the order.
+     *
+     * @return false if id belongs to a live or a recently completed order of this engine
+     */
+    public boolean reserve(final long id) {
+        return orderIds.reserve(id);
+    }
+
+    /**
+     * Releases the reserved id of an order whose offer failed, unless the order took effect (rests in order book or
+     * is completed); a retry of an order that took effect is still a duplicate.
+     */
+    public void release(final long id) {
+        submit(RELEASE, id, null, null);
+    }
+
     public CompletableFuture<Void> offer(final BuyLimitOrder order) {
+        scale(order);
         final var future = new CompletableFuture<Void>();
-        executor.execute(() -> {
-            if (buyOrders.offer(order)) {
-                future.complete(null);
-                logger.trace("offer: buy: {}", order);
-            } else {
-                future.completeExceptionally(new RuntimeException("could not insert buy order into queue!"));
-            }
-        });
+        submit(BUY_LIMIT, order, future, null);
 
         return future;
     }
 
     public CompletableFuture<Void> offer(final SellLimitOrder order) {
+        scale(order);
         final var future = new CompletableFuture<Void>();
-        executor.execute(() -> {
-            if (sellOrders.offer(order)) {
-                future.complete(null);
-                logger.trace("offer: sell: {}", order);
-            } else {
-                future.completeExceptionally(new RuntimeException("could not insert sell order into queue!"));
-            }
-        });
+        submit(SELL_LIMIT, order, future, null);
 
         return future;
     }
 
-    public void offer(final BuyMarketOrder order) {
-        executor.execute(new BuyMarketOrderMatcher(sellOrders, eventsFile, order));
+    public CompletableFuture<Void> offer(final BuyMarketOrder order) {
+        scale(order);
+        final var future = new CompletableFuture<Void>();
+        submit(BUY_MARKET, order, future, null);
+
+        return future;
     }
 
-    public void offer(final SellMarketOrder order) {
-        executor.execute(new SellMarketOrderMatcher(buyOrders, eventsFile, order));
+    public CompletableFuture<Void> offer(final SellMarketOrder order) {
+        scale(order);
+        final var future = new CompletableFuture<Void>();
+        submit(SELL_MARKET, order, future, null);
+
+        return future;
     }
 
-    public void offer(final IOCBuyLimitOrder order) {
-        executor.execute(new BuyLimitOrderMatcher(sellOrders, eventsFile, order));
+    public CompletableFuture<Void> offer(final IOCBuyLimitOrder order) {
+        scale(order);
+        final var future = new CompletableFuture<Void>();
+        submit(IMMEDIATE_BUY_LIMIT, order, future, null);
+
+        return future;
+    }
+
+    public CompletableFuture<Void> offer(final IOCSellLimitOrder order) {
+        scale(order);
+        final var future = new CompletableFuture<Void>();
+        submit(IMMEDIATE_SELL_LIMIT, order, future, null);
+
+        return future;
     }
 
-    public void offer(final IOCSellLimitOrder order) {
-        executor.execute(new SellLimitOrderMatcher(buyOrders, eventsFile, order));
+    public CompletableFuture<Void> offer(final FOKBuyLimitOrder order) {
+        scale(order);
+        final var future = new CompletableFuture<Void>();
+        submit(IMMEDIATE_BUY_LIMIT, order, future, null);
+
+        return future;
     }
 
-    public void offer(final FOKBuyLimitOrder order) {
-        executor.execute(new BuyLimitOrderMatcher(sellOrders, eventsFile, order));
+    public CompletableFuture<Void> offer(final FOKSellLimitOrder order) {
+        scale(order);
+        final var future = new CompletableFuture<Void>();
+        submit(IMMEDIATE_SELL_LIMIT, order, future, null);
+
+        return future;
     }
 
-    public void offer(final FOKSellLimitOrder order) {
-        executor.execute(new SellLimitOrderMatcher(buyOrders, eventsFile, order));
+    public CompletableFuture<Void> offer(final FOKBuyMarketOrder order) {
+        scale(order);
+        final var future = new CompletableFuture<Void>();
+        submit(BUY_MARKET, order, future, null);
+
+        return future;
     }
 
-    public void offer(final FOKBuyMarketOrder order) {
-        executor.execute(new BuyMarketOrderMatcher(sellOrders, eventsFile, order));
+    public CompletableFuture<Void> offer(final FOKSellMarketOrder order) {
+        scale(order);
+        final var future = new CompletableFuture<Void>();
+        submit(SELL_MARKET, order, future, null);
+
+        return future;
     }
 
-    public void offer(final FOKSellMarketOrder order) {
-        executor.execute(new SellMarketOrderMatcher(buyOrders, eventsFile, order));
+    /**
+     * Puts an order that is already stored in database back into order book, without journaling it again.
+     */
+    public CompletableFuture<Void> load(final BuyLimitOrder order) {
+        scale(order);
+        orderIds.reserve(order.getId());
+        final var future = new CompletableFuture<Void>();
+        submit(LOAD_BUY_LIMIT, order, future, null);
+
+        return future;
     }
 
-    public CompletableFuture<Boolean> cancel(final CancelOrder order) {
-        final var event = new CancelOrderEvent();
-        event.begin();
+    /**
+     * Puts an order that is already stored in database back into order book, without journaling it again.
+     */
+    public CompletableFuture<Void> load(final SellLimitOrder order) {
+        scale(order);
+        orderIds.reserve(order.getId());
+        final var future = new CompletableFuture<Void>();
+        submit(LOAD_SELL_LIMIT, order, future, null);
 
-        final var future = new CompletableFuture<Boolean>();
-        executor.execute(() -> {
-            var found = false;
-
-            final var bids = buyOrders.iterator();
-            while (!found && bids.hasNext()) {
-                final var buyOrder = bids.next();
-                if (buyOrder.equals(order)) {
-                    found = true;
-                    if (order.get_quantity().stripTrailingZeros().equals(ZERO) ||
-                            buyOrder.get_remaining().compareTo(order.get_quantity()) == 0) {
-
-                        buyOrders.remove(buyOrder);
-                        buyOrderCanceled(future, order, buyOrder, event);
-                    } else if (buyOrder.get_remaining().compareTo(order.get_quantity()) > 0) {
-                        buyOrder.set_remaining(buyOrder.get_remaining().subtract(order.get_quantity()));
-                        buyOrderPartiallyCanceled(future, order, buyOrder, event);
-                    } else {
-                        // Found order's remaining is less than requested cancel order's quantity.
-                        found = false;
-                    }
+        return future;
+    }
+
+    /**
+     * Submits orders and cancel orders of this engine's symbol as one command; they are handled in order and their
+     * events are made durable by one journal append.
+     *
+     * @return futures of orders in the same order; future of a cancel order completes with whether it is canceled
+     */
+    public List<CompletableFuture<?>> submit(final List<Order> orders) {
+        final var batch = new ArrayList<Batched>(orders.size());
+        final var futures = new ArrayList<CompletableFuture<?>>(orders.size());
+        for (final var order : orders) {
+            final var future = new CompletableFuture<>();
+            futures.add(future);
+
+            try {
+                final var type = type(order);
+                if (order instanceof LimitOrder limitOrder) {
+                    scale(limitOrder);
+                } else {
+                    scale(order);
                 }
-            }
 
-            if (!found) {
-                final var asks = sellOrders.iterator();
-                while (!found && asks.hasNext()) {
-                    final var sellOrder = asks.next();
-                    if (sellOrder.equals(order)) {
-                        found = true;
-                        if (order.get_quantity().stripTrailingZeros().equals(ZERO) ||
-                                sellOrder.get_remaining().compareTo(order.get_quantity()) == 0) {
-
-                            sellOrders.remove(sellOrder);
-                            sellOrderCanceled(future, order, sellOrder, event);
-                        } else if (sellOrder.get_remaining().compareTo(order.get_quantity()) > 0) {
-                            sellOrder.set_remaining(sellOrder.get_remaining().subtract(order.get_quantity()));
-                            sellOrderPartiallyCanceled(future, order, sellOrder, event);
-                        } else {
-                            // Found order's remaining is less than requested cancel order's quantity.
-                            found = false;
-                        }
-                    }
+                final var event = type == CANCEL ? new CancelOrderEvent() : null;
+                if (event != null) {
+                    event.begin();
                 }
-            }
 
-            if (!found) {
-                future.complete(FALSE);
-                event.end();
-                event.commit();
+                batch.add(new Batched(type, order, future, event));
+            } catch (RuntimeException ex) {
+                future.completeExceptionally(ex);
             }
-        });
+        }
+
+        if (!batch.isEmpty()) {
+            submit(BATCH, batch, null, null);
+        }
+
+        return futures;
+    }
+
+    public CompletableFuture<Boolean> cancel(final CancelOrder order) {
+        scale(order);
+        final var event = new CancelOrderEvent();
+        event.begin();
+
+        final var future = new CompletableFuture<Boolean>();
+        submit(CANCEL, order, future, event);
 
         return future;
     }
@@ -211,126 +348,455 @@ public final class Engine implements Closeable {
         event.begin();
 
         final var future = new CompletableFuture<OrderBook>();
-        executor.execute(() -> {
-            final var size = fetchOrderBook.getFetchSize();
-            future.complete(new OrderBook(bidsReferences(size), asksReferences(size)));
-            event.end();
-            event.commit();
-        });
+        submit(ORDER_BOOK, fetchOrderBook, future, event);
 
         return future;
     }
 
-    private void buyOrderCanceled(final CompletableFuture<Boolean> future, final CancelOrder order,
-                                  final Order buyOrder, final Event event) {
+    public CompletableFuture<Depth> depth(final FetchOrderBookDepth fetchOrderBookDepth) {
+        final var event = new FetchOrderBookDepthEvent();
+        event.begin();
 
-        try {
-            append(order, eventsFile);
-            future.complete(TRUE);
-            event.end();
-            event.commit();
+        final var future = new CompletableFuture<Depth>();
+        submit(ORDER_BOOK_DEPTH, fetchOrderBookDepth, future, event);
 
-            logger.trace("cancel: buy: {}", order);
-        } catch (RuntimeException ex) {
-            // Re-offer the buy order at previous index.
-            offer((BuyLimitOrder) buyOrder);
-            future.completeExceptionally(ex);
+        return future;
+    }
+
+    /**
+     * Returns the latest published top of book; can be called by any thread and never waits for engine's thread.
+     */
+    public BestBidOffer bestBidOffer() {
+        return bestBidOffer;
+    }
+
+    private static int type(final Order order) {
+        return switch (order) {
+            case IOCBuyLimitOrder _ -> IMMEDIATE_BUY_LIMIT;
+            case IOCSellLimitOrder _ -> IMMEDIATE_SELL_LIMIT;
+            case BuyLimitOrder _ -> BUY_LIMIT;
+            case SellLimitOrder _ -> SELL_LIMIT;
+            case BuyMarketOrder _ -> BUY_MARKET;
+            case SellMarketOrder _ -> SELL_MARKET;
+            case CancelOrder _ -> CANCEL;
+            default -> throw new IllegalArgumentException("order is not supported: " + order.representationId());
+        };
+    }
+
+    private void submit(final int type, final Object payload, final CompletableFuture<?> future, final Event event) {
+        commands.publish(type, payload, future, event);
+
+        // Schedule draining only if it is not already scheduled.
+        if (!draining.get() && draining.compareAndSet(false, true)) {
+            executor.execute(drainer);
         }
     }
 
-    private void buyOrderPartiallyCanceled(final CompletableFuture<Boolean> future, final CancelOrder order,
-                                           final Order buyOrder, final Event event) {
+    /**
+     * Runs on engine's thread and handles at most one batch of published commands.
+     */
+    private void drain() {
+        var handled = 0;
+        for (; handled < drainBatchSize; handled++) {
+            final var command = commands.peek();
+            if (command == null) {
+                break;
+            }
 
-        try {
-            append(order, eventsFile);
-            future.complete(TRUE);
-            event.end();
-            event.commit();
+            try {
+                handle(command.type(), command.payload(), command.future(), command.event());
+            } catch (RuntimeException ex) {
+                logger.error("{}", ex.getMessage());
+                if (command.future() != null) {
+                    command.future().completeExceptionally(ex);
+                }
+            } finally {
+                // Events of one command are made durable at once, even if handling failed halfway.
+                acknowledge(command.type(), command.payload(), command.future(), flushEvents());
+                commands.release(command);
+            }
+        }
 
-            logger.trace("partially: cancel: buy: {}", order);
-        } catch (RuntimeException ex) {
-            // Re-add the subtracted quantity.
-            buyOrder.set_remaining(buyOrder.get_remaining().add(order.get_quantity()));
-            future.completeExceptionally(ex);
+        if (handled > 0) {
+            publishBestBidOffer();
+        }
+
+        if (!commands.isEmpty()) {
+            // Let other engines of the same shard run before next batch.
+            executor.execute(drainer);
+            return;
+        }
+
+        draining.set(false);
+        // A command may have been published right before resetting draining flag.
+        if (!commands.isEmpty() && draining.compareAndSet(false, true)) {
+            executor.execute(drainer);
         }
     }
 
-    private void sellOrderCanceled(final CompletableFuture<Boolean> future, final CancelOrder order,
-                                   final Order sellOrder, final Event event) {
+    /**
+     * Called by journal's thread once a batch of this engine's events is durable.
+     */
+    private void eventsDurable() {
+        eventsSynchronizer.wakeUp();
+    }
 
-        try {
-            append(order, eventsFile);
-            future.complete(TRUE);
-            event.end();
-            event.commit();
+    /**
+     * @return null if there was nothing to journal, otherwise a future that completes when journaled events are durable
+     */
+    private CompletableFuture<Void> flushEvents() {
+        if (events.isEmpty()) {
+            return null;
+        }
 
-            logger.trace("cancel: sell: {}", order);
+        final var size = events.size();
+        try {
+            return events.flush();
         } catch (RuntimeException ex) {
-            // Re-offer the sell order at previous index.
-            offer((SellLimitOrder) sellOrder);
-            future.completeExceptionally(ex);
+            logger.error("could not journal {} events: {}", size, ex.getMessage());
+            return failedFuture(ex);
         }
     }
 
-    private void sellOrderPartiallyCanceled(final CompletableFuture<Boolean> future, final CancelOrder order,
-                                            final Order sellOrder, final Event event) {
+    /**
+     * Completes the future of an accepted order or a done cancel order only after events it produced are durable.
+     * Journaling failures are reported through future and halt the symbol; commands handled before the failure was
+     * known may already rely on the new order book.
+     */
+    @SuppressWarnings("unchecked")
+    private void acknowledge(final int type, final Object payload, final CompletableFuture<?> future,
+                             final CompletableFuture<Void> durable) {
+
+        switch (type) {
+            case BUY_LIMIT, SELL_LIMIT, BUY_MARKET, SELL_MARKET, IMMEDIATE_BUY_LIMIT, IMMEDIATE_SELL_LIMIT,
+                 LOAD_BUY_LIMIT, LOAD_SELL_LIMIT -> acknowledge((CompletableFuture<Void>) future, durable, null);
+            case CANCEL -> acknowledge((CompletableFuture<Boolean>) future, durable, TRUE);
+            case BATCH -> {
+                // Events of all batched commands are made durable by the same journal append.
+                for (final var command : (List<Batched>) payload) {
+                    acknowledge(command.type, command.payload, command.future, durable);
+                }
+            }
+            default -> {
+                // Other commands complete their futures while being handled.
+            }
+        }
+    }
 
-        try {
-            append(order, eventsFile);
-            future.complete(TRUE);
-            event.end();
-            event.commit();
+    private static <T> void acknowledge(final CompletableFuture<T> future, final CompletableFuture<Void> durable,
+                                        final T value) {
 
-            logger.trace("partially: cancel: sell: {}", order);
-        } catch (RuntimeException ex) {
-            // Re-add the subtracted quantity.
-            sellOrder.set_remaining(sellOrder.get_remaining().add(order.get_quantity()));
-            future.completeExceptionally(ex);
+        if (future == null || future.isDone()) {
+            return;
+        }
+
+        if (durable == null) {
+            future.complete(value);
+        } else {
+            complete(future, durable, value);
         }
     }
 
-    private ArrayList<LimitOrder> bidsReferences(final int size) {
-        final var bids = new ArrayList<LimitOrder>(size);
-        try {
-            for (int i = 1; i <= size; i++) {
-                if (buyOrders.peek() != null) {
-                    bids.add(buyOrders.poll());
-                } else {
-                    break;
+    private static <T> void complete(final CompletableFuture<T> future, final CompletableFuture<Void> durable,
+                                     final T value) {
+
+        durable.whenComplete((_, ex) -> {
+            if (ex == null) {
+                future.complete(value);
+            } else {
+                future.completeExceptionally(ex);
+            }
+        });
+    }
+
+    private void publishBestBidOffer() {
+        final var bidVersion = buyOrders.version();
+        final var askVersion = sellOrders.version();
+        final var trades = lastTrade.count();
+
+        if (bidVersion == publishedBidVersion && askVersion == publishedAskVersion && trades == publishedTrades) {
+            return;
+        }
+
+        // Decimals of a fixed point book are only created here, once its top changed.
+        final var bidPrice = buyOrders.bestPrice();
+        final var bidQuantity = buyOrders.bestQuantity();
+        final var askPrice = sellOrders.bestPrice();
+        final var askQuantity = sellOrders.bestQuantity();
+
+        final var trade = lastTrade.get();
+        bestBidOffer = new BestBidOffer(
+                bestBidOffer.getSequence() + 1,
+                symbol,
+                plain(bidPrice),
+                plain(bidQuantity),
+                plain(askPrice),
+                plain(askQuantity),
+                trade == null ? "" : trade.getQuantity(),
+                trade == null ? "" : trade.getBuyPrice(),
+                trade == null ? "" : trade.getSellPrice(),
+                currentTimeMillis());
+
+        publishedBidVersion = bidVersion;
+        publishedAskVersion = askVersion;
+        publishedTrades = trades;
+    }
+
+    private static String plain(final BigDecimal value) {
+        return value == null ? "" : value.stripTrailingZeros().toPlainString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void handle(final int type, final Object payload, final CompletableFuture<?> future, final Event event) {
+        final var failure = matchingFailure != null ? matchingFailure : events.sequence().failure();
+        if (failure != null && type != BATCH && type != RELEASE) {
+            // Order book may be crossed or events file misses a batch; nothing is matched on top of them.
+            throw new IllegalStateException("symbol is halted: " + failure.getMessage());
+        }
+
+        if (storeOrders && type >= BUY_LIMIT && type <= IMMEDIATE_SELL_LIMIT) {
+            // Write-behind; journaled ahead of its trades, events synchronizer inserts it into database in background.
+            events.add((Order) payload);
+        }
+
+        switch (type) {
+            case BUY_LIMIT, LOAD_BUY_LIMIT ->
+                    insert((BuyLimitOrder) payload, (CompletableFuture<Void>) future);
+            case SELL_LIMIT, LOAD_SELL_LIMIT ->
+                    insert((SellLimitOrder) payload, (CompletableFuture<Void>) future);
+            // Completed even if matching failed halfway; some of its trades may already be done.
+            case BUY_MARKET -> {
+                try {
+                    buyMarketOrderMatcher.match((BuyMarketOrder) payload);
+                } finally {
+                    completed((Order) payload);
                 }
             }
-        } finally {
-            for (final var bid : bids) {
-                buyOrders.offer(bid);
+            case SELL_MARKET -> {
+                try {
+                    sellMarketOrderMatcher.match((SellMarketOrder) payload);
+                } finally {
+                    completed((Order) payload);
+                }
+            }
+            case IMMEDIATE_BUY_LIMIT -> {
+                try {
+                    buyLimitOrderMatcher.match((BuyLimitOrder) payload);
+                } finally {
+                    completed((Order) payload);
+                }
+            }
+            case IMMEDIATE_SELL_LIMIT -> {
+                try {
+                    sellLimitOrderMatcher.match((SellLimitOrder) payload);
+                } finally {
+                    completed((Order) payload);
+                }
+            }
+            case CANCEL -> cancel((CancelOrder) payload, (CompletableFuture<Boolean>) future, event);
+            case ORDER_BOOK -> orderBook((FetchOrderBook) payload, (CompletableFuture<OrderBook>) future, event);
+            case ORDER_BOOK_DEPTH -> depth((FetchOrderBookDepth) payload, (CompletableFuture<Depth>) future, event);
+            case BATCH -> batch((List<Batched>) payload);
+            case RELEASE -> release((Long) payload);
+            case START_MATCHING -> {
+                // From now on, every change of order book triggers matching; loaded order books may already be crossed.
+                matching = true;
+                match();
             }
+            default -> logger.warn("unknown command type: {}", type);
         }
+    }
 
-        return bids;
+    /**
+     * Handles batched commands one after another; a failing command does not stop the others. Commands of a halted
+     * symbol are rejected one by one.
+     */
+    private void batch(final List<Batched> batch) {
+        for (final var command : batch) {
+            try {
+                handle(command.type, command.payload, command.future, command.event);
+            } catch (RuntimeException ex) {
+                logger.error("{}", ex.getMessage());
+                command.future.completeExceptionally(ex);
+            }
+        }
     }
 
-    private ArrayList<LimitOrder> asksReferences(final int size) {
-        final var asks = new ArrayList<LimitOrder>(size);
-        try {
-            for (int i = 1; i <= size; i++) {
-                if (sellOrders.peek() != null) {
-                    asks.add(sellOrders.poll());
+    /**
+     * Market and immediate orders never rest in order book; they are completed right after matching.
+     */
+    private void completed(final Order order) {
+        orderIds.complete(order.getId());
+    }
+
+    private void release(final Long id) {
+        if (buyOrders.find(id) == null && sellOrders.find(id) == null && !orderIds.isCompleted(id)) {
+            orderIds.release(id);
+        }
+    }
+
+    private void insert(final BuyLimitOrder order, final CompletableFuture<Void> future) {
+        if (buyOrders.offer(order)) {
+            // Completed when matching events of this order are durable.
+            logger.trace("offer: buy: {}", order);
+            match();
+        } else {
+            future.completeExceptionally(new IllegalStateException("buy order already rests in order book: " + order.getId()));
+        }
+    }
+
+    private void insert(final SellLimitOrder order, final CompletableFuture<Void> future) {
+        if (sellOrders.offer(order)) {
+            // Completed when matching events of this order are durable.
+            logger.trace("offer: sell: {}", order);
+            match();
+        } else {
+            future.completeExceptionally(new IllegalStateException("sell order already rests in order book: " + order.getId()));
+        }
+    }
+
+    private void cancel(final CancelOrder order, final CompletableFuture<Boolean> future, final Event event) {
+        var found = false;
+
+        final var buyOrder = buyOrders.find(order.getId());
+        if (buyOrder != null) {
+            found = true;
+            // Remaining of a cancel order is its quantity; compared in units if symbol is fixed point.
+            if (!order.hasRemaining() || buyOrder.compareRemaining(order) == 0) {
+                buyOrders.remove(buyOrder);
+                buyOrderCanceled(order, event);
+            } else if (buyOrder.compareRemaining(order) > 0) {
+                buyOrder.reduceRemaining(order);
+                buyOrders.update(buyOrder);
+                buyOrderPartiallyCanceled(order, event);
+            } else {
+                // Found order's remaining is less than requested cancel order's quantity.
+                found = false;
+            }
+        }
+
+        if (!found) {
+            final var sellOrder = sellOrders.find(order.getId());
+            if (sellOrder != null) {
+                found = true;
+                if (!order.hasRemaining() || sellOrder.compareRemaining(order) == 0) {
+                    sellOrders.remove(sellOrder);
+                    sellOrderCanceled(order, event);
+                } else if (sellOrder.compareRemaining(order) > 0) {
+                    sellOrder.reduceRemaining(order);
+                    sellOrders.update(sellOrder);
+                    sellOrderPartiallyCanceled(order, event);
                 } else {
-                    break;
+                    // Found order's remaining is less than requested cancel order's quantity.
+                    found = false;
                 }
             }
-        } finally {
-            for (final var ask : asks) {
-                sellOrders.offer(ask);
+        }
+
+        if (!found) {
+            future.complete(FALSE);
+            event.end();
+            event.commit();
+        }
+    }
+
+    private void orderBook(final FetchOrderBook fetchOrderBook, final CompletableFuture<OrderBook> future,
+                           final Event event) {
+
+        final var size = fetchOrderBook.getFetchSize();
+        final var depth = fetchOrderBook.getDepth();
+        future.complete(new OrderBook(buyOrders.top(size, depth), sellOrders.top(size, depth)));
+        event.end();
+        event.commit();
+    }
+
+    private void depth(final FetchOrderBookDepth fetchOrderBookDepth, final CompletableFuture<Depth> future,
+                       final Event event) {
+
+        final var depth = fetchOrderBookDepth.getDepth();
+        future.complete(new Depth(buyOrders.depth(depth), sellOrders.depth(depth)));
+        event.end();
+        event.commit();
+    }
+
+    private void buyOrderCanceled(final CancelOrder order, final Event event) {
+        events.add(order);
+        event.end();
+        event.commit();
+
+        logger.trace("cancel: buy: {}", order);
+    }
+
+    private void buyOrderPartiallyCanceled(final CancelOrder order, final Event event) {
+        events.add(order);
+        event.end();
+        event.commit();
+
+        logger.trace("partially: cancel: buy: {}", order);
+    }
+
+    private void sellOrderCanceled(final CancelOrder order, final Event event) {
+        events.add(order);
+        event.end();
+        event.commit();
+
+        logger.trace("cancel: sell: {}", order);
+    }
+
+    private void sellOrderPartiallyCanceled(final CancelOrder order, final Event event) {
+        events.add(order);
+        event.end();
+        event.commit();
+
+        logger.trace("partially: cancel: sell: {}", order);
+    }
+
+    private void match() {
+        if (matching) {
+            try {
+                matcher.run();
+            } catch (RuntimeException ex) {
+                // Offered order already rests and its trades so far are journaled, so it is acknowledged as accepted.
+                logger.error("matching of {} failed; halting symbol: {}", symbol, ex.getMessage());
+                matchingFailure = ex;
             }
         }
+    }
 
-        return asks;
+    private void scale(final LimitOrder order) {
+        if (quantityScale >= 0) {
+            order.scale(priceScale, quantityScale);
+        }
+    }
+
+    private void scale(final Order order) {
+        if (quantityScale >= 0) {
+            order.scale(quantityScale);
+        }
     }
 
-    private ThreadSafeAtomicFile eventsFile(final String symbol) {
+    private Config fixedPoint(final String symbol) {
+        final var symbols = context().config().loadObject("matching.engine.fixed_point");
+        return symbols.get(symbol) instanceof ConfigObject object ? object.toConfig() : null;
+    }
+
+    private static DurabilityPolicy durabilityPolicy(final String symbol) {
+        final var defaults = context().config().loadConfig("matching.engine.durability.default");
+        final var symbols = context().config().loadObject("matching.engine.durability.symbols");
+        return DurabilityPolicy.of(symbols.get(symbol) instanceof ConfigObject object ?
+                object.toConfig().withFallback(defaults) : defaults);
+    }
+
+    private static DurableFile eventsFile(final String symbol, final EngineShards shards) {
         try {
             final var dataDirectoryPath = of(context().config().loadString("matching.engine.data_directory_path"));
-            return new ThreadSafeAtomicFile(dataDirectoryPath.resolve(symbol + ".events"), 1000);
+            final var path = dataDirectoryPath.resolve(symbol + ".events");
+            return switch (context().config().loadString("matching.engine.storage_mode")) {
+                case "atomic" -> new ThreadSafeAtomicFile(path, 1000);
+                case "wal" -> new WriteAheadLogFile(path, durabilityPolicy(symbol), shards.scheduler(),
+                        shards.journal(symbol));
+                default -> throw new IllegalArgumentException("unknown storage mode!");
+            };
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -341,26 +807,34 @@ public final class Engine implements Closeable {
         logger.info("Closing matching engine ...");
 
         try {
-            executor.shutdown();
-            final var timeout = ofSeconds(60);
-            if (!executor.awaitTermination(timeout.toSeconds(), SECONDS)) {
-                // Safe to ignore runnable list!
-                executor.shutdownNow();
-            }
-
-            eventsSynchronizerExecutor.shutdown();
-            if (!eventsSynchronizerExecutor.awaitTermination(timeout.toSeconds(), SECONDS)) {
-                // Safe to ignore runnable list!
-                eventsSynchronizerExecutor.shutdownNow();
-            }
-
+            // Shared executors must already be closed by the owner of shards.
             eventsFile.close();
             eventsSynchronizer.closeMetadataFile();
+            eventsSynchronizer.closeEventsTailer();
         } catch (Exception ex) {
             logger.error("{}", ex.getMessage());
         }
     }
 
+    /**
+     * A command of a batch that is published into engine's ring as one command.
+     *
+     * @author Alireza Pourtaghi
+     */
+    private static final class Batched {
+        private final int type;
+        private final Object payload;
+        private final CompletableFuture<?> future;
+        private final Event event;
+
+        private Batched(final int type, final Object payload, final CompletableFuture<?> future, final Event event) {
+            this.type = type;
+            this.payload = payload;
+            this.future = future;
+            this.event = event;
+        }
+    }
+
     /**
      * @author Alireza Pourtaghi
      */
@@ -381,4 +855,27 @@ public final class Engine implements Closeable {
             return asks;
         }
     }
+
+    /**
+     * Aggregated price levels of both sides; a snapshot that is safe to be read by other threads.
+     *
+     * @author Alireza Pourtaghi
+     */
+    public static final class Depth {
+        private final ArrayList<DepthLevel> bids;
+        private final ArrayList<DepthLevel> asks;
+
+        public Depth(final ArrayList<DepthLevel> bids, final ArrayList<DepthLevel> asks) {
+            this.bids = bids;
+            this.asks = asks;
+        }
+
+        public ArrayList<DepthLevel> getBids() {
+            return bids;
+        }
+
+        public ArrayList<DepthLevel> getAsks() {
+            return asks;
+        }
+    }
 }
@@ -0,0 +1,197 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.matching;
+
+import org.slf4j.Logger;
+import software.openex.oms.event.matching.ShardLoadEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.lang.Math.floorMod;
+import static java.lang.Math.max;
+import static java.lang.Runtime.getRuntime;
+import static java.time.Duration.ofSeconds;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static jdk.jfr.FlightRecorder.addPeriodicEvent;
+import static jdk.jfr.FlightRecorder.removePeriodicEvent;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * A fixed number of matching threads (shards) that all symbols' engines are multiplexed on. Every symbol is assigned
+ * to exactly one shard, so all of its tasks run sequentially; the assignment is either explicit (to isolate hot
+ * symbols) or by hash of the symbol.
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class EngineShards implements Closeable {
+    private static final Logger logger = getLogger(EngineShards.class);
+
+    private final EventLoop[] shards;
+    private final Journal[] journals;
+    private final List<CopyOnWriteArrayList<String>> symbols;
+    private final Map<String, Integer> mapping;
+    private final ConcurrentHashMap<String, Integer> assigned;
+    private final ExecutorService syncExecutor;
+    private final ScheduledExecutorService scheduler;
+    private final Runnable loadReporter;
+
+    /**
+     * @param count        the number of shards; zero or less means available processors - 1
+     * @param waitStrategy wait strategy of shards' threads
+     * @param mapping      explicit symbol to shard index mapping
+     * @param syncThreads  the number of threads that sync events of all symbols with database
+     * @param journalSize  the number of event batches each shard's journal can hold; must be a power of two
+     */
+    public EngineShards(final int count, final WaitStrategy waitStrategy, final Map<String, Integer> mapping,
+                        final int syncThreads, final int journalSize) {
+
+        final var size = count > 0 ? count : max(1, getRuntime().availableProcessors() - 1);
+
+        mapping.forEach((symbol, index) -> {
+            if (index < 0 || index >= size) {
+                throw new IllegalArgumentException("shard index of " + symbol + " must be between 0 and " + (size - 1) + "!");
+            }
+        });
+
+        this.shards = new EventLoop[size];
+        this.journals = new Journal[size];
+        this.symbols = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            this.shards[i] = new EventLoop("matching-shard-" + i, waitStrategy);
+            this.journals[i] = new Journal("journal-shard-" + i, journalSize);
+            this.symbols.add(new CopyOnWriteArrayList<>());
+        }
+
+        this.mapping = Map.copyOf(mapping);
+        this.assigned = new ConcurrentHashMap<>();
+        this.syncExecutor = newFixedThreadPool(syncThreads);
+        this.scheduler = newSingleThreadScheduledExecutor();
+        this.loadReporter = this::reportLoad;
+        addPeriodicEvent(ShardLoadEvent.class, this.loadReporter);
+    }
+
+    /**
+     * Returns the shard of provided symbol; the first call assigns the symbol to a shard.
+     */
+    public EventLoop shard(final String symbol) {
+        return shards[index(symbol)];
+    }
+
+    /**
+     * Returns the journal that events of provided symbol are appended by; it is only fed by the symbol's shard.
+     */
+    public Journal journal(final String symbol) {
+        return journals[index(symbol)];
+    }
+
+    public int index(final String symbol) {
+        return assigned.computeIfAbsent(symbol, key -> {
+            final var index = mapping.getOrDefault(key, floorMod(key.hashCode(), shards.length));
+            symbols.get(index).add(key);
+            return index;
+        });
+    }
+
+    public ExecutorService syncExecutor() {
+        return syncExecutor;
+    }
+
+    /**
+     * Runs delayed and periodic tasks of all symbols, like timers of events files' forces and retries of events
+     * synchronizers; tasks must be short. Forces themselves run on journals' threads.
+     */
+    public ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    public int size() {
+        return shards.length;
+    }
+
+    /**
+     * Returns symbols assigned to a shard.
+     */
+    public List<String> symbols(final int index) {
+        return List.copyOf(symbols.get(index));
+    }
+
+    public long executed(final int index) {
+        return shards[index].executed();
+    }
+
+    public long busyNanos(final int index) {
+        return shards[index].busyNanos();
+    }
+
+    private void reportLoad() {
+        for (int i = 0; i < shards.length; i++) {
+            final var event = new ShardLoadEvent(i, String.join(",", symbols.get(i)), executed(i), busyNanos(i));
+            event.commit();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        logger.info("Closing matching shards ...");
+
+        removePeriodicEvent(loadReporter);
+        final var timeout = ofSeconds(60);
+        try {
+            for (final var shard : shards) {
+                shard.shutdown();
+            }
+
+            for (final var shard : shards) {
+                if (!shard.awaitTermination(timeout.toSeconds(), SECONDS)) {
+                    // Safe to ignore runnable list!
+                    shard.shutdownNow();
+                }
+            }
+
+            // Shards are stopped, so journals have their last batches already.
+            for (final var journal : journals) {
+                journal.close();
+            }
+
+            syncExecutor.shutdown();
+            if (!syncExecutor.awaitTermination(timeout.toSeconds(), SECONDS)) {
+                // Safe to ignore runnable list!
+                syncExecutor.shutdownNow();
+            }
+
+            // Already scheduled forces still run after shutdown.
+            scheduler.shutdown();
+            if (!scheduler.awaitTermination(timeout.toSeconds(), SECONDS)) {
+                // Safe to ignore runnable list!
+                scheduler.shutdownNow();
+            }
+        } catch (Exception ex) {
+            logger.error("{}", ex.getMessage());
+        }
+    }
+}
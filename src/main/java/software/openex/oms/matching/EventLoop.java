@@ -0,0 +1,179 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.matching;
+
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.lang.System.nanoTime;
+import static java.lang.Thread.ofPlatform;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.locks.LockSupport.unpark;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * A single threaded executor that runs submitted tasks in order and waits with a configurable {@link WaitStrategy}
+ * when there is nothing to do; unlike a self resubmitting task, an idle event loop costs no CPU time if it parks.
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class EventLoop extends AbstractExecutorService {
+    private static final Logger logger = getLogger(EventLoop.class);
+
+    private static final int RUNNING = 0;
+    private static final int SHUTDOWN = 1;
+    private static final int TERMINATED = 2;
+
+    private final ConcurrentLinkedQueue<Runnable> tasks;
+    private final WaitStrategy waitStrategy;
+    private final CountDownLatch termination;
+    private final Thread thread;
+    private volatile int state;
+    private volatile boolean waiting;
+    // Load statistics; only written by event loop's thread.
+    private volatile long executed;
+    private volatile long busyNanos;
+
+    public EventLoop(final String name, final WaitStrategy waitStrategy) {
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.waitStrategy = requireNonNull(waitStrategy);
+        this.termination = new CountDownLatch(1);
+        this.state = RUNNING;
+        this.waiting = false;
+        this.executed = 0;
+        this.busyNanos = 0;
+        this.thread = ofPlatform().name(name).unstarted(this::loop);
+        this.thread.start();
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        requireNonNull(task);
+        if (state != RUNNING) {
+            throw new RejectedExecutionException("event loop is shut down!");
+        }
+
+        tasks.offer(task);
+        if (waiting) {
+            unpark(thread);
+        }
+    }
+
+    /**
+     * Parks event loop's thread until a new task is submitted; must only be called by event loop's thread.
+     */
+    void park() {
+        waiting = true;
+        try {
+            // Re-check after publishing waiting flag so that a concurrent submission can not be missed.
+            if (tasks.isEmpty() && state == RUNNING) {
+                LockSupport.park(this);
+            }
+        } finally {
+            waiting = false;
+        }
+    }
+
+    private void loop() {
+        var idleCounter = 0;
+        for (; ; ) {
+            final var task = tasks.poll();
+            if (task != null) {
+                idleCounter = 0;
+                run(task);
+            } else if (state != RUNNING) {
+                break;
+            } else {
+                idleCounter = waitStrategy.idle(this, idleCounter);
+            }
+        }
+
+        state = TERMINATED;
+        termination.countDown();
+    }
+
+    private void run(final Runnable task) {
+        final var start = nanoTime();
+        try {
+            task.run();
+        } catch (Throwable th) {
+            logger.error("task failed: {}", th.getMessage(), th);
+        } finally {
+            busyNanos += nanoTime() - start;
+            executed++;
+        }
+    }
+
+    /**
+     * Returns the number of tasks run so far.
+     */
+    public long executed() {
+        return executed;
+    }
+
+    /**
+     * Returns the total time spent on running tasks so far, in nanoseconds.
+     */
+    public long busyNanos() {
+        return busyNanos;
+    }
+
+    @Override
+    public void shutdown() {
+        if (state == RUNNING) {
+            state = SHUTDOWN;
+        }
+
+        unpark(thread);
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+
+        final var remaining = new ArrayList<Runnable>();
+        for (var task = tasks.poll(); task != null; task = tasks.poll()) {
+            remaining.add(task);
+        }
+
+        return remaining;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return state != RUNNING;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return state == TERMINATED;
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return termination.await(timeout, unit);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.matching;
+
+import software.openex.oms.binary.BinaryRepresentation;
+import software.openex.oms.binary.file.BatchHeader;
+import software.openex.oms.binary.file.BatchHeaderBinaryRepresentation;
+import software.openex.oms.binary.order.LimitOrder;
+import software.openex.oms.binary.order.LimitOrderBinaryRepresentation;
+import software.openex.oms.binary.order.Order;
+import software.openex.oms.binary.order.OrderBinaryRepresentation;
+import software.openex.oms.binary.trade.Trade;
+import software.openex.oms.binary.trade.TradeBinaryRepresentation;
+import software.openex.oms.storage.DurableFile;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+import static java.lang.System.currentTimeMillis;
+import static java.lang.foreign.Arena.ofConfined;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Events (accepted orders, trades and cancel orders) that are produced by handling one incoming command. All of them
+ * are handed to the shard's {@link Journal} at once, so sweeping many resting orders costs one durable append instead
+ * of one per fill and engine's thread never waits on disk I/O. Records are laid out back to back, exactly as if they
+ * were appended one by one, after a {@link BatchHeader} that carries the time engine handed them to journal; lag of
+ * syncing is measured from that time, not from times that clients supplied. This implementation is not thread safe and must only be used by engine's thread.
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class EventsBatch {
+    private final DurableFile file;
+    private final Journal journal;
+    private final DurableSequence sequence;
+    private final ArrayList<Object> events;
+
+    /**
+     * @param listener called every time a batch becomes durable
+     */
+    EventsBatch(final DurableFile file, final Journal journal, final Runnable listener) {
+        this.file = file;
+        this.journal = journal;
+        this.sequence = new DurableSequence(listener);
+        this.events = new ArrayList<>();
+    }
+
+    void add(final Trade trade) {
+        events.add(trade);
+    }
+
+    /**
+     * @param order an accepted order, to be journaled ahead of its trades, or a cancel order
+     */
+    void add(final Order order) {
+        events.add(order);
+    }
+
+    boolean isEmpty() {
+        return events.isEmpty();
+    }
+
+    int size() {
+        return events.size();
+    }
+
+    DurableSequence sequence() {
+        return sequence;
+    }
+
+    /**
+     * Hands all collected events to journal as one batch and clears the batch, even if encoding fails.
+     *
+     * @return a future that completes once the batch is durable
+     */
+    CompletableFuture<Void> flush() {
+        if (events.isEmpty()) {
+            return completedFuture(null);
+        }
+
+        try (final var arena = ofConfined()) {
+            final var binaries = new ArrayList<BinaryRepresentation<?>>(events.size() + 1);
+            final var header = new BatchHeaderBinaryRepresentation(arena, new BatchHeader(currentTimeMillis()));
+            header.encodeV1();
+            binaries.add(header);
+            for (final var event : events) {
+                final BinaryRepresentation<?> binary = switch (event) {
+                    case Trade trade -> new TradeBinaryRepresentation(arena, trade);
+                    case LimitOrder limitOrder -> new LimitOrderBinaryRepresentation(arena, limitOrder);
+                    default -> new OrderBinaryRepresentation(arena, (Order) event);
+                };
+
+                binary.encodeV1();
+                binaries.add(binary);
+            }
+
+            return sequence.whenDurable(journal.append(file, sequence, binaries));
+        } finally {
+            events.clear();
+        }
+    }
+}
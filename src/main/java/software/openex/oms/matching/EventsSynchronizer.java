@@ -17,34 +17,47 @@
  */
 package software.openex.oms.matching;
 
-import org.jooq.Configuration;
 import org.slf4j.Logger;
+import software.openex.oms.binary.file.BatchHeaderBinaryRepresentation;
 import software.openex.oms.binary.file.FileHeader;
 import software.openex.oms.binary.file.FileHeaderBinaryRepresentation;
-import software.openex.oms.binary.order.CancelOrder;
-import software.openex.oms.binary.order.Order;
+import software.openex.oms.binary.order.*;
 import software.openex.oms.binary.trade.Trade;
 import software.openex.oms.binary.trade.TradeBinaryRepresentation;
-import software.openex.oms.event.matching.SyncCanceledOrderEvent;
-import software.openex.oms.event.matching.SyncTradeEvent;
+import software.openex.oms.context.OrderMessageUpdate;
+import software.openex.oms.event.matching.SyncBatchEvent;
+import software.openex.oms.event.matching.SyncLagEvent;
+import software.openex.oms.models.enums.OrderMessageState;
 import software.openex.oms.storage.AtomicFile;
-import software.openex.oms.storage.ThreadSafeAtomicFile;
+import software.openex.oms.storage.DurableFile;
+import software.openex.oms.storage.FileTailer;
 
 import java.io.IOException;
 import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static java.lang.Math.min;
+import static java.lang.System.currentTimeMillis;
 import static java.lang.foreign.Arena.ofConfined;
-import static java.math.BigDecimal.ZERO;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.slf4j.LoggerFactory.getLogger;
 import static software.openex.oms.binary.BinaryRepresentable.*;
 import static software.openex.oms.context.AppContext.context;
+import static software.openex.oms.models.enums.OrderMessageState.CANCELED;
+import static software.openex.oms.models.enums.OrderMessageState.EXECUTED;
 
 /**
  * Events synchronizer implementation that must keep trades, remaining quantity of orders and canceled orders in sync
- * with database tables.
+ * with database tables. It runs while there are durable events to sync and then parks until it is woken up by the
+ * appender, so idle symbols cost no I/O and no CPU time.
  *
  * @author Alireza Pourtaghi
  */
@@ -52,157 +65,273 @@ public final class EventsSynchronizer implements Runnable {
     private static final Logger logger = getLogger(EventsSynchronizer.class);
     private static final FileHeaderBinaryRepresentation fileHeader = new FileHeaderBinaryRepresentation(new FileHeader(0));
 
+    private static final long MIN_BACKOFF_MILLIS = 10;
+    private static final long MAX_BACKOFF_MILLIS = 1000;
+
     private volatile boolean inSync;
+    // Whether a run is scheduled or running; a synchronizer that is in sync runs again only if it is woken up.
+    private final AtomicBoolean scheduled;
+    private volatile boolean wokenUp;
     private final ExecutorService executor;
-    private final ThreadSafeAtomicFile eventsFile;
+    private final ScheduledExecutorService scheduler;
+    private final DurableFile eventsFile;
     private final AtomicFile eventsMetadataFile;
+    private final FileTailer eventsTailer;
+    private final String symbol;
+    private final int batchSize;
+    private final long maxLagMillis;
+    // Only used by the thread of current run; runs never overlap.
+    private long nextPositionToSync;
+    // Time engine appended the batch of the last synced record; zero until a batch header is read.
+    private long appendTs;
+    private long backoffMillis;
+    private boolean lagging;
+
+    /**
+     * @param scheduler used to retry failed runs with an exponential backoff
+     */
+    public EventsSynchronizer(final ExecutorService executor, final ScheduledExecutorService scheduler,
+                              final DurableFile eventsFile) {
 
-    public EventsSynchronizer(final ExecutorService executor, final ThreadSafeAtomicFile eventsFile) {
         this.inSync = false;
+        this.scheduled = new AtomicBoolean(false);
+        this.wokenUp = false;
         this.executor = executor;
+        this.scheduler = scheduler;
         this.eventsFile = eventsFile;
         this.eventsMetadataFile = eventsMetadataFile();
+        this.eventsTailer = eventsTailer();
+        this.symbol = eventsFile.source().getFileName().toString().split("\\.")[0];
+        this.batchSize = context().config().loadInt("matching.engine.sync_batch_size");
+        this.maxLagMillis = context().config().loadDuration("matching.engine.sync_max_lag").toMillis();
+        this.nextPositionToSync = -1;
+        this.appendTs = 0;
+        this.backoffMillis = 0;
+        this.lagging = false;
+    }
+
+    /**
+     * Tells synchronizer that events file has new durable events; it is cheap and can be called by any thread, as often
+     * as wanted.
+     */
+    public void wakeUp() {
+        wokenUp = true;
+        if (!scheduled.get() && scheduled.compareAndSet(false, true)) {
+            execute();
+        }
     }
 
     @Override
     public void run() {
+        wokenUp = false;
+        var failed = false;
         try {
             try (final var arena = ofConfined()) {
-                final var fileSegment = eventsMetadataFile.read(arena, fileHeader.representationSize(), LONG.byteSize());
-                final var nextPositionToSync = fileSegment.get(LONG, 0);
-                if (nextPositionToSync > 0) {
-                    syncAtPosition(arena, nextPositionToSync);
-                } else {
-                    // First time sync.
-                    syncFirst(arena);
+                if (nextPositionToSync < 0) {
+                    // Synced position is read only once; from then on it is kept in memory.
+                    nextPositionToSync = syncedPosition(arena);
                 }
+
+                sync(arena);
             }
         } catch (Exception ex) {
             logger.error("{}", ex.getMessage());
+            // Transaction may have been committed before failing; read synced position again.
+            nextPositionToSync = -1;
+            failed = true;
         } finally {
-            try {
-                executor.execute(this);
-            } catch (RejectedExecutionException _) {
-                logger.warn("Rejected task because of closing executor!");
-            }
+            next(failed);
         }
     }
 
-    private void syncAtPosition(final Arena arena, final long position) throws IOException {
-        final var fileSegment = eventsFile.read(arena, position, RHS);
-        final var recordId = id(fileSegment);
-        final var recordSize = size(fileSegment);
+    /**
+     * Synced position is stored in database, in the transaction of synced rows; metadata file is only read until the
+     * first batch is synced into database, so files of an older version keep their position.
+     */
+    private long syncedPosition(final Arena arena) {
+        final var stored = context().dataBase().fetchSyncPosition(symbol);
+        if (stored != null) {
+            return stored;
+        }
 
-        // We reached end of events file?
-        inSync = recordSize == 0;
+        final var fileSegment = eventsMetadataFile.read(arena, fileHeader.representationSize(), LONG.byteSize());
+        final var position = fileSegment.get(LONG, 0);
+        // First time sync starts right after header of events file.
+        return position > 0 ? position : fileHeader.representationSize();
+    }
 
-        if (recordId == 103 && recordSize > 0) {
-            final var tradeSegment = eventsFile.read(arena, position, RHS + recordSize);
-            final var trade = TradeBinaryRepresentation.decode(tradeSegment);
-            insertTrade(trade, arena, position + RHS + recordSize);
+    private void next(final boolean failed) {
+        if (failed) {
+            // Database may be unavailable; retry with an exponential backoff instead of spinning.
+            backoffMillis = backoffMillis == 0 ? MIN_BACKOFF_MILLIS : min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+            try {
+                scheduler.schedule(this::execute, backoffMillis, MILLISECONDS);
+            } catch (RejectedExecutionException _) {
+                logger.warn("Rejected task because of closing executor!");
+            }
 
             return;
         }
 
-        if (recordId == 104 && recordSize > 0) {
-            final var cancelOrderSegment = eventsFile.read(arena, position, RHS + recordSize);
-            final var cancelOrder = CancelOrder.decode(cancelOrderSegment);
-            cancelOrder(cancelOrder, arena, position + RHS + recordSize);
+        backoffMillis = 0;
+        if (!inSync) {
+            // There are more events to sync.
+            execute();
+            return;
         }
-    }
-
-    private void syncFirst(final Arena arena) throws IOException {
-        final var fileSegment = eventsFile.read(arena, fileHeader.representationSize(), RHS);
-        final var recordId = id(fileSegment);
-        final var recordSize = size(fileSegment);
 
-        // We reached end of events file?
-        inSync = recordSize == 0;
-
-        if (recordId == 103 && recordSize > 0) {
-            final var tradeSegment = eventsFile.read(arena, fileHeader.representationSize(), RHS + recordSize);
-            final var trade = TradeBinaryRepresentation.decode(tradeSegment);
-            insertTrade(trade, arena, fileHeader.representationSize() + RHS + recordSize);
-
-            return;
+        // Park until woken up; a wake up that happened during this run must not be missed.
+        scheduled.set(false);
+        if (wokenUp && scheduled.compareAndSet(false, true)) {
+            execute();
         }
+    }
 
-        if (recordId == 104 && recordSize > 0) {
-            final var cancelOrderSegment = eventsFile.read(arena, fileHeader.representationSize(), RHS + recordSize);
-            final var cancelOrder = CancelOrder.decode(cancelOrderSegment);
-            cancelOrder(cancelOrder, arena, fileHeader.representationSize() + RHS + recordSize);
+    private void execute() {
+        try {
+            executor.execute(this);
+        } catch (RejectedExecutionException _) {
+            logger.warn("Rejected task because of closing executor!");
         }
     }
 
-    private void insertTrade(final Trade trade, final Arena arena, final long nextPositionToImport) {
-        final var event = new SyncTradeEvent();
-        event.begin();
+    /**
+     * Syncs at most batch size records starting at position in one transaction; changes of an order made by records of
+     * the batch are coalesced into one update, and next position to sync is advanced by the same transaction, so a
+     * batch is never applied twice.
+     */
+    private void sync(final Arena arena) throws IOException {
+        final var position = nextPositionToSync;
+        final var orders = new ArrayList<Order>();
+        final var trades = new ArrayList<Trade>();
+        final var updates = new OrderUpdates();
+        var cancels = 0;
+        var records = 0;
+        var reachedEnd = false;
+        var nextPosition = position;
 
-        context().dataBase().postgresql().transaction(configuration -> {
-            final var count = context().dataBase().insertTrade(configuration.dsl(), trade);
-            if (count == 1) {
-                updateOrders(configuration, trade);
-                updateNextPositionToImport(arena, nextPositionToImport);
-                event.end();
-                event.commit();
+        while (records < batchSize) {
+            // Records are decoded in place from the mapping; nothing after durable position of events file is mapped.
+            final var recordHeader = eventsTailer.segment(nextPosition, RHS);
+            if (recordHeader == null || size(recordHeader) == 0) {
+                reachedEnd = true;
+                break;
             }
-        });
-    }
 
-    private void cancelOrder(final Order order, final Arena arena, final long nextPositionToImport) {
-        final var event = new SyncCanceledOrderEvent();
-        event.begin();
+            final var recordId = id(recordHeader);
+            final var recordSize = size(recordHeader);
+            if (recordId == 2) {
+                // Frame header of write-ahead log; records of the frame follow it.
+                nextPosition += RHS + recordSize;
+                continue;
+            }
 
-        final var fetchedOrder = context().dataBase().fetchOrderMessage(order.getId(), order.getSymbol());
-        // matching.engine.store_orders option may be false.
-        if (fetchedOrder == null) {
-            updateNextPositionToImport(arena, nextPositionToImport);
-            event.end();
-            event.commit();
-            return;
+            final var record = eventsTailer.segment(nextPosition, RHS + recordSize);
+            if (record == null) {
+                reachedEnd = true;
+                break;
+            }
+
+            if (recordId == 3) {
+                // Batch header; records that follow it were handed to journal by engine at this time.
+                appendTs = BatchHeaderBinaryRepresentation.decode(record).getTs();
+                nextPosition += RHS + recordSize;
+                continue;
+            }
+
+            if (recordId == 101 || recordId == 102 || (recordId >= 107 && recordId <= 114)) {
+                final var order = order(recordId, record);
+                orders.add(order);
+            } else if (recordId == 103) {
+                final var trade = TradeBinaryRepresentation.decode(record);
+                trades.add(trade);
+                updates.trade(trade);
+            } else if (recordId == 104) {
+                final var cancelOrder = CancelOrder.decode(record);
+                updates.cancel(cancelOrder.getId(), cancelOrder.get_quantity());
+                cancels++;
+            } else {
+                throw new RuntimeException("unknown record id: " + recordId + " at position: " + nextPosition + "!");
+            }
+
+            nextPosition += RHS + recordSize;
+            records++;
         }
 
-        final var currentRemaining = new BigDecimal(fetchedOrder.component7());
-        if (order.get_quantity().stripTrailingZeros().equals(ZERO) ||
-                currentRemaining.compareTo(order.get_quantity()) == 0) {
+        if (nextPosition > position) {
+            final var event = new SyncBatchEvent(eventsFile.source().toString(), orders.size(), trades.size(), cancels,
+                    updates.size());
+            event.begin();
 
             context().dataBase().postgresql().transaction(configuration -> {
-                final var count = context().dataBase().cancelOrder(configuration.dsl(), order);
-                if (count == 1) {
-                    updateNextPositionToImport(arena, nextPositionToImport);
-                    event.end();
-                    event.commit();
+                // Orders first; trades and cancels of the same batch update them.
+                context().dataBase().insertOrders(configuration.dsl(), orders);
+
+                final var count = context().dataBase().insertTrades(configuration.dsl(), trades);
+                if (count != trades.size()) {
+                    throw new RuntimeException("inserted " + count + " trades instead of " + trades.size() + "!");
                 }
-            });
-        }
 
-        if (currentRemaining.compareTo(order.get_quantity()) > 0) {
-            context().dataBase().postgresql().transaction(configuration -> {
-                final var newRemaining = currentRemaining.subtract(order.get_quantity()).toPlainString();
-                final var count = context().dataBase().updateRemaining(configuration.dsl(), order.getId(), order.getSymbol(), newRemaining);
-                if (count == 1) {
-                    updateNextPositionToImport(arena, nextPositionToImport);
-                    event.end();
-                    event.commit();
+                context().dataBase().updateOrderMessages(configuration.dsl(), symbol, updates.list());
+
+                if (!context().dataBase().updateSyncPosition(configuration.dsl(), symbol, position, nextPosition)) {
+                    throw new RuntimeException(
+                            "events of " + symbol + " at position: " + position + " are already synced!");
                 }
             });
+
+            // Kept as a hint for files of an older version; database is the source of truth.
+            updateNextPositionToImport(arena, nextPosition);
+            nextPositionToSync = nextPosition;
+            event.end();
+            event.commit();
         }
+
+        inSync = reachedEnd;
+        // Files of an older version have no batch headers; their lag is not known.
+        checkLag(reachedEnd || appendTs == 0 ? 0 : currentTimeMillis() - appendTs);
     }
 
-    private void updateOrders(final Configuration configuration, final Trade trade) {
-        // matching.engine.store_orders option may be false.
-        final var bor = trade.getMetadata().split(";")[0].replace("bor:", "");
-        if (bor.equals("0")) {
-            context().dataBase().executeOrder(configuration.dsl(), trade.getBuyOrderId(), trade.getSymbol(), bor);
-        } else {
-            context().dataBase().updateRemaining(configuration.dsl(), trade.getBuyOrderId(), trade.getSymbol(), bor);
+    /**
+     * Decodes a journaled order record; records of all limit and all market orders share the same layout.
+     */
+    private static Order order(final int recordId, final MemorySegment record) {
+        if (recordId == 101 || recordId == 102 || (recordId >= 109 && recordId <= 112)) {
+            final var order = BuyLimitOrder.decode(record);
+            final var id = order.getId();
+            final var ts = order.getTs();
+            return switch (recordId) {
+                case 101 -> order;
+                case 102 -> new SellLimitOrder(id, ts, order.getSymbol(), order.getQuantity(), order.getPrice());
+                case 109 -> new IOCBuyLimitOrder(id, ts, order.getSymbol(), order.getQuantity(), order.getPrice());
+                case 110 -> new IOCSellLimitOrder(id, ts, order.getSymbol(), order.getQuantity(), order.getPrice());
+                case 111 -> new FOKBuyLimitOrder(id, ts, order.getSymbol(), order.getQuantity(), order.getPrice());
+                default -> new FOKSellLimitOrder(id, ts, order.getSymbol(), order.getQuantity(), order.getPrice());
+            };
         }
 
-        final var sor = trade.getMetadata().split(";")[1].replace("sor:", "");
-        if (sor.equals("0")) {
-            context().dataBase().executeOrder(configuration.dsl(), trade.getSellOrderId(), trade.getSymbol(), sor);
-        } else {
-            context().dataBase().updateRemaining(configuration.dsl(), trade.getSellOrderId(), trade.getSymbol(), sor);
+        final var order = BuyMarketOrder.decode(record);
+        return switch (recordId) {
+            case 107 -> order;
+            case 108 -> new SellMarketOrder(order.getId(), order.getTs(), order.getSymbol(), order.getQuantity());
+            case 113 -> new FOKBuyMarketOrder(order.getId(), order.getTs(), order.getSymbol(), order.getQuantity());
+            default -> new FOKSellMarketOrder(order.getId(), order.getTs(), order.getSymbol(), order.getQuantity());
+        };
+    }
+
+    /**
+     * Raises an alarm once when events that are not synced yet are older than max lag, and clears it when caught up.
+     */
+    private void checkLag(final long lagMillis) {
+        if (lagMillis > maxLagMillis && !lagging) {
+            lagging = true;
+            logger.warn("Events of {} are not synced with database for {} ms!", symbol, lagMillis);
+
+            final var event = new SyncLagEvent(eventsFile.source().toString(), lagMillis);
+            event.commit();
+        } else if (lagMillis <= maxLagMillis && lagging) {
+            lagging = false;
+            logger.info("Events of {} are in sync with database again", symbol);
         }
     }
 
@@ -221,6 +350,14 @@ public final class EventsSynchronizer implements Runnable {
         }
     }
 
+    private FileTailer eventsTailer() {
+        try {
+            return new FileTailer(eventsFile);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public boolean isInSync() {
         return inSync;
     }
@@ -228,4 +365,72 @@ public final class EventsSynchronizer implements Runnable {
     public void closeMetadataFile() throws IOException {
         eventsMetadataFile.close();
     }
+
+    public void closeEventsTailer() throws IOException {
+        eventsTailer.close();
+    }
+
+    /**
+     * Changes of order messages made by a batch of events, in order. Consecutive changes of an order are coalesced into
+     * one; a cancel is computed in memory if the order's remaining is already known by an earlier trade of the batch,
+     * otherwise it is left to database to be applied atomically against the stored remaining.
+     *
+     * @author Alireza Pourtaghi
+     */
+    private static final class OrderUpdates {
+        private final ArrayList<OrderMessageUpdate> updates;
+        private final HashMap<Long, Integer> latest;
+
+        private OrderUpdates() {
+            this.updates = new ArrayList<>();
+            this.latest = new HashMap<>();
+        }
+
+        private void trade(final Trade trade) {
+            // matching.engine.store_orders option may be false; then updates just match no order message.
+            final var bor = new BigDecimal(trade.getMetadata().split(";")[0].replace("bor:", ""));
+            remaining(trade.getBuyOrderId(), bor, bor.signum() == 0 ? EXECUTED : null);
+
+            final var sor = new BigDecimal(trade.getMetadata().split(";")[1].replace("sor:", ""));
+            remaining(trade.getSellOrderId(), sor, sor.signum() == 0 ? EXECUTED : null);
+        }
+
+        private void remaining(final long id, final BigDecimal remaining, final OrderMessageState state) {
+            final var index = latest.get(id);
+            if (index != null && updates.get(index).getCanceledQuantity() == null) {
+                final var previous = updates.get(index);
+                final var newState = state == null ? previous.getState() : state;
+                updates.set(index, new OrderMessageUpdate(id, remaining, newState, null));
+                return;
+            }
+
+            latest.put(id, updates.size());
+            updates.add(new OrderMessageUpdate(id, remaining, state, null));
+        }
+
+        private void cancel(final long id, final BigDecimal quantity) {
+            final var index = latest.get(id);
+            final var previous = index == null ? null : updates.get(index);
+            if (previous == null || previous.getRemaining() == null) {
+                latest.put(id, updates.size());
+                updates.add(new OrderMessageUpdate(id, null, null, quantity));
+                return;
+            }
+
+            final var remaining = previous.getRemaining();
+            if (quantity.signum() == 0 || remaining.compareTo(quantity) == 0) {
+                updates.set(index, new OrderMessageUpdate(id, remaining, CANCELED, null));
+            } else if (remaining.compareTo(quantity) > 0) {
+                updates.set(index, new OrderMessageUpdate(id, remaining.subtract(quantity), previous.getState(), null));
+            }
+        }
+
+        private List<OrderMessageUpdate> list() {
+            return updates;
+        }
+
+        private int size() {
+            return latest.size();
+        }
+    }
 }
@@ -0,0 +1,196 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.matching;
+
+import org.slf4j.Logger;
+import software.openex.oms.binary.BinaryRepresentation;
+import software.openex.oms.storage.DurableFile;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.lang.Thread.onSpinWait;
+import static java.lang.Thread.ofPlatform;
+import static java.lang.foreign.MemorySegment.copy;
+import static java.util.concurrent.locks.LockSupport.unpark;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * A dedicated thread that appends encoded events of one matching shard to their events files, so the shard's thread
+ * never waits on disk I/O. Engines hand batches over through a bounded {@link JournalRing} and get a sequence number
+ * back; the journal publishes a batch's number to its {@link DurableSequence} once its events file reports the batch
+ * as durable. Batches of one file are appended in the order they were handed over; once a batch could not be
+ * journaled, later batches of the same file are failed without being appended. Forces of events files that are
+ * deferred by their durability policy are executed on the same thread, so a slow disk of one shard never delays others.
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class Journal implements Closeable, Executor {
+    private static final Logger logger = getLogger(Journal.class);
+    private static final int SPINS = 1000;
+    private static final int YIELDS = 100;
+
+    private final JournalRing ring;
+    private final ConcurrentLinkedQueue<Runnable> tasks;
+    private final Thread thread;
+    private volatile boolean running;
+    private volatile boolean waiting;
+
+    public Journal(final String name, final int capacity) {
+        this.ring = new JournalRing(capacity);
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.running = true;
+        this.waiting = false;
+        this.thread = ofPlatform().name(name).unstarted(this::loop);
+        this.thread.start();
+    }
+
+    /**
+     * Copies records back to back into the journal and returns their batch's sequence number; spins while the journal
+     * is full. Must only be called by the matching shard's thread that owns this journal.
+     */
+    long append(final DurableFile file, final DurableSequence sequence,
+                final List<? extends BinaryRepresentation<?>> records) {
+
+        var size = 0L;
+        for (final var record : records) {
+            size += record.segment().byteSize();
+        }
+
+        final var slot = ring.claim(size);
+        var position = 0L;
+        for (final var record : records) {
+            copy(record.segment(), 0, slot.buffer(), position, record.segment().byteSize());
+            position += record.segment().byteSize();
+        }
+
+        final var number = sequence.next();
+        ring.publish(slot, file, sequence, number, size);
+        if (waiting) {
+            unpark(thread);
+        }
+
+        return number;
+    }
+
+    /**
+     * Runs a task, like a deferred force of an events file, on journal's thread between appends; can be called by any
+     * thread. Tasks executed after close are dropped.
+     */
+    @Override
+    public void execute(final Runnable task) {
+        tasks.add(task);
+        if (waiting) {
+            unpark(thread);
+        }
+    }
+
+    private void loop() {
+        var idleCounter = 0;
+        for (; ; ) {
+            final var ran = runTasks();
+            final var slot = ring.peek();
+            if (slot != null) {
+                idleCounter = 0;
+                journal(slot);
+                ring.release(slot);
+            } else if (ran) {
+                idleCounter = 0;
+            } else if (!running) {
+                break;
+            } else {
+                idleCounter = idle(idleCounter);
+            }
+        }
+    }
+
+    private void journal(final JournalRing.Slot slot) {
+        final var sequence = slot.sequence();
+        final var number = slot.number();
+        final var failure = sequence.failure();
+        if (failure != null) {
+            // Nothing is appended after a missing batch; the file stays a gapless prefix of engine's events.
+            sequence.publish(number, failure);
+            return;
+        }
+
+        try {
+            slot.file().append(slot.records());
+            slot.file().whenDurable().whenComplete((_, ex) -> sequence.publish(number, ex));
+        } catch (RuntimeException ex) {
+            logger.error("could not journal events of {}: {}", slot.file().source(), ex.getMessage());
+            sequence.publish(number, ex);
+        }
+    }
+
+    private boolean runTasks() {
+        var ran = false;
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            ran = true;
+            try {
+                task.run();
+            } catch (RuntimeException ex) {
+                logger.error("journal task failed: {}", ex.getMessage());
+            }
+        }
+
+        return ran;
+    }
+
+    private int idle(final int counter) {
+        if (counter < SPINS) {
+            onSpinWait();
+            return counter + 1;
+        }
+
+        if (counter < SPINS + YIELDS) {
+            Thread.yield();
+            return counter + 1;
+        }
+
+        waiting = true;
+        try {
+            // Re-check after publishing waiting flag so that a concurrent append can not be missed.
+            if (ring.isEmpty() && tasks.isEmpty() && running) {
+                LockSupport.park(this);
+            }
+        } finally {
+            waiting = false;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Appends all batches handed over so far and stops journal's thread; producers must already be stopped.
+     */
+    @Override
+    public void close() {
+        running = false;
+        unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
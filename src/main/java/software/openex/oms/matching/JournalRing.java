@@ -0,0 +1,164 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.matching;
+
+import software.openex.oms.storage.DurableFile;
+
+import java.lang.foreign.MemorySegment;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.Integer.bitCount;
+import static java.lang.Math.max;
+import static java.lang.Thread.onSpinWait;
+import static java.lang.foreign.Arena.ofAuto;
+
+/**
+ * A bounded, preallocated, lock free single producer single consumer ring buffer of encoded events on their way to
+ * events files. The producer (a matching shard's thread) copies records into a slot's own buffer and publishes it by
+ * advancing tail; the consumer (journal's thread) appends them and hands the slot back by advancing head. Buffers are
+ * reused and only grow, so journaling a batch normally allocates nothing.
+ *
+ * @author Alireza Pourtaghi
+ */
+final class JournalRing {
+    private static final long INITIAL_BUFFER_SIZE = 4096;
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong head;
+    private final AtomicLong tail;
+    // Last seen head by producer and last seen tail by consumer; each one is only used by its own thread.
+    private long cachedHead;
+    private long cachedTail;
+
+    JournalRing(final int capacity) {
+        if (capacity < 2 || bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("ring capacity must be a power of two!");
+        }
+
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            this.slots[i] = new Slot();
+        }
+
+        this.mask = capacity - 1;
+        this.head = new AtomicLong(0);
+        this.tail = new AtomicLong(0);
+        this.cachedHead = 0;
+        this.cachedTail = 0;
+    }
+
+    /**
+     * Returns the next free slot with a buffer of at least size bytes; spins while the ring is full. Must only be called
+     * by the producer thread and followed by {@link #publish(Slot, DurableFile, DurableSequence, long, long)}.
+     */
+    Slot claim(final long size) {
+        final var position = tail.get();
+        var spins = 0;
+        while (position - cachedHead == slots.length) {
+            cachedHead = head.get();
+            if (position - cachedHead == slots.length) {
+                // Ring is full; wait for the journal to catch up.
+                if (++spins < 100) onSpinWait();
+                else Thread.yield();
+            }
+        }
+
+        final var slot = slots[(int) position & mask];
+        if (slot.buffer == null || slot.buffer.byteSize() < size) {
+            slot.buffer = ofAuto().allocate(max(size, INITIAL_BUFFER_SIZE));
+        }
+
+        return slot;
+    }
+
+    /**
+     * Publishes a claimed slot to the consumer; must only be called by the producer thread.
+     */
+    void publish(final Slot slot, final DurableFile file, final DurableSequence sequence, final long number,
+                 final long length) {
+
+        slot.file = file;
+        slot.sequence = sequence;
+        slot.number = number;
+        slot.length = length;
+        // Ordered write publishes all above fields and buffer's content to the consumer.
+        tail.lazySet(tail.get() + 1);
+    }
+
+    /**
+     * Returns the next published slot or null if there is none; must only be called by the consumer thread.
+     */
+    Slot peek() {
+        final var position = head.get();
+        if (position == cachedTail) {
+            cachedTail = tail.get();
+            if (position == cachedTail) {
+                return null;
+            }
+        }
+
+        return slots[(int) position & mask];
+    }
+
+    /**
+     * Hands a consumed slot back to the producer; must only be called by the consumer thread.
+     */
+    void release(final Slot slot) {
+        slot.file = null;
+        slot.sequence = null;
+        head.lazySet(head.get() + 1);
+    }
+
+    boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    /**
+     * A reusable slot that owns a growable off-heap buffer.
+     *
+     * @author Alireza Pourtaghi
+     */
+    static final class Slot {
+        private MemorySegment buffer;
+        private DurableFile file;
+        private DurableSequence sequence;
+        private long number;
+        private long length;
+
+        MemorySegment buffer() {
+            return buffer;
+        }
+
+        MemorySegment records() {
+            return buffer.asSlice(0, length);
+        }
+
+        DurableFile file() {
+            return file;
+        }
+
+        DurableSequence sequence() {
+            return sequence;
+        }
+
+        long number() {
+            return number;
+        }
+    }
+}
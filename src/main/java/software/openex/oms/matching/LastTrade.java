@@ -17,36 +17,30 @@
  */
 package software.openex.oms.matching;
 
-import software.openex.oms.binary.order.CancelOrder;
-import software.openex.oms.binary.order.OrderBinaryRepresentation;
 import software.openex.oms.binary.trade.Trade;
-import software.openex.oms.binary.trade.TradeBinaryRepresentation;
-import software.openex.oms.storage.AtomicFile;
-
-import static java.lang.foreign.Arena.ofConfined;
 
 /**
- * Package level utility class.
+ * Holder of the last trade of an engine; must only be used by engine's thread.
  *
  * @author Alireza Pourtaghi
  */
-final class Util {
-
-    static void append(final Trade trade, final AtomicFile file) {
-        try (final var arena = ofConfined()) {
-            final var binary = new TradeBinaryRepresentation(arena, trade);
-            binary.encodeV1();
+public final class LastTrade {
+    private Trade trade;
+    private long count;
 
-            file.append(binary.segment());
-        }
+    void set(final Trade trade) {
+        this.trade = trade;
+        this.count++;
     }
 
-    static void append(final CancelOrder cancelOrder, final AtomicFile file) {
-        try (final var arena = ofConfined()) {
-            final var binary = new OrderBinaryRepresentation(arena, cancelOrder);
-            binary.encodeV1();
+    Trade get() {
+        return trade;
+    }
 
-            file.append(binary.segment());
-        }
+    /**
+     * Returns the number of trades recorded so far; used to detect new trades cheaply.
+     */
+    long count() {
+        return count;
     }
 }
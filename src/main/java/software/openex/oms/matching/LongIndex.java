@@ -0,0 +1,147 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.matching;
+
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Math.max;
+
+/**
+ * An open addressing (linear probing) hash index from primitive long keys, like order ids or fixed point prices, to
+ * values of a book. It avoids boxing of keys and keeps lookup, insertion and removal in constant time. Not thread safe.
+ *
+ * @author Alireza Pourtaghi
+ */
+final class LongIndex<V> {
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    LongIndex(final int initialCapacity) {
+        // Keep load factor at most 0.5 for short probe sequences.
+        final var capacity = max(16, highestOneBit(max(1, initialCapacity) * 2 - 1) * 2);
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+        this.size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(final long key) {
+        for (int i = slot(key); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Adds an entry of a key that is not indexed yet; an existing entry is never overwritten.
+     *
+     * @return false if key is already indexed
+     */
+    boolean put(final long key, final V value) {
+        int i = slot(key);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return false;
+            }
+        }
+
+        keys[i] = key;
+        values[i] = value;
+        if (++size > (mask + 1) >> 1) {
+            resize();
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes the entry of provided key only if it still references provided value.
+     */
+    void remove(final long key, final V value) {
+        int i = slot(key);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                if (values[i] == value) {
+                    delete(i);
+                }
+
+                return;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void delete(int hole) {
+        values[hole] = null;
+        size--;
+
+        // Backward shift deletion; no tombstones are needed.
+        for (int i = (hole + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+            final var home = slot(keys[i]);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                values[i] = null;
+                hole = i;
+            }
+        }
+    }
+
+    private void resize() {
+        final var oldKeys = keys;
+        final var oldValues = values;
+
+        keys = new long[oldKeys.length << 1];
+        values = new Object[oldValues.length << 1];
+        mask = keys.length - 1;
+        size = 0;
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Re-inserts an entry while resizing; keys are known to be unique.
+     */
+    private void insert(final long key, final Object value) {
+        int i = slot(key);
+        while (values[i] != null) {
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    private int slot(final long key) {
+        // Fibonacci hashing spreads sequential keys over the whole table.
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
@@ -21,58 +21,49 @@ import org.slf4j.Logger;
 import software.openex.oms.binary.order.LimitOrder;
 import software.openex.oms.binary.trade.Trade;
 import software.openex.oms.event.matching.MatchEvent;
-import software.openex.oms.storage.ThreadSafeAtomicFile;
-
-import java.util.PriorityQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.RejectedExecutionException;
 
 import static java.lang.String.format;
 import static java.math.BigDecimal.ZERO;
 import static java.time.Instant.now;
 import static org.slf4j.LoggerFactory.getLogger;
-import static software.openex.oms.matching.Util.append;
 
 /**
- * An orders matcher as a runnable to be submitted into engine's single threaded executor.
+ * An orders matcher as a runnable to be run by engine's single threaded executor whenever order book changes; it
+ * keeps matching until the order book is uncrossed and then returns. A failure is not swallowed; it is thrown to
+ * engine, which halts the symbol since order book may be left crossed.
  *
  * @author Alireza Pourtaghi
  */
 public final class Matcher implements Runnable {
     private static final Logger logger = getLogger(Matcher.class);
 
-    private final ExecutorService executor;
-    private final PriorityQueue<LimitOrder> buyOrders;
-    private final PriorityQueue<LimitOrder> sellOrders;
-    private final ThreadSafeAtomicFile tradesFile;
+    private final PriceLevelBook buyOrders;
+    private final PriceLevelBook sellOrders;
+    private final EventsBatch events;
+    private final LastTrade lastTrade;
 
-    public Matcher(final ExecutorService executor, final PriorityQueue<LimitOrder> buyOrders,
-                   final PriorityQueue<LimitOrder> sellOrders, final ThreadSafeAtomicFile tradesFile) {
+    public Matcher(final PriceLevelBook buyOrders, final PriceLevelBook sellOrders,
+                   final EventsBatch events, final LastTrade lastTrade) {
 
-        this.executor = executor;
         this.buyOrders = buyOrders;
         this.sellOrders = sellOrders;
-        this.tradesFile = tradesFile;
+        this.events = events;
+        this.lastTrade = lastTrade;
     }
 
     @Override
     public void run() {
-        try {
+        for (; ; ) {
             final var buyOrdersHead = buyOrders.peek();
-            if (buyOrdersHead != null) {
-                final var sellOrdersHead = sellOrders.peek();
-                if (sellOrdersHead != null) {
-                    // If the price of the head of buys is greater than or equal to that of the head of sells.
-                    if (buyOrdersHead.get_price().compareTo(sellOrdersHead.get_price()) >= 0) {
-                        trade(buyOrdersHead, sellOrdersHead);
-                    }
-                }
-            }
-        } finally {
-            try {
-                executor.execute(this);
-            } catch (RejectedExecutionException _) {
-                logger.warn("Rejected task because of closing executor!");
+            final var sellOrdersHead = sellOrders.peek();
+
+            // If the price of the head of buys is greater than or equal to that of the head of sells.
+            if (buyOrdersHead != null && sellOrdersHead != null &&
+                    buyOrdersHead.comparePrice(sellOrdersHead) >= 0) {
+
+                trade(buyOrdersHead, sellOrdersHead);
+            } else {
+                break;
             }
         }
     }
@@ -82,7 +73,7 @@ public final class Matcher implements Runnable {
         event.begin();
 
         logger.trace("match: buy: {} sell: {}", buyOrder, sellOrder);
-        switch (buyOrder.get_remaining().compareTo(sellOrder.get_remaining())) {
+        switch (buyOrder.compareRemaining(sellOrder)) {
             case 0 -> handleEquality(buyOrder, sellOrder);
             case 1 -> handleGreaterThan(buyOrder, sellOrder);
             case -1 -> handleLessThan(buyOrder, sellOrder);
@@ -99,15 +90,16 @@ public final class Matcher implements Runnable {
                 buyOrder.getId(),
                 sellOrder.getId(),
                 buyOrder.getSymbol(),
-                buyOrder.get_remaining().toPlainString(),
+                buyOrder.remainingAsPlainString(),
                 buyOrder.getPrice(),
                 sellOrder.getPrice(),
                 format("bor:%s;sor:%s", ZERO, ZERO),
                 now.toEpochMilli());
 
-        append(trade, tradesFile);
-        buyOrder.set_remaining(ZERO);
-        sellOrder.set_remaining(ZERO);
+        events.add(trade);
+        lastTrade.set(trade);
+        buyOrder.clearRemaining();
+        sellOrder.clearRemaining();
         buyOrders.poll();
         sellOrders.poll();
 
@@ -118,20 +110,22 @@ public final class Matcher implements Runnable {
     private void handleGreaterThan(final LimitOrder buyOrder, final LimitOrder sellOrder) {
         // Sell order must be polled.
         final var now = now();
-        final var remaining = buyOrder.get_remaining().subtract(sellOrder.get_remaining());
+        final var remaining = buyOrder.remainingAfter(sellOrder);
         final var trade = new Trade(
                 buyOrder.getId(),
                 sellOrder.getId(),
                 buyOrder.getSymbol(),
-                sellOrder.get_remaining().toPlainString(),
+                sellOrder.remainingAsPlainString(),
                 buyOrder.getPrice(),
                 sellOrder.getPrice(),
-                format("bor:%s;sor:%s", remaining.stripTrailingZeros(), ZERO),
+                format("bor:%s;sor:%s", remaining, ZERO),
                 now.toEpochMilli());
 
-        append(trade, tradesFile);
-        buyOrder.set_remaining(remaining);
-        sellOrder.set_remaining(ZERO);
+        events.add(trade);
+        lastTrade.set(trade);
+        buyOrder.reduceRemaining(sellOrder);
+        buyOrders.update(buyOrder);
+        sellOrder.clearRemaining();
         sellOrders.poll();
 
         logger.trace("poll: sell: {}", sellOrder);
@@ -140,20 +134,22 @@ public final class Matcher implements Runnable {
     private void handleLessThan(final LimitOrder buyOrder, final LimitOrder sellOrder) {
         // Buy order must be polled.
         final var now = now();
-        final var remaining = sellOrder.get_remaining().subtract(buyOrder.get_remaining());
+        final var remaining = sellOrder.remainingAfter(buyOrder);
         final var trade = new Trade(
                 buyOrder.getId(),
                 sellOrder.getId(),
                 buyOrder.getSymbol(),
-                buyOrder.get_remaining().toPlainString(),
+                buyOrder.remainingAsPlainString(),
                 buyOrder.getPrice(),
                 sellOrder.getPrice(),
-                format("bor:%s;sor:%s", ZERO, remaining.stripTrailingZeros()),
+                format("bor:%s;sor:%s", ZERO, remaining),
                 now.toEpochMilli());
 
-        append(trade, tradesFile);
-        buyOrder.set_remaining(ZERO);
-        sellOrder.set_remaining(remaining);
+        events.add(trade);
+        lastTrade.set(trade);
+        sellOrder.reduceRemaining(buyOrder);
+        sellOrders.update(sellOrder);
+        buyOrder.clearRemaining();
         buyOrders.poll();
 
         logger.trace("poll: buy: {}", buyOrder);
@@ -0,0 +1,99 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.matching;
+
+import java.util.Set;
+
+import static java.lang.Boolean.TRUE;
+import static java.util.concurrent.ConcurrentHashMap.newKeySet;
+
+/**
+ * Ids of a symbol's orders that are used to detect duplicate orders in memory. The id of a live order is remembered
+ * until the order completes (filled, canceled or not resting at all) and then for as long as it is one of the latest
+ * completed orders of the window. Ids can be reserved by any thread, but orders must only be completed by engine's
+ * thread.
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class OrderIds {
+    private final Set<Long> ids;
+    private final long[] completed;
+    // Ids of window of completed orders; only used by engine's thread.
+    private final LongIndex<Boolean> completedIds;
+    private int next;
+    private int count;
+
+    /**
+     * @param window the number of completed orders to remember
+     */
+    public OrderIds(final int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be positive!");
+        }
+
+        this.ids = newKeySet();
+        this.completed = new long[window];
+        this.completedIds = new LongIndex<>(window);
+        this.next = 0;
+        this.count = 0;
+    }
+
+    /**
+     * Reserves the id of an incoming order.
+     *
+     * @return false if id belongs to a live or a recently completed order
+     */
+    public boolean reserve(final long id) {
+        return ids.add(id);
+    }
+
+    /**
+     * Moves a reserved id into window of completed orders, forgetting the oldest completed one if window is full.
+     */
+    void complete(final long id) {
+        if (count == completed.length) {
+            ids.remove(completed[next]);
+            completedIds.remove(completed[next], TRUE);
+        } else {
+            count++;
+        }
+
+        completed[next] = id;
+        completedIds.put(id, TRUE);
+        next = next + 1 == completed.length ? 0 : next + 1;
+    }
+
+    /**
+     * Forgets a reserved id of an order that never took effect, so that it can be retried; must only be called by
+     * engine's thread and never for a completed order.
+     */
+    void release(final long id) {
+        ids.remove(id);
+    }
+
+    /**
+     * Checks window of completed orders; must only be called by engine's thread.
+     */
+    boolean isCompleted(final long id) {
+        return completedIds.get(id) != null;
+    }
+
+    public boolean contains(final long id) {
+        return ids.contains(id);
+    }
+}
@@ -0,0 +1,504 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.matching;
+
+import software.openex.oms.binary.order.LimitOrder;
+import software.openex.oms.binary.order.book.DepthLevel;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.function.LongConsumer;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.math.BigDecimal.ZERO;
+import static java.math.BigDecimal.valueOf;
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.reverseOrder;
+
+/**
+ * One side of an order book that groups resting limit orders into price levels. Levels are sorted by price priority
+ * and every level keeps its orders in arrival order besides aggregates of its remaining quantity and number of orders,
+ * which are maintained incrementally. A book of a fixed point symbol keys its levels by price units and aggregates
+ * quantity units, so matching creates no decimals; they are only created for depth and best bid/offer. This
+ * implementation is not thread safe and must only be used by engine's single threaded executor.
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class PriceLevelBook implements Iterable<LimitOrder> {
+    private final boolean bids;
+    // Levels of a book whose prices are decimals; null if book is scaled.
+    private final TreeMap<BigDecimal, PriceLevel> levels;
+    private final HashMap<BigDecimal, PriceLevel> levelsByPrice;
+    // Levels of a book whose prices are units of price scale; null if book is not scaled.
+    private final TreeMap<Long, PriceLevel> unitLevels;
+    private final LongIndex<PriceLevel> levelsByUnits;
+    private final LongIndex<Node> orders;
+    private final LongConsumer removed;
+    private final int priceScale;
+    private final int quantityScale;
+    private PriceLevel best;
+    private int size;
+    private long version;
+
+    private PriceLevelBook(final boolean bids, final int initialCapacity, final int priceScale,
+                           final int quantityScale, final LongConsumer removed) {
+
+        final var scaled = quantityScale >= 0;
+        this.bids = bids;
+        this.levels = scaled ? null : new TreeMap<BigDecimal, PriceLevel>(bids ? reverseOrder() : naturalOrder());
+        this.levelsByPrice = scaled ? null : new HashMap<>();
+        this.unitLevels = scaled ? new TreeMap<Long, PriceLevel>(bids ? reverseOrder() : naturalOrder()) : null;
+        this.levelsByUnits = scaled ? new LongIndex<>(16) : null;
+        this.orders = new LongIndex<>(initialCapacity);
+        this.removed = removed;
+        this.priceScale = priceScale;
+        this.quantityScale = quantityScale;
+        this.best = null;
+        this.size = 0;
+        this.version = 0;
+    }
+
+    /**
+     * Creates buy side of an order book; the highest price has the most priority.
+     */
+    public static PriceLevelBook bids(final int initialCapacity) {
+        return bids(initialCapacity, _ -> {});
+    }
+
+    /**
+     * Creates buy side of an order book; the highest price has the most priority.
+     *
+     * @param removed called with the id of every order that leaves the book, filled or canceled
+     */
+    public static PriceLevelBook bids(final int initialCapacity, final LongConsumer removed) {
+        return new PriceLevelBook(true, initialCapacity, -1, -1, removed);
+    }
+
+    /**
+     * Creates buy side of an order book of a fixed point symbol; offered orders must be scaled with the same scales.
+     *
+     * @param removed called with the id of every order that leaves the book, filled or canceled
+     */
+    public static PriceLevelBook bids(final int initialCapacity, final int priceScale, final int quantityScale,
+                                      final LongConsumer removed) {
+
+        return new PriceLevelBook(true, initialCapacity, priceScale, quantityScale, removed);
+    }
+
+    /**
+     * Creates sell side of an order book; the lowest price has the most priority.
+     */
+    public static PriceLevelBook asks(final int initialCapacity) {
+        return asks(initialCapacity, _ -> {});
+    }
+
+    /**
+     * Creates sell side of an order book; the lowest price has the most priority.
+     *
+     * @param removed called with the id of every order that leaves the book, filled or canceled
+     */
+    public static PriceLevelBook asks(final int initialCapacity, final LongConsumer removed) {
+        return new PriceLevelBook(false, initialCapacity, -1, -1, removed);
+    }
+
+    /**
+     * Creates sell side of an order book of a fixed point symbol; offered orders must be scaled with the same scales.
+     *
+     * @param removed called with the id of every order that leaves the book, filled or canceled
+     */
+    public static PriceLevelBook asks(final int initialCapacity, final int priceScale, final int quantityScale,
+                                      final LongConsumer removed) {
+
+        return new PriceLevelBook(false, initialCapacity, priceScale, quantityScale, removed);
+    }
+
+    /**
+     * Rests an order at the tail of its price level.
+     *
+     * @return false if an order with the same id already rests in this book; book is not changed then
+     */
+    public boolean offer(final LimitOrder order) {
+        if (isScaled() && !order.isPriceScaled()) {
+            throw new IllegalArgumentException("order is not scaled like its book: " + order.getId());
+        }
+
+        if (orders.get(order.getId()) != null) {
+            return false;
+        }
+
+        final var level = isScaled() ? unitLevel(order.getPriceUnits()) : level(order.get_price());
+        final var node = new Node(level, order);
+        level.add(node);
+        orders.put(order.getId(), node);
+        size++;
+
+        if (level == best) {
+            version++;
+        }
+
+        return true;
+    }
+
+    public LimitOrder peek() {
+        return best == null ? null : best.head.order;
+    }
+
+    public LimitOrder poll() {
+        if (best == null) {
+            return null;
+        }
+
+        final var node = best.head;
+        unlink(node);
+        return node.order;
+    }
+
+    public boolean remove(final LimitOrder order) {
+        final var node = orders.get(order.getId());
+        if (node == null || node.order != order) {
+            return false;
+        }
+
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * Refreshes aggregated quantity of a resting order's level; must be called after remaining of a resting order is
+     * changed in place (partial fill or partial cancel).
+     */
+    public void update(final LimitOrder order) {
+        final var node = orders.get(order.getId());
+        if (node != null && node.order == order) {
+            node.level.update(node);
+
+            if (node.level == best) {
+                version++;
+            }
+        }
+    }
+
+    /**
+     * Finds a resting order by its id in constant time.
+     *
+     * @param id the id of the order
+     * @return found order or null
+     */
+    public LimitOrder find(final long id) {
+        final var node = orders.get(id);
+        return node == null ? null : node.order;
+    }
+
+    /**
+     * @return the price of the best level or null if book is empty
+     */
+    public BigDecimal bestPrice() {
+        return best == null ? null : price(best);
+    }
+
+    /**
+     * @return aggregated remaining quantity of the best level or null if book is empty
+     */
+    public BigDecimal bestQuantity() {
+        return best == null ? null : quantity(best);
+    }
+
+    /**
+     * @return a number that changes every time best price or aggregated quantity of the best level may have changed
+     */
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int levels() {
+        return levelsByPrice != null ? levelsByPrice.size() : levelsByUnits.size();
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Collects top orders in matching priority without modifying the book.
+     *
+     * @param size  the maximum number of orders to collect
+     * @param depth the maximum number of price levels to collect orders from; zero or less means unlimited
+     * @return top orders, best first
+     */
+    public ArrayList<LimitOrder> top(final int size, final int depth) {
+        final var orders = new ArrayList<LimitOrder>(max(0, min(size, this.size)));
+        var remainingLevels = depth <= 0 ? Integer.MAX_VALUE : depth;
+
+        for (final var level : values()) {
+            if (orders.size() >= size || remainingLevels-- == 0) {
+                break;
+            }
+
+            for (var node = level.head; node != null && orders.size() < size; node = node.next) {
+                orders.add(node.order);
+            }
+        }
+
+        return orders;
+    }
+
+    /**
+     * Collects aggregates of top price levels in priority order without modifying the book.
+     *
+     * @param depth the maximum number of price levels to collect; zero or less means unlimited
+     * @return top price levels, best first
+     */
+    public ArrayList<DepthLevel> depth(final int depth) {
+        final var limit = depth <= 0 ? levels() : min(depth, levels());
+        final var depthLevels = new ArrayList<DepthLevel>(limit);
+
+        for (final var level : values()) {
+            if (depthLevels.size() == limit) {
+                break;
+            }
+
+            depthLevels.add(new DepthLevel(
+                    price(level).toPlainString(),
+                    quantity(level).stripTrailingZeros().toPlainString(),
+                    level.count));
+        }
+
+        return depthLevels;
+    }
+
+    /**
+     * Returns orders in matching priority without removing them; the book must not be modified while iterating.
+     */
+    @Override
+    public Iterator<LimitOrder> iterator() {
+        final var levelsIterator = values().iterator();
+        return new Iterator<>() {
+            private Node next = levelsIterator.hasNext() ? levelsIterator.next().head : null;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public LimitOrder next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+
+                final var current = next;
+                next = current.next != null ? current.next :
+                        levelsIterator.hasNext() ? levelsIterator.next().head : null;
+
+                return current.order;
+            }
+        };
+    }
+
+    private boolean isScaled() {
+        return unitLevels != null;
+    }
+
+    private Collection<PriceLevel> values() {
+        return isScaled() ? unitLevels.values() : levels.values();
+    }
+
+    private PriceLevel level(final BigDecimal orderPrice) {
+        // Equal prices with different scales must land on the same level.
+        final var price = orderPrice.stripTrailingZeros();
+
+        var level = levelsByPrice.get(price);
+        if (level == null) {
+            level = new PriceLevel(price, 0);
+            levels.put(price, level);
+            levelsByPrice.put(price, level);
+
+            if (best == null || levels.comparator().compare(price, best.price) < 0) {
+                best = level;
+            }
+        }
+
+        return level;
+    }
+
+    private PriceLevel unitLevel(final long units) {
+        var level = levelsByUnits.get(units);
+        if (level == null) {
+            level = new PriceLevel(null, units);
+            unitLevels.put(units, level);
+            levelsByUnits.put(units, level);
+
+            if (best == null || (bids ? units > best.units : units < best.units)) {
+                best = level;
+            }
+        }
+
+        return level;
+    }
+
+    private void unlink(final Node node) {
+        final var level = node.level;
+        level.remove(node);
+        orders.remove(node.order.getId(), node);
+        removed.accept(node.order.getId());
+        size--;
+
+        if (level == best) {
+            version++;
+        }
+
+        if (level.isEmpty()) {
+            if (isScaled()) {
+                unitLevels.remove(level.units);
+                levelsByUnits.remove(level.units, level);
+            } else {
+                levels.remove(level.price);
+                levelsByPrice.remove(level.price);
+            }
+
+            if (level == best) {
+                final var first = isScaled() ? unitLevels.firstEntry() : levels.firstEntry();
+                best = first == null ? null : first.getValue();
+            }
+        }
+    }
+
+    private BigDecimal price(final PriceLevel level) {
+        return level.price != null ? level.price : valueOf(level.units, priceScale).stripTrailingZeros();
+    }
+
+    private BigDecimal quantity(final PriceLevel level) {
+        return level.price != null ? level.quantity : valueOf(level.quantityUnits, quantityScale);
+    }
+
+    /**
+     * A price level that keeps its orders in a doubly linked list, in arrival order. Price and quantity are
+     * either decimals or, for a scaled book, units.
+     *
+     * @author Alireza Pourtaghi
+     */
+    static final class PriceLevel {
+        // Null if level belongs to a scaled book.
+        private final BigDecimal price;
+        private final long units;
+        private Node head;
+        private Node tail;
+        private int count;
+        private BigDecimal quantity;
+        private long quantityUnits;
+
+        PriceLevel(final BigDecimal price, final long units) {
+            this.price = price;
+            this.units = units;
+            this.quantity = ZERO;
+            this.quantityUnits = 0;
+        }
+
+        void add(final Node node) {
+            // Time priority is arrival order at engine, not client supplied ts; orders loaded from database arrive in
+            // order of ts.
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) head = node;
+            else tail.next = node;
+            tail = node;
+
+            if (price == null) {
+                node.remainingUnits = node.order.getRemainingUnits();
+                quantityUnits += node.remainingUnits;
+            } else {
+                node.remaining = node.order.get_remaining();
+                quantity = quantity.add(node.remaining);
+            }
+
+            count++;
+        }
+
+        void remove(final Node node) {
+            if (node.prev == null) head = node.next;
+            else node.prev.next = node.next;
+            if (node.next == null) tail = node.prev;
+            else node.next.prev = node.prev;
+
+            node.prev = null;
+            node.next = null;
+            // Remaining of a filled order is already cleared, so the last known contribution is subtracted.
+            if (price == null) {
+                quantityUnits -= node.remainingUnits;
+            } else {
+                quantity = quantity.subtract(node.remaining);
+            }
+
+            count--;
+        }
+
+        void update(final Node node) {
+            if (price == null) {
+                final var remainingUnits = node.order.getRemainingUnits();
+                quantityUnits += remainingUnits - node.remainingUnits;
+                node.remainingUnits = remainingUnits;
+            } else {
+                final var remaining = node.order.get_remaining();
+                quantity = quantity.add(remaining.subtract(node.remaining));
+                node.remaining = remaining;
+            }
+        }
+
+        boolean isEmpty() {
+            return count == 0;
+        }
+
+        int count() {
+            return count;
+        }
+    }
+
+    /**
+     * A resting order entry of a price level.
+     *
+     * @author Alireza Pourtaghi
+     */
+    static final class Node {
+        private final PriceLevel level;
+        private final LimitOrder order;
+        private Node prev;
+        private Node next;
+        // The remaining quantity that is accounted in level's aggregated quantity; units if book is scaled.
+        private BigDecimal remaining;
+        private long remainingUnits;
+
+        Node(final PriceLevel level, final LimitOrder order) {
+            this.level = level;
+            this.order = order;
+        }
+
+        LimitOrder order() {
+            return order;
+        }
+    }
+}
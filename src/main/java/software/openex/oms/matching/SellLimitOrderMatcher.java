@@ -21,53 +21,54 @@ import org.slf4j.Logger;
 import software.openex.oms.binary.order.*;
 import software.openex.oms.binary.trade.Trade;
 import software.openex.oms.event.matching.MatchEvent;
-import software.openex.oms.storage.ThreadSafeAtomicFile;
-
-import java.util.PriorityQueue;
 
 import static java.lang.String.format;
 import static java.math.BigDecimal.ZERO;
 import static java.time.Instant.now;
 import static org.slf4j.LoggerFactory.getLogger;
-import static software.openex.oms.matching.Util.append;
 
 /**
- * An IOC limit order matcher as a runnable to be submitted into engine's single threaded executor.
+ * An IOC limit order matcher that is created once per engine and reused by engine's thread for every incoming order.
  *
  * @author Alireza Pourtaghi
  */
-public final class SellLimitOrderMatcher implements Runnable {
+public final class SellLimitOrderMatcher {
     private static final Logger logger = getLogger(SellLimitOrderMatcher.class);
 
-    private final PriorityQueue<LimitOrder> buyOrders;
-    private final ThreadSafeAtomicFile tradesFile;
-    private final SellLimitOrder sellLimitOrder;
+    private final PriceLevelBook buyOrders;
+    private final EventsBatch events;
+    private final LastTrade lastTrade;
+    private SellLimitOrder sellLimitOrder;
 
-    public SellLimitOrderMatcher(final PriorityQueue<LimitOrder> buyOrders, final ThreadSafeAtomicFile tradesFile,
-                                 final SellLimitOrder sellLimitOrder) {
+    public SellLimitOrderMatcher(final PriceLevelBook buyOrders, final EventsBatch events,
+                                 final LastTrade lastTrade) {
 
         this.buyOrders = buyOrders;
-        this.tradesFile = tradesFile;
-        this.sellLimitOrder = sellLimitOrder;
+        this.events = events;
+        this.lastTrade = lastTrade;
     }
 
-    @Override
-    public void run() {
-        if (sellLimitOrder instanceof FOKSellLimitOrder) {
-            handleFOK();
-        } else if (sellLimitOrder instanceof IOCSellLimitOrder) {
-            handleIOC();
-        } else {
-            // Do nothing special, Just warn!
-            logger.warn("must not reach block reached for order: {}", sellLimitOrder);
+    public void match(final SellLimitOrder sellLimitOrder) {
+        this.sellLimitOrder = sellLimitOrder;
+        try {
+            if (sellLimitOrder instanceof FOKSellLimitOrder) {
+                handleFOK();
+            } else if (sellLimitOrder instanceof IOCSellLimitOrder) {
+                handleIOC();
+            } else {
+                // Do nothing special, Just warn!
+                logger.warn("must not reach block reached for order: {}", sellLimitOrder);
+            }
+        } finally {
+            this.sellLimitOrder = null;
         }
     }
 
     private void handleFOK() {
         final var buyOrdersHead = buyOrders.peek();
         if (buyOrdersHead != null &&
-                sellLimitOrder.get_remaining().compareTo(buyOrdersHead.get_remaining()) <= 0 &&
-                sellLimitOrder.get_price().compareTo(buyOrdersHead.get_price()) <= 0) {
+                sellLimitOrder.compareRemaining(buyOrdersHead) <= 0 &&
+                sellLimitOrder.comparePrice(buyOrdersHead) <= 0) {
 
             trade((BuyLimitOrder) buyOrdersHead);
         } else {
@@ -78,16 +79,16 @@ public final class SellLimitOrderMatcher implements Runnable {
                     // Set ZERO to cancel all remaining.
                     ZERO.toPlainString());
 
-            append(cancelOrder, tradesFile);
+            events.add(cancelOrder);
         }
     }
 
     private void handleIOC() {
         for (; ; ) {
             final var buyOrdersHead = buyOrders.peek();
-            if (sellLimitOrder.get_remaining().compareTo(ZERO) > 0 &&
+            if (sellLimitOrder.hasRemaining() &&
                     buyOrdersHead != null &&
-                    sellLimitOrder.get_price().compareTo(buyOrdersHead.get_price()) <= 0) {
+                    sellLimitOrder.comparePrice(buyOrdersHead) <= 0) {
 
                 trade((BuyLimitOrder) buyOrdersHead);
             } else {
@@ -96,7 +97,7 @@ public final class SellLimitOrderMatcher implements Runnable {
         }
 
         // Because of IOC feature we should cancel remaining quantity in order message.
-        if (sellLimitOrder.get_remaining().compareTo(ZERO) > 0) {
+        if (sellLimitOrder.hasRemaining()) {
             final var cancelOrder = new CancelOrder(
                     sellLimitOrder.getId(),
                     sellLimitOrder.getTs(),
@@ -104,7 +105,7 @@ public final class SellLimitOrderMatcher implements Runnable {
                     // Set ZERO to cancel all remaining.
                     ZERO.toPlainString());
 
-            append(cancelOrder, tradesFile);
+            events.add(cancelOrder);
         }
     }
 
@@ -113,7 +114,7 @@ public final class SellLimitOrderMatcher implements Runnable {
         event.begin();
 
         logger.trace("match: buy: {} sell: {}", buyOrder, sellLimitOrder);
-        switch (sellLimitOrder.get_remaining().compareTo(buyOrder.get_remaining())) {
+        switch (sellLimitOrder.compareRemaining(buyOrder)) {
             case 0 -> handleEquality(buyOrder);
             case 1 -> handleGreaterThan(buyOrder);
             case -1 -> handleLessThan(buyOrder);
@@ -130,15 +131,16 @@ public final class SellLimitOrderMatcher implements Runnable {
                 buyOrder.getId(),
                 sellLimitOrder.getId(),
                 sellLimitOrder.getSymbol(),
-                sellLimitOrder.get_remaining().toPlainString(),
+                sellLimitOrder.remainingAsPlainString(),
                 buyOrder.getPrice(),
                 sellLimitOrder.getPrice(),
                 format("bor:%s;sor:%s", ZERO, ZERO),
                 now.toEpochMilli());
 
-        append(trade, tradesFile);
-        buyOrder.set_remaining(ZERO);
-        sellLimitOrder.set_remaining(ZERO);
+        events.add(trade);
+        lastTrade.set(trade);
+        buyOrder.clearRemaining();
+        sellLimitOrder.clearRemaining();
         buyOrders.poll();
 
         logger.trace("poll: buy: {}", buyOrder);
@@ -147,20 +149,21 @@ public final class SellLimitOrderMatcher implements Runnable {
     private void handleGreaterThan(final BuyLimitOrder buyOrder) {
         // Buy order must be polled.
         final var now = now();
-        final var remaining = sellLimitOrder.get_remaining().subtract(buyOrder.get_remaining());
+        final var remaining = sellLimitOrder.remainingAfter(buyOrder);
         final var trade = new Trade(
                 buyOrder.getId(),
                 sellLimitOrder.getId(),
                 sellLimitOrder.getSymbol(),
-                buyOrder.get_remaining().toPlainString(),
+                buyOrder.remainingAsPlainString(),
                 buyOrder.getPrice(),
                 sellLimitOrder.getPrice(),
-                format("bor:%s;sor:%s", ZERO, remaining.stripTrailingZeros()),
+                format("bor:%s;sor:%s", ZERO, remaining),
                 now.toEpochMilli());
 
-        append(trade, tradesFile);
-        buyOrder.set_remaining(ZERO);
-        sellLimitOrder.set_remaining(remaining);
+        events.add(trade);
+        lastTrade.set(trade);
+        sellLimitOrder.reduceRemaining(buyOrder);
+        buyOrder.clearRemaining();
         buyOrders.poll();
 
         logger.trace("poll: buy: {}", buyOrder);
@@ -168,19 +171,21 @@ public final class SellLimitOrderMatcher implements Runnable {
 
     private void handleLessThan(final BuyLimitOrder buyOrder) {
         final var now = now();
-        final var remaining = buyOrder.get_remaining().subtract(sellLimitOrder.get_remaining());
+        final var remaining = buyOrder.remainingAfter(sellLimitOrder);
         final var trade = new Trade(
                 buyOrder.getId(),
                 sellLimitOrder.getId(),
                 sellLimitOrder.getSymbol(),
-                sellLimitOrder.get_remaining().toPlainString(),
+                sellLimitOrder.remainingAsPlainString(),
                 buyOrder.getPrice(),
                 sellLimitOrder.getPrice(),
-                format("bor:%s;sor:%s", remaining.stripTrailingZeros(), ZERO),
+                format("bor:%s;sor:%s", remaining, ZERO),
                 now.toEpochMilli());
 
-        append(trade, tradesFile);
-        buyOrder.set_remaining(remaining);
-        sellLimitOrder.set_remaining(ZERO);
+        events.add(trade);
+        lastTrade.set(trade);
+        buyOrder.reduceRemaining(sellLimitOrder);
+        buyOrders.update(buyOrder);
+        sellLimitOrder.clearRemaining();
     }
 }
@@ -21,49 +21,50 @@ import org.slf4j.Logger;
 import software.openex.oms.binary.order.*;
 import software.openex.oms.binary.trade.Trade;
 import software.openex.oms.event.matching.MatchEvent;
-import software.openex.oms.storage.ThreadSafeAtomicFile;
-
-import java.util.PriorityQueue;
 
 import static java.lang.String.format;
 import static java.math.BigDecimal.ZERO;
 import static java.time.Instant.now;
 import static org.slf4j.LoggerFactory.getLogger;
-import static software.openex.oms.matching.Util.append;
 
 /**
- * A market order matcher as a runnable to be submitted into engine's single threaded executor.
+ * A market order matcher that is created once per engine and reused by engine's thread for every incoming order.
  *
  * @author Alireza Pourtaghi
  */
-public final class SellMarketOrderMatcher implements Runnable {
+public final class SellMarketOrderMatcher {
     private static final Logger logger = getLogger(SellMarketOrderMatcher.class);
 
-    private final PriorityQueue<LimitOrder> buyOrders;
-    private final ThreadSafeAtomicFile tradesFile;
-    private final SellMarketOrder sellMarketOrder;
+    private final PriceLevelBook buyOrders;
+    private final EventsBatch events;
+    private final LastTrade lastTrade;
+    private SellMarketOrder sellMarketOrder;
 
-    public SellMarketOrderMatcher(final PriorityQueue<LimitOrder> buyOrders, final ThreadSafeAtomicFile tradesFile,
-                                  final SellMarketOrder sellMarketOrder) {
+    public SellMarketOrderMatcher(final PriceLevelBook buyOrders, final EventsBatch events,
+                                  final LastTrade lastTrade) {
 
         this.buyOrders = buyOrders;
-        this.tradesFile = tradesFile;
-        this.sellMarketOrder = sellMarketOrder;
+        this.events = events;
+        this.lastTrade = lastTrade;
     }
 
-    @Override
-    public void run() {
-        if (sellMarketOrder instanceof FOKSellMarketOrder) {
-            handleFOK();
-        } else {
-            handle();
+    public void match(final SellMarketOrder sellMarketOrder) {
+        this.sellMarketOrder = sellMarketOrder;
+        try {
+            if (sellMarketOrder instanceof FOKSellMarketOrder) {
+                handleFOK();
+            } else {
+                handle();
+            }
+        } finally {
+            this.sellMarketOrder = null;
         }
     }
 
     private void handleFOK() {
         final var buyOrdersHead = buyOrders.peek();
         if (buyOrdersHead != null &&
-                sellMarketOrder.get_remaining().compareTo(buyOrdersHead.get_remaining()) <= 0) {
+                sellMarketOrder.compareRemaining(buyOrdersHead) <= 0) {
 
             trade((BuyLimitOrder) buyOrdersHead);
         } else {
@@ -74,14 +75,14 @@ public final class SellMarketOrderMatcher implements Runnable {
                     // Set ZERO to cancel all remaining.
                     ZERO.toPlainString());
 
-            append(cancelOrder, tradesFile);
+            events.add(cancelOrder);
         }
     }
 
     private void handle() {
         for (; ; ) {
             final var buyOrdersHead = buyOrders.peek();
-            if (sellMarketOrder.get_remaining().compareTo(ZERO) > 0 && buyOrdersHead != null) {
+            if (sellMarketOrder.hasRemaining() && buyOrdersHead != null) {
                 trade((BuyLimitOrder) buyOrdersHead);
             } else {
                 break;
@@ -89,7 +90,7 @@ public final class SellMarketOrderMatcher implements Runnable {
         }
 
         // Because of IOC feature we should cancel remaining quantity in order message.
-        if (sellMarketOrder.get_remaining().compareTo(ZERO) > 0) {
+        if (sellMarketOrder.hasRemaining()) {
             final var cancelOrder = new CancelOrder(
                     sellMarketOrder.getId(),
                     sellMarketOrder.getTs(),
@@ -97,7 +98,7 @@ public final class SellMarketOrderMatcher implements Runnable {
                     // Set ZERO to cancel all remaining.
                     ZERO.toPlainString());
 
-            append(cancelOrder, tradesFile);
+            events.add(cancelOrder);
         }
     }
 
@@ -106,7 +107,7 @@ public final class SellMarketOrderMatcher implements Runnable {
         event.begin();
 
         logger.trace("match: buy: {} sell: {}", buyOrder, sellMarketOrder);
-        switch (sellMarketOrder.get_remaining().compareTo(buyOrder.get_remaining())) {
+        switch (sellMarketOrder.compareRemaining(buyOrder)) {
             case 0 -> handleEquality(buyOrder);
             case 1 -> handleGreaterThan(buyOrder);
             case -1 -> handleLessThan(buyOrder);
@@ -123,15 +124,16 @@ public final class SellMarketOrderMatcher implements Runnable {
                 buyOrder.getId(),
                 sellMarketOrder.getId(),
                 sellMarketOrder.getSymbol(),
-                sellMarketOrder.get_remaining().toPlainString(),
+                sellMarketOrder.remainingAsPlainString(),
                 buyOrder.getPrice(),
                 ZERO.toPlainString(),
                 format("bor:%s;sor:%s", ZERO, ZERO),
                 now.toEpochMilli());
 
-        append(trade, tradesFile);
-        buyOrder.set_remaining(ZERO);
-        sellMarketOrder.set_remaining(ZERO);
+        events.add(trade);
+        lastTrade.set(trade);
+        buyOrder.clearRemaining();
+        sellMarketOrder.clearRemaining();
         buyOrders.poll();
 
         logger.trace("poll: buy: {}", buyOrder);
@@ -140,20 +142,21 @@ public final class SellMarketOrderMatcher implements Runnable {
     private void handleGreaterThan(final BuyLimitOrder buyOrder) {
         // Buy order must be polled.
         final var now = now();
-        final var remaining = sellMarketOrder.get_remaining().subtract(buyOrder.get_remaining());
+        final var remaining = sellMarketOrder.remainingAfter(buyOrder);
         final var trade = new Trade(
                 buyOrder.getId(),
                 sellMarketOrder.getId(),
                 sellMarketOrder.getSymbol(),
-                buyOrder.get_remaining().toPlainString(),
+                buyOrder.remainingAsPlainString(),
                 buyOrder.getPrice(),
                 ZERO.toPlainString(),
-                format("bor:%s;sor:%s", ZERO, remaining.stripTrailingZeros()),
+                format("bor:%s;sor:%s", ZERO, remaining),
                 now.toEpochMilli());
 
-        append(trade, tradesFile);
-        buyOrder.set_remaining(ZERO);
-        sellMarketOrder.set_remaining(remaining);
+        events.add(trade);
+        lastTrade.set(trade);
+        sellMarketOrder.reduceRemaining(buyOrder);
+        buyOrder.clearRemaining();
         buyOrders.poll();
 
         logger.trace("poll: buy: {}", buyOrder);
@@ -161,19 +164,21 @@ public final class SellMarketOrderMatcher implements Runnable {
 
     private void handleLessThan(final BuyLimitOrder buyOrder) {
         final var now = now();
-        final var remaining = buyOrder.get_remaining().subtract(sellMarketOrder.get_remaining());
+        final var remaining = buyOrder.remainingAfter(sellMarketOrder);
         final var trade = new Trade(
                 buyOrder.getId(),
                 sellMarketOrder.getId(),
                 sellMarketOrder.getSymbol(),
-                sellMarketOrder.get_remaining().toPlainString(),
+                sellMarketOrder.remainingAsPlainString(),
                 buyOrder.getPrice(),
                 ZERO.toPlainString(),
-                format("bor:%s;sor:%s", remaining.stripTrailingZeros(), ZERO),
+                format("bor:%s;sor:%s", remaining, ZERO),
                 now.toEpochMilli());
 
-        append(trade, tradesFile);
-        buyOrder.set_remaining(remaining);
-        sellMarketOrder.set_remaining(ZERO);
+        events.add(trade);
+        lastTrade.set(trade);
+        buyOrder.reduceRemaining(sellMarketOrder);
+        buyOrders.update(buyOrder);
+        sellMarketOrder.clearRemaining();
     }
 }
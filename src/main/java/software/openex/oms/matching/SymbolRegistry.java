@@ -0,0 +1,153 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.matching;
+
+import java.lang.foreign.MemorySegment;
+
+import static java.lang.foreign.Arena.ofAuto;
+import static java.lang.foreign.MemorySegment.mismatch;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.copyOf;
+
+/**
+ * Registry of symbols that assigns dense int ids, in registration order, so that engines can be looked up by index.
+ * Symbol bytes of incoming messages are resolved through an off-heap open addressing hash table without creating
+ * strings. Lookups are lock-free and can be done by any thread; registration copies the table, so it is meant to be
+ * rare (at startup or on first use of a symbol).
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class SymbolRegistry {
+    private volatile Table table;
+
+    public SymbolRegistry() {
+        this.table = new Table(16, new MemorySegment[0], new String[0]);
+    }
+
+    /**
+     * @return id of symbol whose bytes are in provided range of segment, or -1 if symbol is not registered
+     */
+    public int id(final MemorySegment segment, final long offset, final long length) {
+        final var table = this.table;
+        final var hash = hash(segment, offset, length);
+        for (int slot = hash & table.mask; ; slot = (slot + 1) & table.mask) {
+            final var id = table.slots.getAtIndex(JAVA_INT, 2L * slot) - 1;
+            if (id < 0) {
+                return -1;
+            }
+
+            if (table.slots.getAtIndex(JAVA_INT, 2L * slot + 1) == hash) {
+                final var bytes = table.bytes[id];
+                if (mismatch(segment, offset, offset + length, bytes, 0, bytes.byteSize()) == -1) {
+                    return id;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return id of symbol, or -1 if symbol is not registered
+     */
+    public int id(final String symbol) {
+        final var bytes = MemorySegment.ofArray(symbol.getBytes(UTF_8));
+        return id(bytes, 0, bytes.byteSize());
+    }
+
+    /**
+     * Registers a symbol if it is not registered yet.
+     *
+     * @return id of symbol
+     */
+    public synchronized int register(final String symbol) {
+        final var id = id(symbol);
+        if (id >= 0) {
+            return id;
+        }
+
+        final var table = this.table;
+        final var size = table.symbols.length;
+        // Keep load factor at most one half, so that probes are short.
+        final var capacity = (size + 1) * 2 > table.mask + 1 ? (table.mask + 1) * 2 : table.mask + 1;
+        final var bytes = copyOf(table.bytes, size + 1);
+        final var symbols = copyOf(table.symbols, size + 1);
+        final var heapBytes = symbol.getBytes(UTF_8);
+        bytes[size] = ofAuto().allocate(heapBytes.length).copyFrom(MemorySegment.ofArray(heapBytes));
+        symbols[size] = symbol;
+
+        this.table = new Table(capacity, bytes, symbols);
+        return size;
+    }
+
+    /**
+     * @return symbol of a registered id
+     */
+    public String symbol(final int id) {
+        return table.symbols[id];
+    }
+
+    public int size() {
+        return table.symbols.length;
+    }
+
+    /**
+     * FNV-1a hash of symbol bytes.
+     */
+    private static int hash(final MemorySegment segment, final long offset, final long length) {
+        var hash = 0x811C9DC5;
+        for (long i = offset; i < offset + length; i++) {
+            hash ^= segment.get(JAVA_BYTE, i) & 0xFF;
+            hash *= 0x01000193;
+        }
+
+        return hash;
+    }
+
+    /**
+     * An immutable snapshot of registered symbols; every slot of table is an int id + 1 (0 for an empty slot) followed
+     * by symbol's hash.
+     *
+     * @author Alireza Pourtaghi
+     */
+    private static final class Table {
+        private final MemorySegment slots;
+        private final int mask;
+        private final MemorySegment[] bytes;
+        private final String[] symbols;
+
+        private Table(final int capacity, final MemorySegment[] bytes, final String[] symbols) {
+            // Automatic arena; readers may still probe a replaced table.
+            this.slots = ofAuto().allocate(capacity * 8L, 8);
+            this.mask = capacity - 1;
+            this.bytes = bytes;
+            this.symbols = symbols;
+
+            for (int id = 0; id < bytes.length; id++) {
+                final var hash = hash(bytes[id], 0, bytes[id].byteSize());
+                var slot = hash & mask;
+                while (slots.getAtIndex(JAVA_INT, 2L * slot) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+
+                slots.setAtIndex(JAVA_INT, 2L * slot, id + 1);
+                slots.setAtIndex(JAVA_INT, 2L * slot + 1, hash);
+            }
+        }
+    }
+}
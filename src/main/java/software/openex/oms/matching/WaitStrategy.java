@@ -0,0 +1,87 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.matching;
+
+import static java.lang.Thread.onSpinWait;
+
+/**
+ * The way an idle {@link EventLoop} thread waits for next task. Blocking is the cheapest one for quiet symbols; the
+ * others trade CPU time for lower wake up latency of hot symbols.
+ *
+ * @author Alireza Pourtaghi
+ */
+public enum WaitStrategy {
+    /**
+     * Parks the thread as soon as there is no task.
+     */
+    BLOCK {
+        @Override
+        int idle(final EventLoop loop, final int counter) {
+            loop.park();
+            return 0;
+        }
+    },
+
+    /**
+     * Yields the thread while there is no task; never parks.
+     */
+    YIELD {
+        @Override
+        int idle(final EventLoop loop, final int counter) {
+            Thread.yield();
+            return counter;
+        }
+    },
+
+    /**
+     * Busy spins for a while, then yields for a while and finally parks the thread.
+     */
+    SPIN_THEN_PARK {
+        @Override
+        int idle(final EventLoop loop, final int counter) {
+            if (counter < SPINS) {
+                onSpinWait();
+                return counter + 1;
+            }
+
+            if (counter < SPINS + YIELDS) {
+                Thread.yield();
+                return counter + 1;
+            }
+
+            loop.park();
+            return 0;
+        }
+    };
+
+    private static final int SPINS = 10000;
+    private static final int YIELDS = 100;
+
+    /**
+     * Called by event loop's thread every time it finds no task to run.
+     *
+     * @param loop    the idle event loop
+     * @param counter the number of consecutive idle rounds so far
+     * @return the counter to be passed on next idle round
+     */
+    abstract int idle(EventLoop loop, int counter);
+
+    public static WaitStrategy of(final String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -33,12 +33,12 @@ import static org.slf4j.LoggerFactory.getLogger;
  */
 public final class AcceptConnectionHandler implements CompletionHandler<AsynchronousSocketChannel, AppContext> {
     private static final Logger logger = getLogger(AcceptConnectionHandler.class);
-    private static final ReadHandler readHandler = new ReadHandler();
 
     @Override
     public void completed(final AsynchronousSocketChannel socket, final AppContext context) {
         listen(context);
-        read(new Connection(socket, context.config().loadInt("server.read_buffer_size")));
+        final var server = context.socketServer();
+        new Connection(socket, server.buffers(), server.maxMessageSize(), server.maxInFlightRequests()).read();
     }
 
     @Override
@@ -59,21 +59,4 @@ public final class AcceptConnectionHandler implements CompletionHandler<Asynchro
             logger.error("listen call failed for next connection: {}", ex.getMessage());
         }
     }
-
-    private void read(final Connection connection) {
-        try {
-            connection.socket().read(connection.buffer(), connection, readHandler);
-        } catch (Exception ex) {
-            logger.error("read call failed: {}", ex.getMessage());
-            close(connection);
-        }
-    }
-
-    private void close(final Connection connection) {
-        try {
-            connection.close();
-        } catch (Exception ex) {
-            logger.error("error while closing connection: {}", ex.getMessage());
-        }
-    }
 }
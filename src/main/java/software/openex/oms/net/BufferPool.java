@@ -0,0 +1,108 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.net;
+
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayDeque;
+
+import static java.lang.Integer.numberOfLeadingZeros;
+import static java.lang.Long.bitCount;
+import static java.lang.Long.numberOfTrailingZeros;
+import static java.lang.Math.max;
+import static java.lang.foreign.Arena.ofAuto;
+
+/**
+ * A thread safe pool of memory segments in power of two size classes, from a minimum size up to a maximum size. Bigger
+ * segments are not pooled. Segments are allocated by automatic arenas, so a segment that is never released is freed by
+ * GC instead of leaking.
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class BufferPool {
+    private final int minShift;
+    private final int maxShift;
+    private final int maxPooled;
+    private final ArrayDeque<MemorySegment>[] classes;
+
+    /**
+     * @param minSize   the size of the smallest class; rounded up to a power of two
+     * @param maxSize   the size of the biggest class; rounded up to a power of two
+     * @param maxPooled the maximum number of free segments that are kept per class
+     */
+    @SuppressWarnings("unchecked")
+    public BufferPool(final int minSize, final int maxSize, final int maxPooled) {
+        if (minSize <= 0 || maxSize < minSize || maxSize > 1 << 30) {
+            throw new IllegalArgumentException("sizes must be positive and max size not less than min size!");
+        }
+
+        this.minShift = shift(minSize);
+        this.maxShift = shift(maxSize);
+        this.maxPooled = maxPooled;
+        this.classes = new ArrayDeque[maxShift - minShift + 1];
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Returns a free segment of the smallest class that fits size; its byte size may be bigger than requested.
+     */
+    public MemorySegment acquire(final long size) {
+        if (size > 1L << maxShift) {
+            return ofAuto().allocate(size);
+        }
+
+        final var shift = max(minShift, shift((int) size));
+        final var free = classes[shift - minShift];
+        final MemorySegment segment;
+        synchronized (free) {
+            segment = free.poll();
+        }
+
+        return segment != null ? segment : ofAuto().allocate(1L << shift);
+    }
+
+    /**
+     * Gives an acquired segment back; it must not be used by caller anymore.
+     */
+    public void release(final MemorySegment segment) {
+        final var size = segment.byteSize();
+        if (size < 1L << minShift || size > 1L << maxShift || bitCount(size) != 1) {
+            // Not a segment of this pool.
+            return;
+        }
+
+        final var free = classes[numberOfTrailingZeros(size) - minShift];
+        synchronized (free) {
+            if (free.size() < maxPooled) {
+                free.push(segment);
+            }
+        }
+    }
+
+    /**
+     * @return the size of the smallest class
+     */
+    public int minSize() {
+        return 1 << minShift;
+    }
+
+    private static int shift(final int size) {
+        return size <= 1 ? 0 : 32 - numberOfLeadingZeros(size - 1);
+    }
+}
@@ -17,61 +17,235 @@
  */
 package software.openex.oms.net;
 
+import org.slf4j.Logger;
+import software.openex.oms.binary.order.OrderFlyweight;
+
 import java.io.Closeable;
 import java.io.IOException;
-import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
 import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousSocketChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import static java.lang.foreign.Arena.ofAuto;
-import static java.lang.foreign.Arena.ofShared;
 import static java.lang.foreign.MemorySegment.copy;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
 
 /**
- * An open connection abstraction and related fields.
+ * An open connection abstraction and related fields. Incoming bytes are read into connection's buffer and split into
+ * {@link Request}s, so many requests of a connection can be in flight at once. Responses are queued and written one
+ * after another, because a socket accepts only one pending write. Read buffer is taken from a {@link BufferPool}; it
+ * grows geometrically for big messages, shrinks back once they are read and is given back when reading stops.
  *
  * @author Alireza Pourtaghi
  */
 public final class Connection implements Closeable {
+    private static final Logger logger = getLogger(Connection.class);
+    private static final ReadHandler readHandler = new ReadHandler();
+    private static final WriteHandler writeHandler = new WriteHandler();
+
     private final AsynchronousSocketChannel socket;
-    private final Arena arena;
-    private final MemorySegment segment;
-    private final ByteBuffer buffer;
+    private final ArrayDeque<Write> writes;
+    private final AtomicBoolean closed;
+    private final AtomicBoolean recycled;
+    private final BufferPool buffers;
+    private final int maxMessageSize;
+    private final int maxInFlight;
+    // Validates order messages on reading side; reads of a connection never overlap.
+    private final OrderFlyweight view;
+    private MemorySegment segment;
+    private ByteBuffer buffer;
+    // Guarded by writes.
+    private Write current;
+    // Guarded by this.
+    private int inFlight;
+    private boolean paused;
+
+    public Connection(final AsynchronousSocketChannel socket, final BufferPool buffers, final int maxMessageSize,
+                      final int maxInFlight) {
 
-    public Connection(final AsynchronousSocketChannel socket, final int size) {
         this.socket = socket;
-        this.arena = ofShared();
-        this.segment = this.arena.allocate(size);
+        this.writes = new ArrayDeque<>();
+        this.closed = new AtomicBoolean(false);
+        this.recycled = new AtomicBoolean(false);
+        this.buffers = buffers;
+        this.maxMessageSize = maxMessageSize;
+        this.maxInFlight = maxInFlight;
+        this.view = new OrderFlyweight();
+        this.segment = buffers.acquire(buffers.minSize());
         this.buffer = this.segment.asByteBuffer();
+        this.current = null;
+        this.inFlight = 0;
+        this.paused = false;
+    }
+
+    /**
+     * Replaces a full read buffer with one of double size, keeping read bytes; must only be called by the reading side.
+     */
+    public void growSegment() {
+        replaceSegment(segment.byteSize() * 2);
+    }
+
+    /**
+     * Replaces a read buffer that was grown for a big message with one of the smallest size, if kept bytes fit into it;
+     * must only be called by the reading side.
+     */
+    public void shrinkSegment() {
+        if (segment.byteSize() > buffers.minSize() && buffer.position() <= buffers.minSize()) {
+            replaceSegment(buffers.minSize());
+        }
+    }
+
+    private void replaceSegment(final long size) {
+        final var newSegment = buffers.acquire(size);
+        final var newBuffer = newSegment.asByteBuffer();
+
+        copy(segment, 0, newSegment, 0, buffer.position());
+        newBuffer.position(buffer.position());
+        buffers.release(segment);
+
+        this.segment = newSegment;
+        this.buffer = newBuffer;
+    }
+
+    /**
+     * Reads next bytes into buffer.
+     */
+    public void read() {
+        if (closed.get()) {
+            recycle();
+            return;
+        }
+
+        try {
+            socket.read(buffer, this, readHandler);
+        } catch (Exception ex) {
+            logger.error("read call failed: {}", ex.getMessage());
+            stopReading();
+        }
+    }
+
+    /**
+     * Closes connection from the reading side, when no more bytes are read into buffer.
+     */
+    void stopReading() {
+        close();
+        recycle();
+    }
+
+    /**
+     * Gives read buffer back to pool once, when reading is stopped or paused on a closed connection.
+     */
+    private void recycle() {
+        if (recycled.compareAndSet(false, true)) {
+            buffers.release(segment);
+        }
+    }
+
+    /**
+     * Counts a request that is dispatched and waits for its response.
+     */
+    synchronized void acquire() {
+        inFlight++;
+    }
+
+    /**
+     * Stops reading if the maximum number of requests are in flight; reading is resumed by {@link #release()}.
+     *
+     * @return true if reading is paused
+     */
+    synchronized boolean pause() {
+        // A closed connection is not paused, so that reading side gives back read buffer.
+        paused = !closed.get() && inFlight >= maxInFlight;
+        return paused;
+    }
+
+    /**
+     * Counts a request whose response is written.
+     *
+     * @return true if reading was paused and must be resumed by caller
+     */
+    synchronized boolean release() {
+        inFlight--;
+        if (paused && inFlight < maxInFlight) {
+            paused = false;
+            return true;
+        }
+
+        return false;
     }
 
-    public static Connection extendSegment(final Connection connection, final int extendSize) {
-        final var size = connection.segment().byteSize();
-        final var newSize = size + extendSize;
-        final var newConnection = new Connection(connection.socket(), (int) newSize);
+    /**
+     * Queues buffers to be written by one gathering write after previously queued ones.
+     *
+     * @param written called once buffers are written or connection is closed
+     */
+    void send(final ByteBuffer[] buffers, final Runnable written) {
+        final var write = new Write(buffers, written);
+        synchronized (writes) {
+            if (closed.get()) {
+                write.written().run();
+                return;
+            }
+
+            if (current != null) {
+                writes.add(write);
+                return;
+            }
 
-        copy(connection.segment(), 0, newConnection.segment(), 0, size);
-        newConnection.buffer().position(connection.buffer().capacity());
-        connection.arena().close();
+            current = write;
+        }
 
-        return newConnection;
+        write(write);
     }
 
-    public MemorySegment copyMessageForLog() {
-        // Use automatic memory allocation to hand over de-allocation to GC.
-        final var copySegment = ofAuto().allocate(buffer().limit());
-        copy(segment(), 0, copySegment, 0, copySegment.byteSize());
+    /**
+     * Called by write handler once a gathering write is completed.
+     */
+    void written() {
+        Write done = null;
+        final Write next;
+        synchronized (writes) {
+            if (!current.isDone()) {
+                next = current;
+            } else {
+                done = current;
+                current = writes.poll();
+                next = current;
+            }
+        }
 
-        return copySegment;
+        if (done != null) done.written().run();
+        if (next != null) write(next);
+    }
+
+    private void write(final Write write) {
+        try {
+            socket.write(write.buffers(), 0, write.buffers().length, 0, MILLISECONDS, this, writeHandler);
+        } catch (Exception ex) {
+            logger.error("write call failed: {}", ex.getMessage());
+            close();
+        }
     }
 
     public AsynchronousSocketChannel socket() {
         return socket;
     }
 
-    public Arena arena() {
-        return arena;
+    public BufferPool buffers() {
+        return buffers;
+    }
+
+    public int maxMessageSize() {
+        return maxMessageSize;
+    }
+
+    /**
+     * @return view over order messages; must only be used by the reading side
+     */
+    OrderFlyweight view() {
+        return view;
     }
 
     public MemorySegment segment() {
@@ -83,8 +257,62 @@ public final class Connection implements Closeable {
     }
 
     @Override
-    public void close() throws IOException {
-        if (socket.isOpen()) socket.close();
-        arena.close();
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            if (socket.isOpen()) socket.close();
+        } catch (IOException ex) {
+            logger.error("error while closing connection: {}", ex.getMessage());
+        }
+
+        final var pending = new ArrayDeque<Write>();
+        synchronized (writes) {
+            if (current != null) pending.add(current);
+            pending.addAll(writes);
+            writes.clear();
+            current = null;
+        }
+
+        pending.forEach(write -> write.written().run());
+        synchronized (this) {
+            // Reading side is stopped; otherwise it gives back read buffer itself.
+            if (paused) recycle();
+        }
+    }
+
+    /**
+     * Buffers of a response and the callback that releases them.
+     *
+     * @author Alireza Pourtaghi
+     */
+    private static final class Write {
+        private final ByteBuffer[] buffers;
+        private final Runnable written;
+
+        private Write(final ByteBuffer[] buffers, final Runnable written) {
+            this.buffers = buffers;
+            this.written = written;
+        }
+
+        private ByteBuffer[] buffers() {
+            return buffers;
+        }
+
+        private Runnable written() {
+            return written;
+        }
+
+        private boolean isDone() {
+            for (final var buffer : buffers) {
+                if (buffer.hasRemaining()) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
     }
 }
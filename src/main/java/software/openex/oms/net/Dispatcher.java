@@ -17,61 +17,95 @@
  */
 package software.openex.oms.net;
 
-import static software.openex.oms.binary.BinaryRepresentable.*;
+import software.openex.oms.binary.base.ErrorMessageBinaryRepresentation;
+import software.openex.oms.binary.order.OrderFlyweight;
+
+import static software.openex.oms.binary.BinaryRepresentable.id;
+import static software.openex.oms.binary.order.OrderFlyweight.isOrder;
 import static software.openex.oms.context.AppContext.context;
 import static software.openex.oms.net.ErrorMessages.*;
 
 /**
- * Dispatcher implementation that dispatches incoming messages to appropriate handlers.
+ * Dispatcher implementation that dispatches incoming messages to appropriate handlers. Messages are already validated
+ * against their header by {@link ReadHandler} while being split out of a connection's bytes; order messages are
+ * validated, resolved to their symbol id and checked for duplicate ids in place by an {@link OrderFlyweight} before
+ * being handed over to a worker.
  *
  * @author Alireza Pourtaghi
  */
 public final class Dispatcher implements Responder {
     private static final Handlers handlers = new Handlers();
 
-    public void dispatch(final Connection connection) {
-        if (isValid(connection)) {
-            context().executors().worker().execute(() -> {
-                switch (id(connection.segment())) {
-                    case 101 -> handlers.handleBuyLimitOrder(connection);
-                    case 102 -> handlers.handleSellLimitOrder(connection);
-                    case 104 -> handlers.handleCancelOrder(connection);
-                    case 105 -> handlers.handleFetchOrderBook(connection);
-                    case 107 -> handlers.handleBuyMarketOrder(connection);
-                    case 108 -> handlers.handleSellMarketOrder(connection);
-                    case 109 -> handlers.handleIOCBuyLimitOrder(connection);
-                    case 110 -> handlers.handleIOCSellLimitOrder(connection);
-                    case 111 -> handlers.handleFOKBuyLimitOrder(connection);
-                    case 112 -> handlers.handleFOKSellLimitOrder(connection);
-                    case 113 -> handlers.handleFOKBuyMarketOrder(connection);
-                    case 114 -> handlers.handleFOKSellMarketOrder(connection);
-                    case 119 -> handlers.handleFetchOrderRecord(connection);
+    public void dispatch(final Request request) {
+        final var error = reject(request);
+        if (error != null) {
+            // Rejected on reading thread, before any object of message is created.
+            write(request, error);
+            return;
+        }
+
+        context().executors().worker().execute(request);
+    }
 
-                    default -> write(connection, MESSAGE_NOT_SUPPORTED);
-                }
-            });
+    /**
+     * Called by a worker to handle an accepted request.
+     */
+    void handle(final Request request) {
+        switch (id(request.segment())) {
+            case 101 -> handlers.handleBuyLimitOrder(request);
+            case 102 -> handlers.handleSellLimitOrder(request);
+            case 104 -> handlers.handleCancelOrder(request);
+            case 105 -> handlers.handleFetchOrderBook(request);
+            case 107 -> handlers.handleBuyMarketOrder(request);
+            case 108 -> handlers.handleSellMarketOrder(request);
+            case 109 -> handlers.handleIOCBuyLimitOrder(request);
+            case 110 -> handlers.handleIOCSellLimitOrder(request);
+            case 111 -> handlers.handleFOKBuyLimitOrder(request);
+            case 112 -> handlers.handleFOKSellLimitOrder(request);
+            case 113 -> handlers.handleFOKBuyMarketOrder(request);
+            case 114 -> handlers.handleFOKSellMarketOrder(request);
+            case 119 -> handlers.handleFetchOrderRecord(request);
+            case 121 -> handlers.handleFetchOrderBookDepth(request);
+            case 124 -> handlers.handleFetchBestBidOffer(request);
+            case 126 -> handlers.handleBatch(request);
+
+            default -> write(request, MESSAGE_NOT_SUPPORTED);
         }
     }
 
-    private boolean isValid(final Connection connection) {
-        final var segment = connection.segment();
-        final var buffer = connection.buffer();
+    /**
+     * Validates order messages in place, resolves their symbol and reserves their id; other messages are validated by
+     * handlers.
+     *
+     * @return error to respond with, or null if request can be handled
+     */
+    private static ErrorMessageBinaryRepresentation reject(final Request request) {
+        final var id = id(request.segment());
+        if (!isOrder(id)) {
+            return null;
+        }
 
-        if (buffer.limit() <= RHS) {
-            write(connection, MESSAGE_FORMAT_NOT_VALID);
-            return false;
+        // Rebound to every order message of the connection.
+        final var order = request.connection().view();
+        if (!order.wrap(request.segment())) {
+            return MESSAGE_FORMAT_NOT_VALID;
         }
 
-        if (version(segment) != 1) {
-            write(connection, MESSAGE_VERSION_NOT_SUPPORTED);
-            return false;
+        final var engines = context().matchingEngines();
+        final var symbolId = engines.symbolId(order.segment(), order.symbolOffset(), order.symbolLength());
+        if (symbolId < 0) {
+            return SYMBOL_NOT_SUPPORTED;
         }
 
-        if (size(segment) != (buffer.limit() - RHS)) {
-            write(connection, MESSAGE_SIZE_NOT_VALID);
-            return false;
+        if (id != 104) {
+            if (!engines.reserve(symbolId, order.id())) {
+                return ORDER_ALREADY_EXISTS;
+            }
+
+            request.reserved(order.id());
         }
 
-        return true;
+        request.symbolId(symbolId);
+        return null;
     }
 }
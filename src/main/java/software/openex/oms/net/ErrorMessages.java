@@ -64,6 +64,11 @@ public final class ErrorMessages {
                     global(),
                     new ErrorMessage("order.not_found", "order not found"));
 
+    public static final ErrorMessageBinaryRepresentation SYMBOL_NOT_SUPPORTED =
+            new ErrorMessageBinaryRepresentation(
+                    global(),
+                    new ErrorMessage("symbol.not_supported", "symbol is not supported"));
+
     public static final ErrorMessageBinaryRepresentation INTERNAL_SERVER_ERROR =
             new ErrorMessageBinaryRepresentation(
                     global(),
@@ -77,6 +82,7 @@ public final class ErrorMessages {
         MESSAGE_NOT_SUPPORTED.encodeV1();
         ORDER_ALREADY_EXISTS.encodeV1();
         ORDER_NOT_FOUND.encodeV1();
+        SYMBOL_NOT_SUPPORTED.encodeV1();
         INTERNAL_SERVER_ERROR.encodeV1();
     }
 }
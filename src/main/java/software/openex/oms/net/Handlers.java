@@ -17,24 +17,44 @@
  */
 package software.openex.oms.net;
 
-import org.jooq.exception.DataAccessException;
 import org.slf4j.Logger;
 import software.openex.oms.binary.BinaryRepresentation;
+import software.openex.oms.binary.batch.Batch;
+import software.openex.oms.binary.batch.BatchBinaryRepresentation;
 import software.openex.oms.binary.order.*;
+import software.openex.oms.binary.order.book.BestBidOfferBinaryRepresentation;
+import software.openex.oms.binary.order.book.DepthLevel;
+import software.openex.oms.binary.order.book.DepthLevelBinaryRepresentation;
+import software.openex.oms.binary.order.book.FetchBestBidOfferBinaryRepresentation;
 import software.openex.oms.binary.order.book.FetchOrderBookBinaryRepresentation;
+import software.openex.oms.binary.order.book.FetchOrderBookDepthBinaryRepresentation;
 import software.openex.oms.binary.order.book.OrderBook;
 import software.openex.oms.binary.order.book.OrderBookBinaryRepresentation;
+import software.openex.oms.binary.order.book.OrderBookDepth;
+import software.openex.oms.binary.order.book.OrderBookDepthBinaryRepresentation;
 import software.openex.oms.binary.order.record.FetchOrderRecordBinaryRepresentation;
 import software.openex.oms.binary.order.record.OrderRecord;
 import software.openex.oms.binary.order.record.OrderRecordBinaryRepresentation;
 
+import java.lang.foreign.MemorySegment;
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+import static java.lang.Boolean.FALSE;
 import static java.lang.foreign.Arena.ofShared;
+import static java.nio.ByteBuffer.allocate;
+import static java.util.Arrays.asList;
+import static java.util.Arrays.stream;
+import static java.util.concurrent.CompletableFuture.allOf;
 import static org.slf4j.LoggerFactory.getLogger;
+import static software.openex.oms.binary.BinaryRepresentable.id;
+import static software.openex.oms.binary.order.OrderFlyweight.isOrder;
 import static software.openex.oms.context.AppContext.context;
-import static software.openex.oms.models.enums.OrderMessageSide.BUY;
-import static software.openex.oms.models.enums.OrderMessageSide.SELL;
 import static software.openex.oms.net.ErrorMessages.*;
 
 /**
@@ -45,110 +65,81 @@ import static software.openex.oms.net.ErrorMessages.*;
 public final class Handlers implements Responder {
     private static final Logger logger = getLogger(Handlers.class);
 
-    public void handleBuyLimitOrder(final Connection connection) {
+    public void handleBuyLimitOrder(final Request request) {
         try {
-            // TODO: Validate incoming message.
-            logMessage(connection);
-            final var buyLimitOrder = BuyLimitOrder.decode(connection.segment());
-            if (context().config().loadBoolean("matching.engine.store_orders") &&
-                    !context().dataBase().insertLimitOrder(buyLimitOrder, BUY)) {
-
-                write(connection, INTERNAL_SERVER_ERROR);
-                return;
-            }
-
-            context().matchingEngines().offer(buyLimitOrder)
+            logMessage(request);
+            final var buyLimitOrder = BuyLimitOrder.decode(request.segment());
+            context().matchingEngines().offer(request.symbolId(), buyLimitOrder)
                     .thenAcceptAsync(v -> {
                         // Write the same received message.
-                        write(connection);
+                        write(request);
                     }, context().executors().worker())
                     .exceptionallyAsync(ex -> {
                         logger.error("{}", ex.getMessage());
-                        write(connection, INTERNAL_SERVER_ERROR);
+                        release(request);
+                        write(request, INTERNAL_SERVER_ERROR);
 
                         return null;
                     }, context().executors().worker());
-        } catch (DataAccessException ex) {
-            if (ex.getMessage().contains("(id, symbol)") && ex.getMessage().contains("already exists")) {
-                write(connection, ORDER_ALREADY_EXISTS);
-                return;
-            }
-
-            logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
         } catch (Exception ex) {
             logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+            release(request);
+            write(request, INTERNAL_SERVER_ERROR);
         }
     }
 
-    public void handleSellLimitOrder(final Connection connection) {
+    public void handleSellLimitOrder(final Request request) {
         try {
-            // TODO: Validate incoming message.
-            logMessage(connection);
-            final var sellLimitOrder = SellLimitOrder.decode(connection.segment());
-            if (context().config().loadBoolean("matching.engine.store_orders") &&
-                    !context().dataBase().insertLimitOrder(sellLimitOrder, SELL)) {
-
-                write(connection, INTERNAL_SERVER_ERROR);
-                return;
-            }
-
-            context().matchingEngines().offer(sellLimitOrder)
+            logMessage(request);
+            final var sellLimitOrder = SellLimitOrder.decode(request.segment());
+            context().matchingEngines().offer(request.symbolId(), sellLimitOrder)
                     .thenAcceptAsync(v -> {
                         // Write the same received message.
-                        write(connection);
+                        write(request);
                     }, context().executors().worker())
                     .exceptionallyAsync(ex -> {
                         logger.error("{}", ex.getMessage());
-                        write(connection, INTERNAL_SERVER_ERROR);
+                        release(request);
+                        write(request, INTERNAL_SERVER_ERROR);
 
                         return null;
                     }, context().executors().worker());
-        } catch (DataAccessException ex) {
-            if (ex.getMessage().contains("(id, symbol)") && ex.getMessage().contains("already exists")) {
-                write(connection, ORDER_ALREADY_EXISTS);
-                return;
-            }
-
-            logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
         } catch (Exception ex) {
             logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+            release(request);
+            write(request, INTERNAL_SERVER_ERROR);
         }
     }
 
-    public void handleCancelOrder(final Connection connection) {
+    public void handleCancelOrder(final Request request) {
         try {
-            // TODO: Validate incoming message.
-            logMessage(connection);
-            final var cancelOrder = CancelOrder.decode(connection.segment());
-            context().matchingEngines().cancel(cancelOrder)
+            logMessage(request);
+            final var cancelOrder = CancelOrder.decode(request.segment());
+            context().matchingEngines().cancel(request.symbolId(), cancelOrder)
                     .thenAcceptAsync(canceled -> {
                         if (canceled) {
                             // Write the same received message.
-                            write(connection);
+                            write(request);
                         } else {
-                            write(connection, ORDER_NOT_FOUND);
+                            write(request, ORDER_NOT_FOUND);
                         }
                     }, context().executors().worker())
                     .exceptionallyAsync(ex -> {
                         logger.error("{}", ex.getMessage());
-                        write(connection, INTERNAL_SERVER_ERROR);
+                        write(request, INTERNAL_SERVER_ERROR);
 
                         return null;
                     }, context().executors().worker());
         } catch (Exception ex) {
             logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+            write(request, INTERNAL_SERVER_ERROR);
         }
     }
 
-    public void handleFetchOrderBook(final Connection connection) {
+    public void handleFetchOrderBook(final Request request) {
         try {
             // TODO: Validate incoming message.
-            final var fetchOrderBook = FetchOrderBookBinaryRepresentation.decode(connection.segment());
+            final var fetchOrderBook = FetchOrderBookBinaryRepresentation.decode(request.segment());
             context().matchingEngines().orderBook(fetchOrderBook)
                     .thenAcceptAsync(orderBook -> {
                         final var arena = ofShared();
@@ -167,90 +158,111 @@ public final class Handlers implements Responder {
 
                         final var response = new OrderBookBinaryRepresentation(arena, new OrderBook(bids, asks));
                         response.encodeV1();
-                        write(connection, response);
+                        write(request, response);
                     }, context().executors().worker())
                     .exceptionallyAsync(ex -> {
                         logger.error("{}", ex.getMessage());
-                        write(connection, INTERNAL_SERVER_ERROR);
+                        write(request, INTERNAL_SERVER_ERROR);
 
                         return null;
                     }, context().executors().worker());
         } catch (Exception ex) {
             logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+            write(request, INTERNAL_SERVER_ERROR);
         }
     }
 
-    public void handleBuyMarketOrder(final Connection connection) {
+    public void handleFetchOrderBookDepth(final Request request) {
         try {
-            // TODO: Validate incoming message.
-            logMessage(connection);
-            final var buyMarketOrder = BuyMarketOrder.decode(connection.segment());
-            if (context().config().loadBoolean("matching.engine.store_orders") &&
-                    !context().dataBase().insertMarketOrder(buyMarketOrder, BUY)) {
-
-                write(connection, INTERNAL_SERVER_ERROR);
+            if (!FetchOrderBookDepthBinaryRepresentation.isValid(request.segment(), context().socketServer().maxDepth())) {
+                write(request, MESSAGE_FORMAT_NOT_VALID);
                 return;
             }
 
-            context().matchingEngines().offer(buyMarketOrder);
-            // Write the same received message.
-            write(connection);
-        } catch (DataAccessException ex) {
-            if (ex.getMessage().contains("(id, symbol)") && ex.getMessage().contains("already exists")) {
-                write(connection, ORDER_ALREADY_EXISTS);
-                return;
-            }
+            final var fetchOrderBookDepth = FetchOrderBookDepthBinaryRepresentation.decode(request.segment());
+            context().matchingEngines().depth(fetchOrderBookDepth)
+                    .thenAcceptAsync(depth -> {
+                        final var arena = ofShared();
+                        final var bids = new ArrayList<BinaryRepresentation<DepthLevel>>();
+                        final var asks = new ArrayList<BinaryRepresentation<DepthLevel>>();
 
-            logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+                        depth.getBids().stream()
+                                .map(bid -> new DepthLevelBinaryRepresentation(arena, bid))
+                                .peek(BinaryRepresentation::encodeV1)
+                                .forEach(bids::add);
+
+                        depth.getAsks().stream()
+                                .map(ask -> new DepthLevelBinaryRepresentation(arena, ask))
+                                .peek(BinaryRepresentation::encodeV1)
+                                .forEach(asks::add);
+
+                        final var orderBookDepth = new OrderBookDepth(bids, asks);
+                        final var response = new OrderBookDepthBinaryRepresentation(arena, orderBookDepth);
+                        response.encodeV1();
+                        write(request, response);
+                    }, context().executors().worker())
+                    .exceptionallyAsync(ex -> {
+                        logger.error("{}", ex.getMessage());
+                        write(request, INTERNAL_SERVER_ERROR);
+
+                        return null;
+                    }, context().executors().worker());
         } catch (Exception ex) {
             logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+            write(request, INTERNAL_SERVER_ERROR);
         }
     }
 
-    public void handleSellMarketOrder(final Connection connection) {
+    public void handleBuyMarketOrder(final Request request) {
         try {
-            // TODO: Validate incoming message.
-            logMessage(connection);
-            final var sellMarketOrder = SellMarketOrder.decode(connection.segment());
-            if (context().config().loadBoolean("matching.engine.store_orders") &&
-                    !context().dataBase().insertMarketOrder(sellMarketOrder, SELL)) {
-
-                write(connection, INTERNAL_SERVER_ERROR);
-                return;
-            }
-
-            context().matchingEngines().offer(sellMarketOrder);
-            // Write the same received message.
-            write(connection);
-        } catch (DataAccessException ex) {
-            if (ex.getMessage().contains("(id, symbol)") && ex.getMessage().contains("already exists")) {
-                write(connection, ORDER_ALREADY_EXISTS);
-                return;
-            }
+            logMessage(request);
+            final var buyMarketOrder = BuyMarketOrder.decode(request.segment());
+            context().matchingEngines().offer(request.symbolId(), buyMarketOrder)
+                    .thenAcceptAsync(v -> {
+                        // Write the same received message.
+                        write(request);
+                    }, context().executors().worker())
+                    .exceptionallyAsync(ex -> {
+                        logger.error("{}", ex.getMessage());
+                        release(request);
+                        write(request, INTERNAL_SERVER_ERROR);
 
-            logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+                        return null;
+                    }, context().executors().worker());
         } catch (Exception ex) {
             logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+            release(request);
+            write(request, INTERNAL_SERVER_ERROR);
         }
     }
 
-    public void handleIOCBuyLimitOrder(final Connection connection) {
+    public void handleSellMarketOrder(final Request request) {
         try {
-            // TODO: Validate incoming message.
-            logMessage(connection);
-            final var buyLimitOrder = BuyLimitOrder.decode(connection.segment());
-            if (context().config().loadBoolean("matching.engine.store_orders") &&
-                    !context().dataBase().insertIOCLimitOrder(buyLimitOrder, BUY)) {
+            logMessage(request);
+            final var sellMarketOrder = SellMarketOrder.decode(request.segment());
+            context().matchingEngines().offer(request.symbolId(), sellMarketOrder)
+                    .thenAcceptAsync(v -> {
+                        // Write the same received message.
+                        write(request);
+                    }, context().executors().worker())
+                    .exceptionallyAsync(ex -> {
+                        logger.error("{}", ex.getMessage());
+                        release(request);
+                        write(request, INTERNAL_SERVER_ERROR);
 
-                write(connection, INTERNAL_SERVER_ERROR);
-                return;
-            }
+                        return null;
+                    }, context().executors().worker());
+        } catch (Exception ex) {
+            logger.error("{}", ex.getMessage());
+            release(request);
+            write(request, INTERNAL_SERVER_ERROR);
+        }
+    }
 
+    public void handleIOCBuyLimitOrder(final Request request) {
+        try {
+            logMessage(request);
+            final var buyLimitOrder = BuyLimitOrder.decode(request.segment());
             final var iocBuyLimitOrder = new IOCBuyLimitOrder(
                     buyLimitOrder.getId(),
                     buyLimitOrder.getTs(),
@@ -258,35 +270,29 @@ public final class Handlers implements Responder {
                     buyLimitOrder.getQuantity(),
                     buyLimitOrder.getPrice());
 
-            context().matchingEngines().offer(iocBuyLimitOrder);
-            // Write the same received message.
-            write(connection);
-        } catch (DataAccessException ex) {
-            if (ex.getMessage().contains("(id, symbol)") && ex.getMessage().contains("already exists")) {
-                write(connection, ORDER_ALREADY_EXISTS);
-                return;
-            }
+            context().matchingEngines().offer(request.symbolId(), iocBuyLimitOrder)
+                    .thenAcceptAsync(v -> {
+                        // Write the same received message.
+                        write(request);
+                    }, context().executors().worker())
+                    .exceptionallyAsync(ex -> {
+                        logger.error("{}", ex.getMessage());
+                        release(request);
+                        write(request, INTERNAL_SERVER_ERROR);
 
-            logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+                        return null;
+                    }, context().executors().worker());
         } catch (Exception ex) {
             logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+            release(request);
+            write(request, INTERNAL_SERVER_ERROR);
         }
     }
 
-    public void handleIOCSellLimitOrder(final Connection connection) {
+    public void handleIOCSellLimitOrder(final Request request) {
         try {
-            // TODO: Validate incoming message.
-            logMessage(connection);
-            final var sellLimitOrder = SellLimitOrder.decode(connection.segment());
-            if (context().config().loadBoolean("matching.engine.store_orders") &&
-                    !context().dataBase().insertIOCLimitOrder(sellLimitOrder, SELL)) {
-
-                write(connection, INTERNAL_SERVER_ERROR);
-                return;
-            }
-
+            logMessage(request);
+            final var sellLimitOrder = SellLimitOrder.decode(request.segment());
             final var iocSellLimitOrder = new IOCSellLimitOrder(
                     sellLimitOrder.getId(),
                     sellLimitOrder.getTs(),
@@ -294,35 +300,29 @@ public final class Handlers implements Responder {
                     sellLimitOrder.getQuantity(),
                     sellLimitOrder.getPrice());
 
-            context().matchingEngines().offer(iocSellLimitOrder);
-            // Write the same received message.
-            write(connection);
-        } catch (DataAccessException ex) {
-            if (ex.getMessage().contains("(id, symbol)") && ex.getMessage().contains("already exists")) {
-                write(connection, ORDER_ALREADY_EXISTS);
-                return;
-            }
+            context().matchingEngines().offer(request.symbolId(), iocSellLimitOrder)
+                    .thenAcceptAsync(v -> {
+                        // Write the same received message.
+                        write(request);
+                    }, context().executors().worker())
+                    .exceptionallyAsync(ex -> {
+                        logger.error("{}", ex.getMessage());
+                        release(request);
+                        write(request, INTERNAL_SERVER_ERROR);
 
-            logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+                        return null;
+                    }, context().executors().worker());
         } catch (Exception ex) {
             logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+            release(request);
+            write(request, INTERNAL_SERVER_ERROR);
         }
     }
 
-    public void handleFOKBuyLimitOrder(final Connection connection) {
+    public void handleFOKBuyLimitOrder(final Request request) {
         try {
-            // TODO: Validate incoming message.
-            logMessage(connection);
-            final var buyLimitOrder = BuyLimitOrder.decode(connection.segment());
-            if (context().config().loadBoolean("matching.engine.store_orders") &&
-                    !context().dataBase().insertFOKLimitOrder(buyLimitOrder, BUY)) {
-
-                write(connection, INTERNAL_SERVER_ERROR);
-                return;
-            }
-
+            logMessage(request);
+            final var buyLimitOrder = BuyLimitOrder.decode(request.segment());
             final var fokBuyLimitOrder = new FOKBuyLimitOrder(
                     buyLimitOrder.getId(),
                     buyLimitOrder.getTs(),
@@ -330,35 +330,29 @@ public final class Handlers implements Responder {
                     buyLimitOrder.getQuantity(),
                     buyLimitOrder.getPrice());
 
-            context().matchingEngines().offer(fokBuyLimitOrder);
-            // Write the same received message.
-            write(connection);
-        } catch (DataAccessException ex) {
-            if (ex.getMessage().contains("(id, symbol)") && ex.getMessage().contains("already exists")) {
-                write(connection, ORDER_ALREADY_EXISTS);
-                return;
-            }
+            context().matchingEngines().offer(request.symbolId(), fokBuyLimitOrder)
+                    .thenAcceptAsync(v -> {
+                        // Write the same received message.
+                        write(request);
+                    }, context().executors().worker())
+                    .exceptionallyAsync(ex -> {
+                        logger.error("{}", ex.getMessage());
+                        release(request);
+                        write(request, INTERNAL_SERVER_ERROR);
 
-            logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+                        return null;
+                    }, context().executors().worker());
         } catch (Exception ex) {
             logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+            release(request);
+            write(request, INTERNAL_SERVER_ERROR);
         }
     }
 
-    public void handleFOKSellLimitOrder(final Connection connection) {
+    public void handleFOKSellLimitOrder(final Request request) {
         try {
-            // TODO: Validate incoming message.
-            logMessage(connection);
-            final var sellLimitOrder = SellLimitOrder.decode(connection.segment());
-            if (context().config().loadBoolean("matching.engine.store_orders") &&
-                    !context().dataBase().insertFOKLimitOrder(sellLimitOrder, SELL)) {
-
-                write(connection, INTERNAL_SERVER_ERROR);
-                return;
-            }
-
+            logMessage(request);
+            final var sellLimitOrder = SellLimitOrder.decode(request.segment());
             final var fokSellLimitOrder = new FOKSellLimitOrder(
                     sellLimitOrder.getId(),
                     sellLimitOrder.getTs(),
@@ -366,121 +360,306 @@ public final class Handlers implements Responder {
                     sellLimitOrder.getQuantity(),
                     sellLimitOrder.getPrice());
 
-            context().matchingEngines().offer(fokSellLimitOrder);
-            // Write the same received message.
-            write(connection);
-        } catch (DataAccessException ex) {
-            if (ex.getMessage().contains("(id, symbol)") && ex.getMessage().contains("already exists")) {
-                write(connection, ORDER_ALREADY_EXISTS);
-                return;
-            }
+            context().matchingEngines().offer(request.symbolId(), fokSellLimitOrder)
+                    .thenAcceptAsync(v -> {
+                        // Write the same received message.
+                        write(request);
+                    }, context().executors().worker())
+                    .exceptionallyAsync(ex -> {
+                        logger.error("{}", ex.getMessage());
+                        release(request);
+                        write(request, INTERNAL_SERVER_ERROR);
 
-            logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+                        return null;
+                    }, context().executors().worker());
         } catch (Exception ex) {
             logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+            release(request);
+            write(request, INTERNAL_SERVER_ERROR);
         }
     }
 
-    public void handleFOKBuyMarketOrder(final Connection connection) {
+    public void handleFOKBuyMarketOrder(final Request request) {
         try {
-            // TODO: Validate incoming message.
-            logMessage(connection);
-            final var buyMarketOrder = BuyMarketOrder.decode(connection.segment());
-            if (context().config().loadBoolean("matching.engine.store_orders") &&
-                    !context().dataBase().insertFOKMarketOrder(buyMarketOrder, BUY)) {
-
-                write(connection, INTERNAL_SERVER_ERROR);
-                return;
-            }
-
+            logMessage(request);
+            final var buyMarketOrder = BuyMarketOrder.decode(request.segment());
             final var fokBuyMarketOrder = new FOKBuyMarketOrder(
                     buyMarketOrder.getId(),
                     buyMarketOrder.getTs(),
                     buyMarketOrder.getSymbol(),
                     buyMarketOrder.getQuantity());
 
-            context().matchingEngines().offer(fokBuyMarketOrder);
-            // Write the same received message.
-            write(connection);
-        } catch (DataAccessException ex) {
-            if (ex.getMessage().contains("(id, symbol)") && ex.getMessage().contains("already exists")) {
-                write(connection, ORDER_ALREADY_EXISTS);
-                return;
-            }
+            context().matchingEngines().offer(request.symbolId(), fokBuyMarketOrder)
+                    .thenAcceptAsync(v -> {
+                        // Write the same received message.
+                        write(request);
+                    }, context().executors().worker())
+                    .exceptionallyAsync(ex -> {
+                        logger.error("{}", ex.getMessage());
+                        release(request);
+                        write(request, INTERNAL_SERVER_ERROR);
 
-            logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+                        return null;
+                    }, context().executors().worker());
         } catch (Exception ex) {
             logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+            release(request);
+            write(request, INTERNAL_SERVER_ERROR);
         }
     }
 
-    public void handleFOKSellMarketOrder(final Connection connection) {
+    public void handleFOKSellMarketOrder(final Request request) {
         try {
-            // TODO: Validate incoming message.
-            logMessage(connection);
-            final var sellMarketOrder = SellMarketOrder.decode(connection.segment());
-            if (context().config().loadBoolean("matching.engine.store_orders") &&
-                    !context().dataBase().insertFOKMarketOrder(sellMarketOrder, SELL)) {
-
-                write(connection, INTERNAL_SERVER_ERROR);
-                return;
-            }
-
+            logMessage(request);
+            final var sellMarketOrder = SellMarketOrder.decode(request.segment());
             final var fokSellMarketOrder = new FOKSellMarketOrder(
                     sellMarketOrder.getId(),
                     sellMarketOrder.getTs(),
                     sellMarketOrder.getSymbol(),
                     sellMarketOrder.getQuantity());
 
-            context().matchingEngines().offer(fokSellMarketOrder);
-            // Write the same received message.
-            write(connection);
-        } catch (DataAccessException ex) {
-            if (ex.getMessage().contains("(id, symbol)") && ex.getMessage().contains("already exists")) {
-                write(connection, ORDER_ALREADY_EXISTS);
-                return;
-            }
+            context().matchingEngines().offer(request.symbolId(), fokSellMarketOrder)
+                    .thenAcceptAsync(v -> {
+                        // Write the same received message.
+                        write(request);
+                    }, context().executors().worker())
+                    .exceptionallyAsync(ex -> {
+                        logger.error("{}", ex.getMessage());
+                        release(request);
+                        write(request, INTERNAL_SERVER_ERROR);
 
-            logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+                        return null;
+                    }, context().executors().worker());
         } catch (Exception ex) {
             logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+            release(request);
+            write(request, INTERNAL_SERVER_ERROR);
         }
     }
 
-    public void handleFetchOrderRecord(final Connection connection) {
+    public void handleFetchOrderRecord(final Request request) {
         try {
             // TODO: Validate incoming message.
-            logMessage(connection);
-            final var fetchOrderRecord = FetchOrderRecordBinaryRepresentation.decode(connection.segment());
+            logMessage(request);
+            final var fetchOrderRecord = FetchOrderRecordBinaryRepresentation.decode(request.segment());
 
             var record = context().dataBase().fetchOrderMessage(fetchOrderRecord.getId(), fetchOrderRecord.getSymbol());
             if (record == null) {
-                write(connection, ORDER_NOT_FOUND);
+                write(request, ORDER_NOT_FOUND);
             } else {
                 final var arena = ofShared();
                 final var orderRecord = new OrderRecord(record.component1(), record.component2(),
-                        record.component3().getLiteral(), record.component4().getLiteral(), record.component5(),
-                        record.component6(), record.component7(), record.component8().getLiteral(), record.component9(),
+                        record.component3().getLiteral(), record.component4().getLiteral(), plain(record.component5()),
+                        plain(record.component6()), plain(record.component7()), record.component8().getLiteral(),
+                        record.component9(),
                         record.component10().toEpochMilli());
 
                 final var response = new OrderRecordBinaryRepresentation(arena, orderRecord);
                 response.encodeV1();
-                write(connection, response);
+                write(request, response);
+            }
+        } catch (Exception ex) {
+            logger.error("{}", ex.getMessage());
+            write(request, INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    public void handleFetchBestBidOffer(final Request request) {
+        try {
+            if (!FetchBestBidOfferBinaryRepresentation.isValid(request.segment())) {
+                write(request, MESSAGE_FORMAT_NOT_VALID);
+                return;
+            }
+
+            final var fetchBestBidOffer = FetchBestBidOfferBinaryRepresentation.decode(request.segment());
+            // Served on worker thread from the last published top of book; matching is not interrupted.
+            final var bestBidOffer = context().matchingEngines().bestBidOffer(fetchBestBidOffer);
+
+            final var arena = ofShared();
+            final var response = new BestBidOfferBinaryRepresentation(arena, bestBidOffer);
+            response.encodeV1();
+            write(request, response);
+        } catch (Exception ex) {
+            logger.error("{}", ex.getMessage());
+            write(request, INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Handles orders and cancel orders of a batch; every symbol's orders are submitted to its engine as one command.
+     * Response is a batch of responses in the same order, each one is what the message alone would be answered with. A
+     * batch whose envelope is not valid or that has more than max_batch_size messages is rejected as a whole.
+     */
+    public void handleBatch(final Request request) {
+        final var engines = context().matchingEngines();
+        // Ids reserved for orders of this batch; released on failure, so that client can retry them.
+        final var reserved = new ArrayList<Reservation>();
+        try {
+            if (!BatchBinaryRepresentation.isValid(request.segment(), context().socketServer().maxBatchSize())) {
+                write(request, MESSAGE_FORMAT_NOT_VALID);
+                return;
             }
+
+            logMessage(request);
+            final var messages = BatchBinaryRepresentation.messages(request.segment());
+            final var responses = new MemorySegment[messages.size()];
+            final var futures = new CompletableFuture<?>[messages.size()];
+            final var symbolIds = new int[messages.size()];
+            final var symbols = new LinkedHashMap<Integer, List<Integer>>();
+            final var orders = new Order[messages.size()];
+            final var view = new OrderFlyweight();
+            for (int i = 0; i < messages.size(); i++) {
+                final var message = messages.get(i);
+                if (!isOrder(id(message))) {
+                    responses[i] = MESSAGE_NOT_SUPPORTED.segment();
+                } else if (!view.wrap(message)) {
+                    responses[i] = MESSAGE_FORMAT_NOT_VALID.segment();
+                } else {
+                    final var symbolId = engines.symbolId(view.segment(), view.symbolOffset(), view.symbolLength());
+                    if (symbolId < 0) {
+                        responses[i] = SYMBOL_NOT_SUPPORTED.segment();
+                    } else if (id(message) != 104 && !engines.reserve(symbolId, view.id())) {
+                        responses[i] = ORDER_ALREADY_EXISTS.segment();
+                    } else {
+                        if (id(message) != 104) {
+                            reserved.add(new Reservation(symbolId, view.id()));
+                        }
+
+                        symbolIds[i] = symbolId;
+                        orders[i] = order(message);
+                        symbols.computeIfAbsent(symbolId, _ -> new ArrayList<>()).add(i);
+                    }
+                }
+            }
+
+            symbols.forEach((symbolId, indexes) -> {
+                final var submitted = engines.submit(symbolId, indexes.stream().map(index -> orders[index]).toList());
+                for (int i = 0; i < indexes.size(); i++) {
+                    futures[indexes.get(i)] = submitted.get(i);
+                }
+            });
+
+            allOf(stream(futures).filter(Objects::nonNull).toArray(CompletableFuture[]::new))
+                    .handleAsync((_, _) -> {
+                        for (int i = 0; i < futures.length; i++) {
+                            if (futures[i] != null) {
+                                responses[i] = response(messages.get(i), futures[i]);
+                                if (futures[i].isCompletedExceptionally() && !(orders[i] instanceof CancelOrder)) {
+                                    engines.release(symbolIds[i], orders[i].getId());
+                                }
+                            }
+                        }
+
+                        final var response = new BatchBinaryRepresentation(new Batch(asList(responses)));
+                        response.encodeV1();
+                        write(request, response);
+                        return null;
+                    }, context().executors().worker())
+                    .exceptionallyAsync(ex -> {
+                        logger.error("{}", ex.getMessage());
+                        release(reserved);
+                        write(request, INTERNAL_SERVER_ERROR);
+
+                        return null;
+                    }, context().executors().worker());
         } catch (Exception ex) {
             logger.error("{}", ex.getMessage());
-            write(connection, INTERNAL_SERVER_ERROR);
+            release(reserved);
+            write(request, INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Releases ids reserved for orders of a failed batch; engine keeps ids of orders that already took effect.
+     */
+    private static void release(final List<Reservation> reserved) {
+        for (final var reservation : reserved) {
+            context().matchingEngines().release(reservation.symbolId, reservation.id);
+        }
+    }
+
+    private static MemorySegment response(final MemorySegment message, final CompletableFuture<?> future) {
+        try {
+            // Write the same received message, unless cancel order could not find its order.
+            return FALSE.equals(future.join()) ? ORDER_NOT_FOUND.segment() : message;
+        } catch (CompletionException ex) {
+            logger.error("{}", ex.getMessage());
+            return INTERNAL_SERVER_ERROR.segment();
+        }
+    }
+
+    /**
+     * Decodes an order or a cancel order of a batch.
+     *
+     * @return null if message is not an order
+     */
+    private static Order order(final MemorySegment message) {
+        return switch (id(message)) {
+            case 101, 109, 111 -> {
+                final var order = BuyLimitOrder.decode(message);
+                yield switch (id(message)) {
+                    case 101 -> order;
+                    case 109 -> new IOCBuyLimitOrder(order.getId(), order.getTs(), order.getSymbol(),
+                            order.getQuantity(), order.getPrice());
+                    default -> new FOKBuyLimitOrder(order.getId(), order.getTs(), order.getSymbol(),
+                            order.getQuantity(), order.getPrice());
+                };
+            }
+            case 102, 110, 112 -> {
+                final var order = SellLimitOrder.decode(message);
+                yield switch (id(message)) {
+                    case 102 -> order;
+                    case 110 -> new IOCSellLimitOrder(order.getId(), order.getTs(), order.getSymbol(),
+                            order.getQuantity(), order.getPrice());
+                    default -> new FOKSellLimitOrder(order.getId(), order.getTs(), order.getSymbol(),
+                            order.getQuantity(), order.getPrice());
+                };
+            }
+            case 107, 113 -> {
+                final var order = BuyMarketOrder.decode(message);
+                yield id(message) == 107 ? order :
+                        new FOKBuyMarketOrder(order.getId(), order.getTs(), order.getSymbol(), order.getQuantity());
+            }
+            case 108, 114 -> {
+                final var order = SellMarketOrder.decode(message);
+                yield id(message) == 108 ? order :
+                        new FOKSellMarketOrder(order.getId(), order.getTs(), order.getSymbol(), order.getQuantity());
+            }
+            case 104 -> CancelOrder.decode(message);
+            default -> null;
+        };
+    }
+
+    /**
+     * Releases the order id that dispatcher reserved for a failed request, so that client can retry it.
+     */
+    private static void release(final Request request) {
+        if (request.isReserved()) {
+            context().matchingEngines().release(request.symbolId(), request.orderId());
         }
     }
 
-    private void logMessage(final Connection connection) {
+    private static String plain(final BigDecimal value) {
+        return value == null ? null : value.toPlainString();
+    }
+
+    private void logMessage(final Request request) {
+        // Request's pooled memory may be reused before the file write is done.
         context().messagesLogFile().ifPresentOrElse(file ->
-                file.append(connection.copyMessageForLog().asByteBuffer()), doNothing);
+                file.append(allocate((int) request.segment().byteSize()).put(request.segment().asByteBuffer()).flip()),
+                doNothing);
+    }
+
+    /**
+     * An order id reserved for an order of a batch.
+     */
+    private static final class Reservation {
+        private final int symbolId;
+        private final long id;
+
+        private Reservation(final int symbolId, final long id) {
+            this.symbolId = symbolId;
+            this.id = id;
+        }
     }
 }
@@ -20,18 +20,18 @@ package software.openex.oms.net;
 import org.slf4j.Logger;
 import software.openex.oms.binary.base.ErrorMessageBinaryRepresentation;
 
+import java.nio.ByteBuffer;
 import java.nio.channels.CompletionHandler;
 
 import static org.slf4j.LoggerFactory.getLogger;
-import static software.openex.oms.binary.BinaryRepresentable.RHS;
-import static software.openex.oms.binary.BinaryRepresentable.size;
+import static software.openex.oms.binary.BinaryRepresentable.*;
 import static software.openex.oms.context.AppContext.context;
-import static software.openex.oms.net.Connection.extendSegment;
-import static software.openex.oms.net.ErrorMessages.MESSAGE_FORMAT_NOT_VALID;
-import static software.openex.oms.net.ErrorMessages.MESSAGE_LENGTH_TOO_BIG;
+import static software.openex.oms.net.ErrorMessages.*;
 
 /**
- * Stateless completion handler that reads bytes from a channel.
+ * Stateless completion handler that reads bytes from a channel. Read bytes may contain many messages, even the partial
+ * beginning of the next one; every complete message is dispatched as a {@link Request} and reading goes on without
+ * waiting for responses, unless too many requests of the connection are in flight.
  *
  * @author Alireza Pourtaghi
  */
@@ -45,103 +45,86 @@ public final class ReadHandler implements CompletionHandler<Integer, Connection>
             case EOS -> handleEOS(connection);
             case 0 -> handleZeroBytesReceived(connection);
 
-            default -> handleMessage(connection);
+            default -> handleMessages(connection);
         }
     }
 
     @Override
     public void failed(final Throwable th, final Connection connection) {
         logger.error("read operation failed: {}", th.getMessage());
-        close(connection);
+        connection.stopReading();
     }
 
     private void handleEOS(final Connection connection) {
         logger.trace("end of stream detected; closing connection ...");
-        close(connection);
+        connection.stopReading();
     }
 
     private void handleZeroBytesReceived(final Connection connection) {
         if (connection.buffer().position() < connection.buffer().limit()) {
-            read(connection);
+            connection.read();
         } else {
             logger.warn("full buffer loop detected; closing connection ...");
-            close(connection);
+            connection.stopReading();
         }
     }
 
-    private void handleMessage(final Connection connection) {
-        connection.buffer().flip();
-        logger.trace("Buffer: {}", connection.buffer());
-
-        final var limit = connection.buffer().limit();
-        if (limit <= RHS) {
-            write(connection, MESSAGE_FORMAT_NOT_VALID);
-            return;
-        }
-
-        if (limit > context().config().loadInt("server.max_message_size")) {
-            write(connection, MESSAGE_LENGTH_TOO_BIG);
-            return;
-        }
-
-        final var capacity = connection.buffer().capacity();
-        final var requiredReadSize = RHS + size(connection.segment());
-        if (limit < capacity) {
-            if (limit == requiredReadSize) {
-                context().dispatcher().dispatch(connection);
+    private void handleMessages(final Connection connection) {
+        final var buffer = connection.buffer();
+        final var segment = connection.segment();
+        buffer.flip();
+        logger.trace("Buffer: {}", buffer);
+
+        final var maxMessageSize = connection.maxMessageSize();
+        var position = 0;
+        while (buffer.limit() - position >= RHS) {
+            final var version = segment.get(BYTE, position);
+            final var size = segment.get(INT, position + 6);
+            if (version != VR1 && version != VR2) {
+                drop(connection, MESSAGE_VERSION_NOT_SUPPORTED);
                 return;
             }
 
-            if (limit < requiredReadSize) {
-                connection.buffer().position(limit);
-                connection.buffer().limit(capacity);
-                read(connection);
+            if (size <= 0) {
+                drop(connection, MESSAGE_FORMAT_NOT_VALID);
                 return;
             }
 
-            write(connection, MESSAGE_FORMAT_NOT_VALID);
-            return;
-        }
-
-        if (limit == capacity) {
-            if (limit == requiredReadSize) {
-                context().dispatcher().dispatch(connection);
+            final var messageSize = (long) (version == VR2 ? RHS2 : RHS) + size;
+            if (messageSize > maxMessageSize) {
+                drop(connection, MESSAGE_LENGTH_TOO_BIG);
                 return;
             }
 
-            // Extended buffer size remains for connection.
-            final var readBufferSize = context().config().loadInt("server.read_buffer_size");
-            final var extendedSegmentConnection = extendSegment(connection, readBufferSize);
-            read(extendedSegmentConnection);
-        }
-    }
+            if (buffer.limit() - position < messageSize) {
+                break;
+            }
 
-    private void write(final Connection connection, final ErrorMessageBinaryRepresentation message) {
-        try {
-            final var buffer = message.buffer();
-            connection.socket().write(buffer, buffer, new WriteErrorHandler(connection));
-        } catch (Exception ex) {
-            logger.error("write call failed: {}", ex.getMessage());
+            context().dispatcher().dispatch(Request.copyOf(connection, position, version, size));
+            position += (int) messageSize;
+        }
 
-            connection.buffer().clear();
-            read(connection);
+        // Keep the beginning of next message.
+        buffer.position(position);
+        buffer.compact();
+        if (!buffer.hasRemaining()) {
+            connection.growSegment();
+        } else {
+            // Give back memory of a big message once it is read.
+            connection.shrinkSegment();
         }
-    }
 
-    private void read(final Connection connection) {
-        try {
-            connection.socket().read(connection.buffer(), connection, this);
-        } catch (Exception ex) {
-            logger.error("read call failed: {}", ex.getMessage());
-            close(connection);
+        if (!connection.pause()) {
+            connection.read();
         }
     }
 
-    private void close(final Connection connection) {
-        try {
-            connection.close();
-        } catch (Exception ex) {
-            logger.error("error while closing connection: {}", ex.getMessage());
-        }
+    /**
+     * Responds with an error and drops all read bytes; message boundaries can not be trusted anymore.
+     */
+    private void drop(final Connection connection, final ErrorMessageBinaryRepresentation message) {
+        connection.buffer().clear();
+        connection.send(new ByteBuffer[]{message.buffer()}, () -> {});
+        connection.read();
     }
 }
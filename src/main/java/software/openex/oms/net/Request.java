@@ -0,0 +1,151 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.net;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+
+import static java.lang.foreign.MemorySegment.copy;
+import static java.nio.ByteBuffer.allocate;
+import static software.openex.oms.binary.BinaryRepresentable.*;
+import static software.openex.oms.context.AppContext.context;
+
+/**
+ * One message that is split out of a connection's incoming bytes. Its segment is a private copy in version 1 layout, so
+ * handlers decode every request the same way, while connection keeps reading next requests. A version 2 request
+ * carries a client supplied correlation id that is put into the header of its response. Segment is pooled memory and
+ * must not be used after response is queued.
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class Request implements Runnable {
+    private final Connection connection;
+    private final MemorySegment memory;
+    private final MemorySegment segment;
+    private final byte version;
+    private final long correlationId;
+    // Resolved by dispatcher for order messages; -1 otherwise.
+    private int symbolId;
+    // Id of order that is reserved by dispatcher, if reserved.
+    private long orderId;
+    private boolean reserved;
+
+    private Request(final Connection connection, final MemorySegment memory, final MemorySegment segment,
+                    final byte version, final long correlationId) {
+
+        this.connection = connection;
+        this.memory = memory;
+        this.segment = segment;
+        this.version = version;
+        this.correlationId = correlationId;
+        this.symbolId = -1;
+        this.orderId = 0;
+        this.reserved = false;
+    }
+
+    /**
+     * Copies a complete message that starts at position of connection's segment; request is counted as in flight until
+     * its response is written.
+     */
+    static Request copyOf(final Connection connection, final long position, final byte version, final int size) {
+        final var source = connection.segment();
+        final var headerSize = version == VR2 ? RHS2 : RHS;
+        // Pooled memory, given back once response is written; handlers may outlive the read buffer.
+        final var memory = connection.buffers().acquire(RHS + size);
+        final var segment = memory.asSlice(0, RHS + size);
+
+        copy(source, position, segment, 0, RHS);
+        segment.set(BYTE, 0, VR1);
+        copy(source, position + headerSize, segment, RHS, size);
+
+        final var correlationId = version == VR2 ? source.get(LONG, position + RHS) : 0;
+        connection.acquire();
+        return new Request(connection, memory, segment, version, correlationId);
+    }
+
+    /**
+     * Queues a response of this request; a version 2 response is written as its header with correlation id followed
+     * by the body of message.
+     *
+     * @param message a version 1 encoded message
+     * @param written called once message is written or connection is closed
+     */
+    void respond(final ByteBuffer message, final Runnable written) {
+        final ByteBuffer[] buffers;
+        if (version == VR2) {
+            final var header = allocate(RHS2);
+            header.put(message.slice(0, RHS)).put(0, VR2).putLong(RHS, correlationId);
+            buffers = new ByteBuffer[]{header.clear(), message.position(RHS)};
+        } else {
+            buffers = new ByteBuffer[]{message};
+        }
+
+        connection.send(buffers, () -> {
+            written.run();
+            connection.buffers().release(memory);
+            if (connection.release()) {
+                connection.read();
+            }
+        });
+    }
+
+    /**
+     * Handles this request on a worker; a request is its own task, so dispatching it allocates nothing more.
+     */
+    @Override
+    public void run() {
+        context().dispatcher().handle(this);
+    }
+
+    public Connection connection() {
+        return connection;
+    }
+
+    public MemorySegment segment() {
+        return segment;
+    }
+
+    public byte version() {
+        return version;
+    }
+
+    public long correlationId() {
+        return correlationId;
+    }
+
+    public int symbolId() {
+        return symbolId;
+    }
+
+    void symbolId(final int symbolId) {
+        this.symbolId = symbolId;
+    }
+
+    public boolean isReserved() {
+        return reserved;
+    }
+
+    public long orderId() {
+        return orderId;
+    }
+
+    void reserved(final long orderId) {
+        this.orderId = orderId;
+        this.reserved = true;
+    }
+}
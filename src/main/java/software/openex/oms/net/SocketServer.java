@@ -28,6 +28,7 @@ import java.nio.channels.AsynchronousServerSocketChannel;
 import static java.net.StandardSocketOptions.SO_RCVBUF;
 import static java.net.StandardSocketOptions.SO_REUSEADDR;
 import static org.slf4j.LoggerFactory.getLogger;
+import static software.openex.oms.binary.BinaryRepresentable.RHS2;
 import static software.openex.oms.context.AppContext.context;
 
 /**
@@ -40,6 +41,11 @@ public final class SocketServer implements Closeable {
 
     private final AsynchronousServerSocketChannel server;
     private final AcceptConnectionHandler acceptConnectionHandler;
+    private final BufferPool buffers;
+    private final int maxMessageSize;
+    private final int maxInFlightRequests;
+    private final int maxBatchSize;
+    private final int maxDepth;
 
     public SocketServer(final Configuration configuration) throws IOException {
         final var host = configuration.loadString("server.host");
@@ -48,12 +54,41 @@ public final class SocketServer implements Closeable {
         logger.info("Binding server socket {}:{} ...", host, port);
         this.server = setOptions(open(), configuration).bind(address(configuration));
         this.acceptConnectionHandler = new AcceptConnectionHandler();
+        this.buffers = new BufferPool(
+                configuration.loadInt("server.read_buffer_size"),
+                // Read buffer keeps a whole message with version 2 header.
+                configuration.loadInt("server.max_message_size") + RHS2,
+                configuration.loadInt("server.buffer_pool_size"));
+        this.maxMessageSize = configuration.loadInt("server.max_message_size");
+        this.maxInFlightRequests = configuration.loadInt("server.max_in_flight_requests");
+        this.maxBatchSize = configuration.loadInt("server.max_batch_size");
+        this.maxDepth = configuration.loadInt("server.max_depth");
     }
 
     public void listen() {
         server.accept(context(), acceptConnectionHandler);
     }
 
+    public BufferPool buffers() {
+        return buffers;
+    }
+
+    public int maxMessageSize() {
+        return maxMessageSize;
+    }
+
+    public int maxInFlightRequests() {
+        return maxInFlightRequests;
+    }
+
+    public int maxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public int maxDepth() {
+        return maxDepth;
+    }
+
     private static AsynchronousServerSocketChannel open() throws IOException {
         return AsynchronousServerSocketChannel.open();
     }
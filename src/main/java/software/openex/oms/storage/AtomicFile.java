@@ -24,7 +24,6 @@ import software.openex.oms.event.storage.AtomicFileAppendEvent;
 import software.openex.oms.event.storage.AtomicFileReadEvent;
 import software.openex.oms.event.storage.AtomicFileWriteEvent;
 
-import java.io.Closeable;
 import java.io.IOException;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
@@ -34,6 +33,8 @@ import java.nio.file.Path;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.System.exit;
 import static java.lang.foreign.Arena.global;
 import static java.nio.channels.FileChannel.open;
@@ -49,11 +50,13 @@ import static org.slf4j.LoggerFactory.getLogger;
  *
  * @author Alireza Pourtaghi
  */
-public sealed class AtomicFile implements Closeable permits ThreadSafeAtomicFile {
+public sealed class AtomicFile implements DurableFile permits ThreadSafeAtomicFile {
     private static final Logger logger = getLogger(AtomicFile.class);
 
     private final Semaphore guard;
     private final AtomicLong position;
+    // End of the last successfully written bytes; readers never read past it.
+    private volatile long published;
     private final Path source;
     private final Path target;
     private final FileHeaderBinaryRepresentation header;
@@ -94,12 +97,15 @@ public sealed class AtomicFile implements Closeable permits ThreadSafeAtomicFile
             }
 
             header.incrementDurabilitySize(bytesWritten);
+            final var end = position + bytesWritten;
             final var headerAsBuffer = header.buffer();
 
             bytesWritten = 0;
             while (headerAsBuffer.remaining() > 0) {
                 bytesWritten += moved.write(headerAsBuffer, bytesWritten);
             }
+
+            published = max(published, end);
         } catch (Exception ex) {
             logger.error("write failed: {}!", ex.getMessage(), ex);
             throw new RuntimeException(ex);
@@ -137,12 +143,16 @@ public sealed class AtomicFile implements Closeable permits ThreadSafeAtomicFile
             }
 
             header.incrementDurabilitySize(bytesWritten);
+            final var end = localPosition + bytesWritten;
             final var headerAsBuffer = header.buffer();
 
             bytesWritten = 0;
             while (headerAsBuffer.remaining() > 0) {
                 bytesWritten += moved.write(headerAsBuffer, bytesWritten);
             }
+
+            // Appended bytes are synchronously written, so they become visible to readers as durable.
+            published = end;
         } catch (Exception ex) {
             logger.error("write failed: {}!", ex.getMessage(), ex);
             position.addAndGet(-buffer.limit());
@@ -159,16 +169,25 @@ public sealed class AtomicFile implements Closeable permits ThreadSafeAtomicFile
         }
     }
 
+    @Override
     public void append(final MemorySegment segment) {
         append(segment.asByteBuffer());
     }
 
+    /**
+     * Reads at most size bytes at position without any locking; bytes after the published position, that may belong to
+     * an in progress write, are returned as zeros.
+     */
+    @Override
     public MemorySegment read(final Arena arena, final long position, final long size) throws IOException {
         final var event = new AtomicFileReadEvent();
         event.begin();
 
         final var segment = arena.allocate(size);
-        file.read(segment.asByteBuffer().clear(), position);
+        final var readable = min(size, max(0, published - position));
+        if (readable > 0) {
+            file.read(segment.asSlice(0, readable).asByteBuffer(), position);
+        }
 
         event.end();
         event.commit();
@@ -246,6 +265,7 @@ public sealed class AtomicFile implements Closeable permits ThreadSafeAtomicFile
 
             try (final var lock = file.lock()) {
                 position.addAndGet(file.size());
+                published = file.size();
             } catch (Exception ex) {
                 logger.error("could not set position on file: {}!", ex.getMessage(), ex);
                 throw new RuntimeException(ex);
@@ -262,10 +282,19 @@ public sealed class AtomicFile implements Closeable permits ThreadSafeAtomicFile
         file.close();
     }
 
+    /**
+     * @return the end of the last successfully written bytes
+     */
+    @Override
+    public final long durable() {
+        return published;
+    }
+
     protected final Semaphore guard() {
         return guard;
     }
 
+    @Override
     public final Path source() {
         return source;
     }
@@ -0,0 +1,89 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.storage;
+
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+
+/**
+ * When appended records of a {@link WriteAheadLogFile} are forced to disk, and so when they are acknowledged.
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class DurabilityPolicy {
+    private final Mode mode;
+    private final int groupRecords;
+    private final Duration groupDelay;
+    private final Duration forceInterval;
+
+    public DurabilityPolicy(final Mode mode, final int groupRecords, final Duration groupDelay,
+                            final Duration forceInterval) {
+
+        this.mode = mode;
+        this.groupRecords = groupRecords;
+        this.groupDelay = groupDelay;
+        this.forceInterval = forceInterval;
+    }
+
+    /**
+     * Creates a policy from a config object like: { mode = "group", group_records = 64, group_delay = 500us,
+     * force_interval = 100ms }.
+     */
+    public static DurabilityPolicy of(final Config config) {
+        return new DurabilityPolicy(
+                Mode.valueOf(config.getString("mode").trim().toUpperCase()),
+                config.getInt("group_records"),
+                config.getDuration("group_delay"),
+                config.getDuration("force_interval"));
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getGroupRecords() {
+        return groupRecords;
+    }
+
+    public Duration getGroupDelay() {
+        return groupDelay;
+    }
+
+    public Duration getForceInterval() {
+        return forceInterval;
+    }
+
+    /**
+     * @author Alireza Pourtaghi
+     */
+    public enum Mode {
+        /**
+         * Every append is forced before it returns.
+         */
+        SYNC,
+        /**
+         * Appends are forced together, once group records are pending or the oldest pending one waited group delay.
+         */
+        GROUP,
+        /**
+         * Appends are forced periodically every force interval; they are acknowledged once written, before force.
+         */
+        ASYNC
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * A file that records are appended to durably and read back from by position.
+ *
+ * @author Alireza Pourtaghi
+ */
+public interface DurableFile extends Closeable {
+
+    /**
+     * Appends all bytes of segment as one unit; either all of them survive a crash or none.
+     */
+    void append(MemorySegment segment);
+
+    MemorySegment read(Arena arena, long position, long size) throws IOException;
+
+    /**
+     * Returns a future that completes once everything appended so far is durable. Appends of implementations that are
+     * synchronous are durable as soon as they return.
+     */
+    default CompletableFuture<Void> whenDurable() {
+        return completedFuture(null);
+    }
+
+    /**
+     * Returns the position that every record before it is durable; readers must not act on records after it. Appends
+     * of implementations that are synchronous are durable as soon as they are visible.
+     */
+    default long durable() {
+        return Long.MAX_VALUE;
+    }
+
+    Path source();
+}
@@ -0,0 +1,116 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.storage;
+
+import software.openex.oms.event.storage.FileTailerRemapEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+
+import static java.lang.Math.min;
+import static java.lang.foreign.Arena.ofShared;
+import static java.lang.foreign.MemorySegment.NULL;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.channels.FileChannel.open;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Read only memory mapped view of a {@link DurableFile} for sequential readers that follow its appends. Records are
+ * returned as slices of the mapping, so they can be decoded in place without any copy or system call; the file is
+ * remapped only when a requested record lies after the current mapping and the file has grown. Nothing after the
+ * durable position of the file is ever returned. This implementation is not thread safe, but it can be used by
+ * different threads one after another.
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class FileTailer implements Closeable {
+    private final DurableFile file;
+    private final FileChannel channel;
+    private Arena arena;
+    private MemorySegment mapping;
+
+    public FileTailer(final DurableFile file) throws IOException {
+        this.file = requireNonNull(file);
+        // The channel keeps referring to the same file even if atomic appends rename it.
+        this.channel = open(file.source(), READ);
+        this.arena = null;
+        this.mapping = NULL;
+    }
+
+    /**
+     * Returns size bytes at position as a slice of the mapping, or null if they are not completely durable yet. The
+     * returned slice is only valid until the next call.
+     */
+    public MemorySegment segment(final long position, final long size) throws IOException {
+        final var end = position + size;
+        if (end > mapping.byteSize()) {
+            final var bound = min(file.durable(), channel.size());
+            if (end > bound) {
+                return null;
+            }
+
+            remap(bound);
+        }
+
+        return mapping.asSlice(position, size);
+    }
+
+    /**
+     * @return the number of currently mapped bytes from beginning of the file
+     */
+    public long mapped() {
+        return mapping.byteSize();
+    }
+
+    private void remap(final long size) throws IOException {
+        final var event = new FileTailerRemapEvent();
+        event.begin();
+
+        final var newArena = ofShared();
+        try {
+            mapping = channel.map(READ_ONLY, 0, size, newArena);
+        } catch (IOException | RuntimeException ex) {
+            newArena.close();
+            throw ex;
+        }
+
+        if (arena != null) {
+            arena.close();
+        }
+
+        arena = newArena;
+
+        event.end();
+        event.commit();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (arena != null) {
+            arena.close();
+            arena = null;
+        }
+
+        mapping = NULL;
+        channel.close();
+    }
+}
@@ -18,7 +18,6 @@
 package software.openex.oms.storage;
 
 import java.io.IOException;
-import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
@@ -26,7 +25,8 @@ import java.nio.file.Path;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
- * Thread safe implementation of {@link AtomicFile}.
+ * Thread safe implementation of {@link AtomicFile}. Writers are serialized; readers take no lock and never block
+ * writers, since reads are bounded by the position that writers publish after each successful write.
  *
  * @author Alireza Pourtaghi
  */
@@ -105,21 +105,4 @@ public final class ThreadSafeAtomicFile extends AtomicFile {
             throw new RuntimeException(ex);
         }
     }
-
-    @Override
-    public MemorySegment read(final Arena arena, final long position, final long size) throws IOException {
-        try {
-            if (guard().tryAcquire(timeoutMillis, MILLISECONDS)) {
-                try {
-                    return super.read(arena, position, size);
-                } finally {
-                    guard().release();
-                }
-            } else {
-                throw new RuntimeException("read operation timed out!");
-            }
-        } catch (InterruptedException ex) {
-            throw new RuntimeException(ex);
-        }
-    }
 }
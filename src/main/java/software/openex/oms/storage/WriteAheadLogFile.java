@@ -0,0 +1,425 @@
+/*
+ * ISC License
+ *
+ * Copyright (c) 2025, Alireza Pourtaghi <lirezap@protonmail.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package software.openex.oms.storage;
+
+import org.slf4j.Logger;
+import software.openex.oms.binary.file.FileHeader;
+import software.openex.oms.binary.file.FileHeaderBinaryRepresentation;
+import software.openex.oms.binary.file.FrameHeader;
+import software.openex.oms.binary.file.FrameHeaderBinaryRepresentation;
+import software.openex.oms.event.storage.WriteAheadLogAppendEvent;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.lang.foreign.Arena.global;
+import static java.lang.foreign.Arena.ofConfined;
+import static java.lang.foreign.MemorySegment.copy;
+import static java.nio.ByteBuffer.allocateDirect;
+import static java.nio.channels.FileChannel.open;
+import static java.nio.file.Files.isDirectory;
+import static java.nio.file.StandardOpenOption.*;
+import static java.time.Duration.ZERO;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.Objects.requireNonNull;
+import static org.slf4j.LoggerFactory.getLogger;
+import static software.openex.oms.binary.BinaryRepresentable.RHS;
+import static software.openex.oms.binary.BinaryRepresentable.id;
+import static software.openex.oms.storage.DurabilityPolicy.Mode.*;
+
+/**
+ * Write-ahead log implementation of {@link DurableFile}. Unlike {@link AtomicFile}, it keeps one channel open and
+ * never renames the file: every append is written as one frame (a {@link FrameHeader} carrying length and CRC32C of
+ * appended records, followed by the records) and then forced to disk. On open, frames are scanned forward and the file
+ * is truncated right after the last frame whose checksum is valid, dropping any torn tail of a crash.
+ * <p>
+ * When frames are forced to disk is decided by a {@link DurabilityPolicy}; {@link #whenDurable()} tells appenders when
+ * their records have reached that durability level. Appends are serialized; reads can be done concurrently and only
+ * ever see completely written frames.
+ *
+ * @author Alireza Pourtaghi
+ */
+public final class WriteAheadLogFile implements DurableFile {
+    private static final Logger logger = getLogger(WriteAheadLogFile.class);
+    private static final int FRAME_HEADER_SIZE = RHS + new FrameHeader(0, 0).size();
+
+    private final Semaphore guard;
+    private final ReentrantLock forceLock;
+    private final Path source;
+    private final DurabilityPolicy policy;
+    private final ScheduledExecutorService scheduler;
+    private final Executor forcer;
+    private final FileHeaderBinaryRepresentation header;
+    private final FileChannel file;
+    private final ArrayDeque<Waiter> waiters;
+    private final ScheduledFuture<?> periodicForce;
+    // End of the last completely written frame; published to readers.
+    private volatile long position;
+    // End of the last frame that is forced to disk.
+    private volatile long durable;
+    // Appended frames that are not forced yet in group mode; guarded by guard.
+    private int pending;
+
+    public WriteAheadLogFile(final Path source) throws IOException {
+        this(source, new DurabilityPolicy(SYNC, 1, ZERO, ZERO), null);
+    }
+
+    /**
+     * @param scheduler runs delayed (group) and periodic (async) forces; not needed in sync mode
+     */
+    public WriteAheadLogFile(final Path source, final DurabilityPolicy policy,
+                             final ScheduledExecutorService scheduler) throws IOException {
+
+        this(source, policy, scheduler, scheduler);
+    }
+
+    /**
+     * @param scheduler times delayed (group) and periodic (async) forces; not needed in sync mode
+     * @param forcer    runs timed forces, so a slow force never delays other tasks of scheduler
+     */
+    public WriteAheadLogFile(final Path source, final DurabilityPolicy policy,
+                             final ScheduledExecutorService scheduler, final Executor forcer) throws IOException {
+
+        requireNonNull(source);
+        if (isDirectory(source)) {
+            throw new RuntimeException("provided path does not represent a file!");
+        }
+
+        if (policy.getMode() != SYNC) {
+            requireNonNull(scheduler);
+            requireNonNull(forcer);
+        }
+
+        this.guard = new Semaphore(1);
+        this.forceLock = new ReentrantLock();
+        this.source = source;
+        this.policy = requireNonNull(policy);
+        this.scheduler = scheduler;
+        this.forcer = forcer;
+        this.header = new FileHeaderBinaryRepresentation(global(), new FileHeader(0));
+        header.encodeV1();
+
+        this.file = open(this.source, CREATE, READ, WRITE);
+        this.position = recover(this.file);
+        this.durable = this.position;
+        this.waiters = new ArrayDeque<>();
+        this.pending = 0;
+
+        final var interval = policy.getForceInterval().toNanos();
+        this.periodicForce = policy.getMode() == ASYNC ?
+                scheduler.scheduleWithFixedDelay(() -> forcer.execute(this::force), interval, interval, NANOSECONDS) :
+                null;
+    }
+
+    @Override
+    public void append(final MemorySegment segment) {
+        final var event = new WriteAheadLogAppendEvent();
+        event.begin();
+
+        var forceNow = false;
+        guard.acquireUninterruptibly();
+        try (final var arena = ofConfined()) {
+            final var length = toIntExact(segment.byteSize());
+            final var checksum = new CRC32C();
+            checksum.update(segment.asByteBuffer());
+
+            final var frameHeader = new FrameHeaderBinaryRepresentation(arena,
+                    new FrameHeader(length, (int) checksum.getValue()));
+            frameHeader.encodeV1();
+
+            // Header and records are written with one call.
+            final var frame = arena.allocate(FRAME_HEADER_SIZE + length);
+            copy(frameHeader.segment(), 0, frame, 0, FRAME_HEADER_SIZE);
+            copy(segment, 0, frame, FRAME_HEADER_SIZE, length);
+
+            final var buffer = frame.asByteBuffer();
+            var localPosition = position;
+            while (buffer.hasRemaining()) {
+                localPosition += file.write(buffer, localPosition);
+            }
+
+            if (policy.getMode() == SYNC) {
+                file.force(false);
+                durable = localPosition;
+            }
+
+            // A failed append leaves position untouched, so the next append overwrites its partial bytes.
+            position = localPosition;
+
+            if (policy.getMode() == GROUP) {
+                if (++pending >= policy.getGroupRecords()) {
+                    pending = 0;
+                    forceNow = true;
+                } else if (pending == 1) {
+                    scheduler.schedule(() -> forcer.execute(this::forceGroup), policy.getGroupDelay().toNanos(),
+                            NANOSECONDS);
+                }
+            }
+        } catch (IOException ex) {
+            logger.error("append failed: {}!", ex.getMessage(), ex);
+            throw new RuntimeException(ex);
+        } finally {
+            guard.release();
+
+            event.end();
+            event.commit();
+        }
+
+        if (forceNow) {
+            // Forced after releasing guard, so completing waiters never blocks other appends.
+            force();
+        }
+    }
+
+    /**
+     * Reads at most size bytes at position; bytes after the last completely written frame are returned as zeros.
+     */
+    @Override
+    public MemorySegment read(final Arena arena, final long position, final long size) throws IOException {
+        final var segment = arena.allocate(size);
+        final var readable = min(size, max(0, this.position - position));
+        if (readable > 0) {
+            readFully(segment.asSlice(0, readable).asByteBuffer(), position);
+        }
+
+        return segment;
+    }
+
+    /**
+     * Returns a future that completes once everything appended so far is durable according to policy; in async mode
+     * it is already completed since appended records are acknowledged before they are forced.
+     */
+    @Override
+    public CompletableFuture<Void> whenDurable() {
+        final var target = position;
+        if (policy.getMode() == ASYNC || target <= durable) {
+            return completedFuture(null);
+        }
+
+        final var future = new CompletableFuture<Void>();
+        synchronized (waiters) {
+            waiters.add(new Waiter(target, future));
+        }
+
+        // A force may have been finished before waiter was added.
+        complete(durable, null);
+        return future;
+    }
+
+    @Override
+    public Path source() {
+        return source;
+    }
+
+    /**
+     * @return the end of the last completely written frame
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * @return the end of the last frame that is forced to disk
+     */
+    @Override
+    public long durable() {
+        return durable;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (periodicForce != null) {
+            periodicForce.cancel(false);
+        }
+
+        force();
+        complete(Long.MAX_VALUE, new IOException("file closed!"));
+        file.close();
+    }
+
+    private void forceGroup() {
+        guard.acquireUninterruptibly();
+        try {
+            pending = 0;
+        } finally {
+            guard.release();
+        }
+
+        force();
+    }
+
+    private void force() {
+        IOException failure = null;
+        forceLock.lock();
+        try {
+            if (!file.isOpen()) {
+                // A delayed force that fired after close.
+                return;
+            }
+
+            final var target = position;
+            if (target > durable) {
+                file.force(false);
+                durable = target;
+            }
+        } catch (IOException ex) {
+            logger.error("force failed: {}!", ex.getMessage(), ex);
+            failure = ex;
+        } finally {
+            forceLock.unlock();
+        }
+
+        // Waiters are completed after releasing force lock.
+        if (failure == null) {
+            complete(durable, null);
+        } else {
+            complete(Long.MAX_VALUE, failure);
+        }
+    }
+
+    private void complete(final long position, final Exception exception) {
+        final var ready = new ArrayList<Waiter>();
+        synchronized (waiters) {
+            while (!waiters.isEmpty() && waiters.peek().position <= position) {
+                ready.add(waiters.poll());
+            }
+        }
+
+        // Completed without holding the lock; dependents of futures may run on this thread.
+        for (final var waiter : ready) {
+            if (exception == null) {
+                waiter.future.complete(null);
+            } else {
+                waiter.future.completeExceptionally(exception);
+            }
+        }
+    }
+
+    private long recover(final FileChannel file) throws IOException {
+        try (final var lock = file.lock();
+             final var arena = ofConfined()) {
+
+            final var headerSize = header.representationSize();
+            if (file.size() == 0) {
+                header.incrementDurabilitySize(headerSize);
+                var _ = file.write(header.buffer(), 0);
+                file.force(true);
+
+                return headerSize;
+            }
+
+            file.read(header.buffer(), 0);
+
+            final var size = file.size();
+            final var frameHeaderSegment = arena.allocate(FRAME_HEADER_SIZE);
+            final var chunk = allocateDirect(64 * 1024);
+            final var checksum = new CRC32C();
+            var validPosition = headerSize;
+
+            while (validPosition + FRAME_HEADER_SIZE <= size) {
+                frameHeaderSegment.fill((byte) 0);
+                readFully(frameHeaderSegment.asByteBuffer(), validPosition);
+                final var id = id(frameHeaderSegment);
+                if (id != 2) {
+                    if (validPosition == headerSize && id > 100) {
+                        throw new RuntimeException("file is not a write-ahead log: " + source);
+                    }
+
+                    break;
+                }
+
+                final var frameHeader = FrameHeaderBinaryRepresentation.decode(frameHeaderSegment);
+                final var end = validPosition + FRAME_HEADER_SIZE + frameHeader.getLength();
+                if (frameHeader.getLength() < 0 || end > size) {
+                    break;
+                }
+
+                checksum.reset();
+                var at = validPosition + FRAME_HEADER_SIZE;
+                while (at < end) {
+                    chunk.clear().limit((int) min(chunk.capacity(), end - at));
+                    readFully(chunk, at);
+                    at += chunk.flip().remaining();
+                    checksum.update(chunk);
+                }
+
+                if ((int) checksum.getValue() != frameHeader.getChecksum()) {
+                    break;
+                }
+
+                validPosition = end;
+            }
+
+            if (validPosition < size) {
+                logger.warn("truncating {} bytes of torn tail of {}", size - validPosition, source);
+                file.truncate(validPosition);
+                file.force(true);
+            }
+
+            return validPosition;
+        } catch (IOException | RuntimeException ex) {
+            logger.error("could not recover file: {}!", ex.getMessage(), ex);
+            file.close();
+            throw ex;
+        }
+    }
+
+    private void readFully(final ByteBuffer buffer, final long position) throws IOException {
+        var localPosition = position;
+        while (buffer.hasRemaining()) {
+            final var bytesRead = file.read(buffer, localPosition);
+            if (bytesRead < 0) {
+                break;
+            }
+
+            localPosition += bytesRead;
+        }
+    }
+
+    /**
+     * An appender that waits for its records to become durable.
+     *
+     * @author Alireza Pourtaghi
+     */
+    private static final class Waiter {
+        private final long position;
+        private final CompletableFuture<Void> future;
+
+        private Waiter(final long position, final CompletableFuture<Void> future) {
+            this.position = position;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+-- order message quantities as numbers; remaining can be changed atomically by arithmetic.
+ALTER TABLE order_message
+    ALTER COLUMN quantity  TYPE NUMERIC USING quantity::NUMERIC,
+    ALTER COLUMN price     TYPE NUMERIC USING price::NUMERIC,
+    ALTER COLUMN remaining TYPE NUMERIC USING remaining::NUMERIC;
+
+CREATE INDEX order_message_symbol_price ON order_message (symbol, price);
+
+-- trade quantities as numbers.
+ALTER TABLE trade
+    ALTER COLUMN quantity   TYPE NUMERIC USING quantity::NUMERIC,
+    ALTER COLUMN buy_price  TYPE NUMERIC USING buy_price::NUMERIC,
+    ALTER COLUMN sell_price TYPE NUMERIC USING sell_price::NUMERIC;
@@ -0,0 +1,8 @@
+-- sync position table definition; next position of each symbol's events file to sync, committed together with synced
+-- rows, so that a batch of events is never synced twice.
+CREATE TABLE sync_position (
+    symbol   VARCHAR(16) NOT NULL,
+    position BIGINT NOT NULL,
+
+    PRIMARY KEY (symbol)
+);
@@ -4,6 +4,8 @@ import org.junit.jupiter.api.Test;
 import software.openex.oms.binary.base.ErrorMessage;
 import software.openex.oms.binary.base.ErrorMessageBinaryRepresentation;
 
+import java.lang.foreign.Arena;
+
 import static java.util.List.of;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -24,6 +26,17 @@ public class BinaryRepresentableTest {
         }
     }
 
+    @Test
+    public void testCorrelationId() {
+        try (var arena = Arena.ofConfined()) {
+            var segment = arena.allocate(BinaryRepresentable.RHS2);
+            segment.set(BinaryRepresentable.BYTE, 0, BinaryRepresentable.VR2);
+            segment.set(BinaryRepresentable.LONG, BinaryRepresentable.RHS, 123456789L);
+            assertEquals(2, BinaryRepresentable.version(segment));
+            assertEquals(123456789L, BinaryRepresentable.correlationId(segment));
+        }
+    }
+
     @Test
     public void testStringSize() {
         assertEquals(12, BinaryRepresentable.representationSize("Testing"));
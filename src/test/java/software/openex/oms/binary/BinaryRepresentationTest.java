@@ -3,13 +3,12 @@ package software.openex.oms.binary;
 import org.junit.jupiter.api.Test;
 import software.openex.oms.binary.base.ErrorMessage;
 import software.openex.oms.binary.base.ErrorMessageBinaryRepresentation;
+import software.openex.oms.binary.batch.Batch;
+import software.openex.oms.binary.batch.BatchBinaryRepresentation;
 import software.openex.oms.binary.file.FileHeader;
 import software.openex.oms.binary.file.FileHeaderBinaryRepresentation;
 import software.openex.oms.binary.order.*;
-import software.openex.oms.binary.order.book.FetchOrderBook;
-import software.openex.oms.binary.order.book.FetchOrderBookBinaryRepresentation;
-import software.openex.oms.binary.order.book.OrderBook;
-import software.openex.oms.binary.order.book.OrderBookBinaryRepresentation;
+import software.openex.oms.binary.order.book.*;
 import software.openex.oms.binary.order.record.FetchOrderRecord;
 import software.openex.oms.binary.order.record.FetchOrderRecordBinaryRepresentation;
 import software.openex.oms.binary.order.record.OrderRecord;
@@ -21,7 +20,7 @@ import java.math.BigDecimal;
 
 import static java.lang.System.currentTimeMillis;
 import static java.util.List.of;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * @author Alireza Pourtaghi
@@ -199,6 +198,126 @@ public class BinaryRepresentationTest {
             var decoded = FetchOrderBookBinaryRepresentation.decode(binaryRepresentation.segment());
             assertEquals(fetchOrderBook.getSymbol(), decoded.getSymbol());
             assertEquals(fetchOrderBook.getFetchSize(), decoded.getFetchSize());
+            assertEquals(0, decoded.getDepth());
+        }
+    }
+
+    @Test
+    public void testFetchOrderBookWithDepth() {
+        var fetchOrderBook = new FetchOrderBook("BTC/USDT", 100, 10);
+        try (var binaryRepresentation = new FetchOrderBookBinaryRepresentation(fetchOrderBook)) {
+            binaryRepresentation.encodeV1();
+
+            assertEquals(105, BinaryRepresentable.id(binaryRepresentation.segment()));
+            assertEquals(21, binaryRepresentation.size());
+            assertEquals(31, binaryRepresentation.representationSize());
+
+            var decoded = FetchOrderBookBinaryRepresentation.decode(binaryRepresentation.segment());
+            assertEquals(fetchOrderBook.getSymbol(), decoded.getSymbol());
+            assertEquals(fetchOrderBook.getFetchSize(), decoded.getFetchSize());
+            assertEquals(fetchOrderBook.getDepth(), decoded.getDepth());
+        }
+    }
+
+    @Test
+    public void testFetchOrderBookDepth() {
+        var fetchOrderBookDepth = new FetchOrderBookDepth("BTC/USDT", 10);
+        try (var binaryRepresentation = new FetchOrderBookDepthBinaryRepresentation(fetchOrderBookDepth)) {
+            binaryRepresentation.encodeV1();
+
+            assertEquals(121, BinaryRepresentable.id(binaryRepresentation.segment()));
+            assertEquals(17, binaryRepresentation.size());
+            assertEquals(27, binaryRepresentation.representationSize());
+
+            var segment = binaryRepresentation.segment();
+            assertTrue(FetchOrderBookDepthBinaryRepresentation.isValid(segment, 10));
+            assertFalse(FetchOrderBookDepthBinaryRepresentation.isValid(segment, 9));
+            assertFalse(FetchOrderBookDepthBinaryRepresentation.isValid(segment.asSlice(0, segment.byteSize() - 1), 10));
+
+            var decoded = FetchOrderBookDepthBinaryRepresentation.decode(binaryRepresentation.segment());
+            assertEquals(fetchOrderBookDepth.getSymbol(), decoded.getSymbol());
+            assertEquals(fetchOrderBookDepth.getDepth(), decoded.getDepth());
+        }
+    }
+
+    @Test
+    public void testOrderBookDepth() {
+        var dl1 = new DepthLevel("101", "1.5", 2);
+        var dl2 = new DepthLevel("100", "2.5", 1);
+        var dl3 = new DepthLevel("102", "3.5", 3);
+
+        try (var dl1br = new DepthLevelBinaryRepresentation(dl1);
+             var dl2br = new DepthLevelBinaryRepresentation(dl2);
+             var dl3br = new DepthLevelBinaryRepresentation(dl3)) {
+
+            dl1br.encodeV1();
+            dl2br.encodeV1();
+            dl3br.encodeV1();
+            assertEquals(123, BinaryRepresentable.id(dl1br.segment()));
+            assertEquals(20, dl1br.size());
+
+            var orderBookDepth = new OrderBookDepth(of(dl1br, dl2br), of(dl3br));
+            try (var binaryRepresentation = new OrderBookDepthBinaryRepresentation(orderBookDepth)) {
+                binaryRepresentation.encodeV1();
+
+                assertEquals(122, BinaryRepresentable.id(binaryRepresentation.segment()));
+                assertEquals(98, binaryRepresentation.size());
+                assertEquals(108, binaryRepresentation.representationSize());
+
+                var bids = OrderBookDepthBinaryRepresentation.bids(binaryRepresentation.segment());
+                var asks = OrderBookDepthBinaryRepresentation.asks(binaryRepresentation.segment());
+
+                assertEquals(2, bids.size());
+                assertEquals(1, asks.size());
+
+                assertEquality(dl1, bids.get(0));
+                assertEquality(dl2, bids.get(1));
+                assertEquality(dl3, asks.get(0));
+            }
+        }
+    }
+
+    @Test
+    public void testFetchBestBidOffer() {
+        var fetchBestBidOffer = new FetchBestBidOffer("BTC/USDT");
+        try (var binaryRepresentation = new FetchBestBidOfferBinaryRepresentation(fetchBestBidOffer)) {
+            binaryRepresentation.encodeV1();
+
+            assertEquals(124, BinaryRepresentable.id(binaryRepresentation.segment()));
+            assertEquals(13, binaryRepresentation.size());
+            assertEquals(23, binaryRepresentation.representationSize());
+
+            var segment = binaryRepresentation.segment();
+            assertTrue(FetchBestBidOfferBinaryRepresentation.isValid(segment));
+            assertFalse(FetchBestBidOfferBinaryRepresentation.isValid(segment.asSlice(0, segment.byteSize() - 1)));
+
+            var decoded = FetchBestBidOfferBinaryRepresentation.decode(binaryRepresentation.segment());
+            assertEquals(fetchBestBidOffer.getSymbol(), decoded.getSymbol());
+        }
+    }
+
+    @Test
+    public void testBestBidOffer() {
+        var bestBidOffer = new BestBidOffer(1, "BTC/USDT", "100", "1.5", "101", "2.5", "0.5", "101", "100",
+                currentTimeMillis());
+        try (var binaryRepresentation = new BestBidOfferBinaryRepresentation(bestBidOffer)) {
+            binaryRepresentation.encodeV1();
+
+            assertEquals(125, BinaryRepresentable.id(binaryRepresentation.segment()));
+            assertEquals(85, binaryRepresentation.size());
+            assertEquals(95, binaryRepresentation.representationSize());
+
+            var decoded = BestBidOfferBinaryRepresentation.decode(binaryRepresentation.segment());
+            assertEquals(bestBidOffer.getSequence(), decoded.getSequence());
+            assertEquals(bestBidOffer.getSymbol(), decoded.getSymbol());
+            assertEquals(bestBidOffer.getBidPrice(), decoded.getBidPrice());
+            assertEquals(bestBidOffer.getBidQuantity(), decoded.getBidQuantity());
+            assertEquals(bestBidOffer.getAskPrice(), decoded.getAskPrice());
+            assertEquals(bestBidOffer.getAskQuantity(), decoded.getAskQuantity());
+            assertEquals(bestBidOffer.getLastTradeQuantity(), decoded.getLastTradeQuantity());
+            assertEquals(bestBidOffer.getLastTradeBuyPrice(), decoded.getLastTradeBuyPrice());
+            assertEquals(bestBidOffer.getLastTradeSellPrice(), decoded.getLastTradeSellPrice());
+            assertEquals(bestBidOffer.getTs(), decoded.getTs());
         }
     }
 
@@ -547,6 +666,36 @@ public class BinaryRepresentationTest {
         }
     }
 
+    @Test
+    public void testBatch() {
+        var order = new BuyLimitOrder(1, currentTimeMillis(), "BTC/USDT", "1", "100000");
+        var message = new ErrorMessage("code", "message");
+        try (var orderBinaryRepresentation = new LimitOrderBinaryRepresentation(order);
+             var messageBinaryRepresentation = new ErrorMessageBinaryRepresentation(message)) {
+
+            orderBinaryRepresentation.encodeV1();
+            messageBinaryRepresentation.encodeV1();
+            var batch = new Batch(of(orderBinaryRepresentation.segment(), messageBinaryRepresentation.segment()));
+            try (var binaryRepresentation = new BatchBinaryRepresentation(batch)) {
+                binaryRepresentation.encodeV1();
+
+                assertEquals(126, BinaryRepresentable.id(binaryRepresentation.segment()));
+                assertEquals(91, binaryRepresentation.size());
+                assertEquals(101, binaryRepresentation.representationSize());
+
+                var segment = binaryRepresentation.segment();
+                assertTrue(BatchBinaryRepresentation.isValid(segment, 2));
+                assertFalse(BatchBinaryRepresentation.isValid(segment, 1));
+                assertFalse(BatchBinaryRepresentation.isValid(segment.asSlice(0, segment.byteSize() - 1), 2));
+
+                var messages = BatchBinaryRepresentation.messages(binaryRepresentation.segment());
+                assertEquals(2, messages.size());
+                assertEquals(order, BuyLimitOrder.decode(messages.get(0)));
+                assertEquals(message.getCode(), ErrorMessageBinaryRepresentation.decode(messages.get(1)).getCode());
+            }
+        }
+    }
+
     private void assertEquality(OrderRecord expected, OrderRecord actual) {
         assertEquals(expected.getId(), actual.getId());
         assertEquals(expected.getSymbol(), actual.getSymbol());
@@ -559,4 +708,10 @@ public class BinaryRepresentationTest {
         assertEquals(expected.getMetadata(), actual.getMetadata());
         assertEquals(expected.getTs(), actual.getTs());
     }
+
+    private void assertEquality(DepthLevel expected, DepthLevel actual) {
+        assertEquals(expected.getPrice(), actual.getPrice());
+        assertEquals(expected.getQuantity(), actual.getQuantity());
+        assertEquals(expected.getCount(), actual.getCount());
+    }
 }
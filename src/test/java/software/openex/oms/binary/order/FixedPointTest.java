@@ -0,0 +1,51 @@
+package software.openex.oms.binary.order;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static java.math.BigDecimal.ZERO;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public class FixedPointTest {
+
+    @Test
+    public void testToPlainString() {
+        assertEquals("0", FixedPoint.toPlainString(0, 8));
+        assertEquals("1", FixedPoint.toPlainString(100000000, 8));
+        assertEquals("1.25", FixedPoint.toPlainString(125000000, 8));
+        assertEquals("0.00000001", FixedPoint.toPlainString(1, 8));
+        assertEquals("-0.5", FixedPoint.toPlainString(-50, 2));
+        assertEquals("100000", FixedPoint.toPlainString(100000, 0));
+    }
+
+    @Test
+    public void testToUnits() {
+        assertEquals(125000000, FixedPoint.toUnits(new BigDecimal("1.25"), 8));
+        assertEquals(1, FixedPoint.toUnits(new BigDecimal("0.010"), 2));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.toUnits(new BigDecimal("0.001"), 2));
+    }
+
+    @Test
+    public void testScaledOrders() {
+        var blo = new BuyLimitOrder(1, 1, "BTC|USDT", "2.5", "100000.01");
+        var slo = new SellLimitOrder(2, 2, "BTC|USDT", "1.25", "100000");
+        blo.scale(2, 8);
+        slo.scale(2, 8);
+
+        assertTrue(blo.comparePrice(slo) > 0);
+        assertTrue(blo.compareRemaining(slo) > 0);
+        assertEquals("1.25", blo.remainingAfter(slo));
+
+        blo.reduceRemaining(slo);
+        slo.clearRemaining();
+
+        assertEquals(0, new BigDecimal("1.25").compareTo(blo.get_remaining()));
+        assertEquals(0, ZERO.compareTo(slo.get_remaining()));
+        assertFalse(slo.hasRemaining());
+        assertThrows(ArithmeticException.class, () -> new BuyLimitOrder(3, 3, "BTC|USDT", "1", "0.001").scale(2, 8));
+    }
+}
@@ -0,0 +1,67 @@
+package software.openex.oms.binary.order;
+
+import org.junit.jupiter.api.Test;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+import static software.openex.oms.binary.BinaryRepresentable.INT;
+import static software.openex.oms.binary.BinaryRepresentable.RHS;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public class OrderFlyweightTest {
+
+    @Test
+    public void testLimitOrder() {
+        var order = new BuyLimitOrder(1, 2, "BTC/USDT", "0.5", "100000.25");
+        try (var binaryRepresentation = new LimitOrderBinaryRepresentation(order)) {
+            binaryRepresentation.encodeV1();
+
+            var view = new OrderFlyweight();
+            assertTrue(view.wrap(binaryRepresentation.segment()));
+            assertEquals(1, view.id());
+            assertEquals(8, view.symbolLength());
+            assertEquals("BTC/USDT", new String(view.segment()
+                    .asSlice(view.symbolOffset(), view.symbolLength()).toArray(JAVA_BYTE), UTF_8));
+            assertEquals(order, BuyLimitOrder.decode(binaryRepresentation.segment()));
+        }
+    }
+
+    @Test
+    public void testCancelOrder() {
+        var order = new CancelOrder(1, 2, "BTC/USDT", "0");
+        try (var binaryRepresentation = new OrderBinaryRepresentation(order)) {
+            binaryRepresentation.encodeV1();
+
+            var view = new OrderFlyweight();
+            // Zero quantity cancels all remaining quantity.
+            assertTrue(view.wrap(binaryRepresentation.segment()));
+            assertEquals(1, view.id());
+        }
+    }
+
+    @Test
+    public void testInvalidMessages() {
+        var view = new OrderFlyweight();
+        try (var zeroQuantity = new OrderBinaryRepresentation(new BuyMarketOrder(1, 2, "BTC/USDT", "0.000"));
+             var notPlain = new LimitOrderBinaryRepresentation(new SellLimitOrder(1, 2, "BTC/USDT", "1E3", "1"));
+             var valid = new LimitOrderBinaryRepresentation(new SellLimitOrder(1, 2, "BTC/USDT", "1", "1"))) {
+
+            zeroQuantity.encodeV1();
+            notPlain.encodeV1();
+            valid.encodeV1();
+            assertFalse(view.wrap(zeroQuantity.segment()));
+            assertFalse(view.wrap(notPlain.segment()));
+
+            // Truncated message.
+            var segment = valid.segment();
+            assertFalse(view.wrap(segment.asSlice(0, segment.byteSize() - 1)));
+
+            // String size out of message.
+            segment.set(INT, RHS + 16, 1000);
+            assertFalse(view.wrap(segment));
+        }
+    }
+}
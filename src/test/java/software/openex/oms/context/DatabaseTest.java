@@ -8,9 +8,13 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import software.openex.oms.binary.order.*;
 import software.openex.oms.binary.trade.Trade;
 
+import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 import static java.lang.System.currentTimeMillis;
+import static java.math.BigDecimal.ZERO;
 import static java.util.List.of;
 import static org.junit.jupiter.api.Assertions.*;
 import static software.openex.oms.context.AppContext.contextTest;
@@ -32,10 +36,10 @@ public class DatabaseTest {
     public void testInsertLimitOrder() {
         var now = currentTimeMillis();
         var buyLimitOrder = new BuyLimitOrder(1, now, "BTC|USDT", "1", "100000");
-        assertTrue(context.dataBase().insertLimitOrder(buyLimitOrder, BUY));
+        assertEquals(1, insertOrder(buyLimitOrder));
 
         var sellLimitOrder = new SellLimitOrder(2, now, "BTC|USDT", "1", "100000");
-        assertTrue(context.dataBase().insertLimitOrder(sellLimitOrder, SELL));
+        assertEquals(1, insertOrder(sellLimitOrder));
 
         var recordFetched = context.dataBase().fetchOrderMessage(1, "BTC|USDT");
         assertNotNull(recordFetched);
@@ -43,9 +47,9 @@ public class DatabaseTest {
         assertEquals("BTC|USDT", recordFetched.component2());
         assertEquals(BUY, recordFetched.component3());
         assertEquals(LIMIT, recordFetched.component4());
-        assertEquals("1", recordFetched.component5());
-        assertEquals("100000", recordFetched.component6());
-        assertEquals("1", recordFetched.component7());
+        assertEquals(new BigDecimal("1"), recordFetched.component5());
+        assertEquals(new BigDecimal("100000"), recordFetched.component6());
+        assertEquals(new BigDecimal("1"), recordFetched.component7());
         assertEquals(ACTIVE, recordFetched.component8());
         assertNull(recordFetched.component9());
         assertEquals(now, recordFetched.component10().toEpochMilli());
@@ -59,10 +63,10 @@ public class DatabaseTest {
     public void testInsertMarketOrder() {
         var now = currentTimeMillis();
         var buyMarketOrder = new BuyMarketOrder(3, now, "BTC|USDT", "1");
-        assertTrue(context.dataBase().insertMarketOrder(buyMarketOrder, BUY));
+        assertEquals(1, insertOrder(buyMarketOrder));
 
         var sellMarketOrder = new SellMarketOrder(4, now, "BTC|USDT", "1");
-        assertTrue(context.dataBase().insertMarketOrder(sellMarketOrder, SELL));
+        assertEquals(1, insertOrder(sellMarketOrder));
 
         var recordFetched = context.dataBase().fetchOrderMessage(3, "BTC|USDT");
         assertNotNull(recordFetched);
@@ -70,9 +74,9 @@ public class DatabaseTest {
         assertEquals("BTC|USDT", recordFetched.component2());
         assertEquals(BUY, recordFetched.component3());
         assertEquals(MARKET, recordFetched.component4());
-        assertEquals("1", recordFetched.component5());
+        assertEquals(new BigDecimal("1"), recordFetched.component5());
         assertNull(recordFetched.component6());
-        assertEquals("1", recordFetched.component7());
+        assertEquals(new BigDecimal("1"), recordFetched.component7());
         assertEquals(ACTIVE, recordFetched.component8());
         assertNull(recordFetched.component9());
         assertEquals(now, recordFetched.component10().toEpochMilli());
@@ -86,10 +90,10 @@ public class DatabaseTest {
     public void testInsertIOCLimitOrder() {
         var now = currentTimeMillis();
         var iocBuyLimitOrder = new IOCBuyLimitOrder(5, now, "BTC|USDT", "1", "100000");
-        assertTrue(context.dataBase().insertIOCLimitOrder(iocBuyLimitOrder, BUY));
+        assertEquals(1, insertOrder(iocBuyLimitOrder));
 
         var iocSellLimitOrder = new IOCSellLimitOrder(6, now, "BTC|USDT", "1", "100000");
-        assertTrue(context.dataBase().insertLimitOrder(iocSellLimitOrder, SELL));
+        assertEquals(1, insertOrder(iocSellLimitOrder));
 
         var recordFetched = context.dataBase().fetchOrderMessage(5, "BTC|USDT");
         assertNotNull(recordFetched);
@@ -97,9 +101,9 @@ public class DatabaseTest {
         assertEquals("BTC|USDT", recordFetched.component2());
         assertEquals(BUY, recordFetched.component3());
         assertEquals(LIMIT, recordFetched.component4());
-        assertEquals("1", recordFetched.component5());
-        assertEquals("100000", recordFetched.component6());
-        assertEquals("1", recordFetched.component7());
+        assertEquals(new BigDecimal("1"), recordFetched.component5());
+        assertEquals(new BigDecimal("100000"), recordFetched.component6());
+        assertEquals(new BigDecimal("1"), recordFetched.component7());
         assertEquals(ACTIVE, recordFetched.component8());
         assertEquals("tif:ioc;aon:false", recordFetched.component9());
         assertEquals(now, recordFetched.component10().toEpochMilli());
@@ -113,10 +117,10 @@ public class DatabaseTest {
     public void testInsertFOKLimitOrder() {
         var now = currentTimeMillis();
         var fokBuyLimitOrder = new FOKBuyLimitOrder(7, now, "BTC|USDT", "1", "100000");
-        assertTrue(context.dataBase().insertFOKLimitOrder(fokBuyLimitOrder, BUY));
+        assertEquals(1, insertOrder(fokBuyLimitOrder));
 
         var fokSellLimitOrder = new FOKSellLimitOrder(8, now, "BTC|USDT", "1", "100000");
-        assertTrue(context.dataBase().insertFOKLimitOrder(fokSellLimitOrder, SELL));
+        assertEquals(1, insertOrder(fokSellLimitOrder));
 
         var recordFetched = context.dataBase().fetchOrderMessage(7, "BTC|USDT");
         assertNotNull(recordFetched);
@@ -124,9 +128,9 @@ public class DatabaseTest {
         assertEquals("BTC|USDT", recordFetched.component2());
         assertEquals(BUY, recordFetched.component3());
         assertEquals(LIMIT, recordFetched.component4());
-        assertEquals("1", recordFetched.component5());
-        assertEquals("100000", recordFetched.component6());
-        assertEquals("1", recordFetched.component7());
+        assertEquals(new BigDecimal("1"), recordFetched.component5());
+        assertEquals(new BigDecimal("100000"), recordFetched.component6());
+        assertEquals(new BigDecimal("1"), recordFetched.component7());
         assertEquals(ACTIVE, recordFetched.component8());
         assertEquals("tif:ioc;aon:true", recordFetched.component9());
         assertEquals(now, recordFetched.component10().toEpochMilli());
@@ -140,10 +144,10 @@ public class DatabaseTest {
     public void testInsertFOKMarketOrder() {
         var now = currentTimeMillis();
         var fokBuyMarketOrder = new FOKBuyMarketOrder(9, now, "BTC|USDT", "1");
-        assertTrue(context.dataBase().insertFOKMarketOrder(fokBuyMarketOrder, BUY));
+        assertEquals(1, insertOrder(fokBuyMarketOrder));
 
         var fokSellMarketOrder = new FOKSellMarketOrder(10, now, "BTC|USDT", "1");
-        assertTrue(context.dataBase().insertFOKMarketOrder(fokSellMarketOrder, SELL));
+        assertEquals(1, insertOrder(fokSellMarketOrder));
 
         var recordFetched = context.dataBase().fetchOrderMessage(9, "BTC|USDT");
         assertNotNull(recordFetched);
@@ -151,9 +155,9 @@ public class DatabaseTest {
         assertEquals("BTC|USDT", recordFetched.component2());
         assertEquals(BUY, recordFetched.component3());
         assertEquals(MARKET, recordFetched.component4());
-        assertEquals("1", recordFetched.component5());
+        assertEquals(new BigDecimal("1"), recordFetched.component5());
         assertNull(recordFetched.component6());
-        assertEquals("1", recordFetched.component7());
+        assertEquals(new BigDecimal("1"), recordFetched.component7());
         assertEquals(ACTIVE, recordFetched.component8());
         assertEquals("aon:true", recordFetched.component9());
         assertEquals(now, recordFetched.component10().toEpochMilli());
@@ -165,24 +169,137 @@ public class DatabaseTest {
 
     @Test
     public void testOrderMessageAlreadyExists() {
-        context.dataBase().insertLimitOrder(new BuyLimitOrder(11, currentTimeMillis(), "BTC|USDT", "1", "100000"), BUY);
+        insertOrder(new BuyLimitOrder(11, currentTimeMillis(), "BTC|USDT", "1", "100000"));
 
         var buyLimitOrder = new BuyLimitOrder(11, currentTimeMillis(), "BTC|USDT", "1", "100000");
-        assertThrows(DataAccessException.class, () -> context.dataBase().insertLimitOrder(buyLimitOrder, BUY));
+        assertThrows(DataAccessException.class, () -> insertOrder(buyLimitOrder));
     }
 
     @Test
-    public void testInsertTrade() {
-        var trade = new Trade(1, 2, "BTC/USDT", "1", "100000", "100000", "bor:0;sor:0", currentTimeMillis());
-        context.dataBase().insertTrade(context.dataBase().postgresql(), trade);
-        assertTrue(tradeExistsAndIsMatched(trade));
+    public void testInsertTrades() {
+        var trade1 = new Trade(101, 102, "ETH/USDT", "1", "100000", "100000", "bor:0;sor:0", currentTimeMillis());
+        var trade2 = new Trade(103, 104, "ETH/USDT", "2", "100001", "100001", "bor:1;sor:0", currentTimeMillis());
+        assertEquals(2, context.dataBase().insertTrades(context.dataBase().postgresql(), of(trade1, trade2)));
+        assertTrue(tradeExistsAndIsMatched(trade1));
+        assertTrue(tradeExistsAndIsMatched(trade2));
+        assertEquals(0, context.dataBase().insertTrades(context.dataBase().postgresql(), of()));
+    }
+
+    @Test
+    public void testInsertOrders() {
+        var buyLimitOrder = new BuyLimitOrder(50, currentTimeMillis(), "BTC|USDT", "1", "100000");
+        var iocSellLimitOrder = new IOCSellLimitOrder(51, currentTimeMillis(), "BTC|USDT", "1", "100000");
+        var fokBuyMarketOrder = new FOKBuyMarketOrder(52, currentTimeMillis(), "BTC|USDT", "1");
+        var orders = List.<Order>of(buyLimitOrder, iocSellLimitOrder, fokBuyMarketOrder);
+        assertEquals(3, context.dataBase().insertOrders(context.dataBase().postgresql(), orders));
+
+        var recordFetched = context.dataBase().fetchOrderMessage(50, "BTC|USDT");
+        assertEquals(BUY, recordFetched.component3());
+        assertEquals(LIMIT, recordFetched.component4());
+        assertEquals(new BigDecimal("100000"), recordFetched.component6());
+        assertEquals(new BigDecimal("1"), recordFetched.component7());
+        assertNull(recordFetched.component9());
+
+        recordFetched = context.dataBase().fetchOrderMessage(51, "BTC|USDT");
+        assertEquals(SELL, recordFetched.component3());
+        assertEquals("tif:ioc;aon:false", recordFetched.component9());
+
+        recordFetched = context.dataBase().fetchOrderMessage(52, "BTC|USDT");
+        assertEquals(BUY, recordFetched.component3());
+        assertEquals(MARKET, recordFetched.component4());
+        assertNull(recordFetched.component6());
+        assertEquals("aon:true", recordFetched.component9());
+
+        // A reused id is a real collision; replays are prevented by sync position instead.
+        var reused = List.<Order>of(new BuyLimitOrder(50, currentTimeMillis(), "BTC|USDT", "2", "100000"));
+        assertThrows(DataAccessException.class,
+                () -> context.dataBase().insertOrders(context.dataBase().postgresql(), reused));
+        assertEquals(new BigDecimal("1"), context.dataBase().fetchOrderMessage(50, "BTC|USDT").component5());
+        assertEquals(0, context.dataBase().insertOrders(context.dataBase().postgresql(), List.of()));
+    }
+
+    @Test
+    public void testInsertMoreRowsThanParametersOfOneStatement() {
+        // More rows than 65535 bind parameters of one statement allow.
+        var orders = new ArrayList<Order>();
+        var trades = new ArrayList<Trade>();
+        for (int i = 0; i < 10000; i++) {
+            orders.add(new BuyLimitOrder(1_000_000 + i, currentTimeMillis(), "SOL|USDT", "1", "100"));
+            trades.add(new Trade(1_000_000 + i, 2_000_000 + i, "SOL/USDT", "1", "100", "100", "bor:0;sor:0",
+                    currentTimeMillis()));
+        }
+
+        assertEquals(10000, context.dataBase().insertOrders(context.dataBase().postgresql(), orders));
+        assertEquals(10000, context.dataBase().insertTrades(context.dataBase().postgresql(), trades));
+        assertNotNull(context.dataBase().fetchOrderMessage(1_009_999, "SOL|USDT"));
+        assertTrue(tradeExistsAndIsMatched(trades.getLast()));
+    }
+
+    @Test
+    public void testUpdateOrderMessages() {
+        var buyLimitOrder1 = new BuyLimitOrder(40, currentTimeMillis(), "BTC|USDT", "1", "100000");
+        var buyLimitOrder2 = new BuyLimitOrder(41, currentTimeMillis(), "BTC|USDT", "1", "100000");
+        insertOrder(buyLimitOrder1);
+        insertOrder(buyLimitOrder2);
+        context.dataBase().updateOrderMessages(context.dataBase().postgresql(), "BTC|USDT",
+                of(new OrderMessageUpdate(40, ZERO, EXECUTED, null), new OrderMessageUpdate(41, null, CANCELED, null)));
+
+        var recordFetched = context.dataBase().fetchOrderMessage(40, "BTC|USDT");
+        assertEquals(new BigDecimal("0"), recordFetched.component7());
+        assertEquals(EXECUTED, recordFetched.component8());
+
+        recordFetched = context.dataBase().fetchOrderMessage(41, "BTC|USDT");
+        assertEquals(new BigDecimal("1"), recordFetched.component7());
+        assertEquals(CANCELED, recordFetched.component8());
+    }
+
+    @Test
+    public void testUpdateOrderMessagesCancels() {
+        var buyLimitOrder = new BuyLimitOrder(42, currentTimeMillis(), "BTC|USDT", "1", "100000");
+        insertOrder(buyLimitOrder);
+        context.dataBase().updateOrderMessages(context.dataBase().postgresql(), "BTC|USDT",
+                of(new OrderMessageUpdate(42, null, null, new BigDecimal("0.4"))));
+
+        var recordFetched = context.dataBase().fetchOrderMessage(42, "BTC|USDT");
+        assertEquals(0, new BigDecimal("0.6").compareTo(recordFetched.component7()));
+        assertEquals(ACTIVE, recordFetched.component8());
+
+        context.dataBase().updateOrderMessages(context.dataBase().postgresql(), "BTC|USDT",
+                of(new OrderMessageUpdate(42, null, null, new BigDecimal("0.6"))));
+
+        recordFetched = context.dataBase().fetchOrderMessage(42, "BTC|USDT");
+        assertEquals(0, new BigDecimal("0.6").compareTo(recordFetched.component7()));
+        assertEquals(CANCELED, recordFetched.component8());
+    }
+
+    @Test
+    public void testResyncedCancelIsNotAppliedTwice() {
+        var buyLimitOrder = new BuyLimitOrder(43, currentTimeMillis(), "BTC|USDT", "1", "100000");
+        insertOrder(buyLimitOrder);
+        Runnable sync = () -> context.dataBase().postgresql().transaction(configuration -> {
+            context.dataBase().updateOrderMessages(configuration.dsl(), "BTC|USDT",
+                    of(new OrderMessageUpdate(43, null, null, new BigDecimal("0.4"))));
+
+            if (!context.dataBase().updateSyncPosition(configuration.dsl(), "BTC|USDT", 10, 20)) {
+                throw new RuntimeException("already synced");
+            }
+        });
+
+        sync.run();
+        // Same batch synced again, as after a crash right after commit.
+        assertThrows(RuntimeException.class, sync::run);
+
+        var recordFetched = context.dataBase().fetchOrderMessage(43, "BTC|USDT");
+        assertEquals(0, new BigDecimal("0.6").compareTo(recordFetched.component7()));
+        assertEquals(20, (long) context.dataBase().fetchSyncPosition("BTC|USDT"));
     }
 
     @Test
     public void testCancelOrder() {
         var buyLimitOrder = new BuyLimitOrder(12, currentTimeMillis(), "BTC|USDT", "1", "100000");
-        context.dataBase().insertLimitOrder(buyLimitOrder, BUY);
-        context.dataBase().cancelOrder(context.dataBase().postgresql(), buyLimitOrder);
+        insertOrder(buyLimitOrder);
+        context.dataBase().updateOrderMessages(context.dataBase().postgresql(), "BTC|USDT",
+                of(new OrderMessageUpdate(12, null, null, ZERO)));
 
         var recordFetched = context.dataBase().fetchOrderMessage(12, "BTC|USDT");
         assertEquals(CANCELED, recordFetched.component8());
@@ -191,43 +308,47 @@ public class DatabaseTest {
     @Test
     public void testExecuteOrder() {
         var buyLimitOrder = new BuyLimitOrder(13, currentTimeMillis(), "BTC|USDT", "1", "100000");
-        context.dataBase().insertLimitOrder(buyLimitOrder, BUY);
-        context.dataBase().executeOrder(context.dataBase().postgresql(), buyLimitOrder.getId(), "BTC|USDT", "0.5");
+        insertOrder(buyLimitOrder);
+        context.dataBase().updateOrderMessages(context.dataBase().postgresql(), "BTC|USDT",
+                of(new OrderMessageUpdate(13, new BigDecimal("0.5"), EXECUTED, null)));
 
         var recordFetched = context.dataBase().fetchOrderMessage(13, "BTC|USDT");
-        assertEquals("0.5", recordFetched.component7());
+        assertEquals(new BigDecimal("0.5"), recordFetched.component7());
         assertEquals(EXECUTED, recordFetched.component8());
     }
 
     @Test
     public void testUpdateRemaining() {
         var buyLimitOrder = new BuyLimitOrder(14, currentTimeMillis(), "BTC|USDT", "1", "100000");
-        context.dataBase().insertLimitOrder(buyLimitOrder, BUY);
-        context.dataBase().updateRemaining(context.dataBase().postgresql(), buyLimitOrder.getId(), "BTC|USDT", "0.1");
+        insertOrder(buyLimitOrder);
+        context.dataBase().updateOrderMessages(context.dataBase().postgresql(), "BTC|USDT",
+                of(new OrderMessageUpdate(14, new BigDecimal("0.1"), null, null)));
 
         var recordFetched = context.dataBase().fetchOrderMessage(14, "BTC|USDT");
-        assertEquals("0.1", recordFetched.component7());
+        assertEquals(new BigDecimal("0.1"), recordFetched.component7());
     }
 
     @Test
     public void testFetchActiveOrderMessages() {
         var now = currentTimeMillis();
         var buyLimitOrder1 = new BuyLimitOrder(15, now + 1, "BTC|USDT", "1", "100000");
-        context.dataBase().insertLimitOrder(buyLimitOrder1, BUY);
+        insertOrder(buyLimitOrder1);
 
         var buyLimitOrder2 = new BuyLimitOrder(16, now + 2, "BTC|USDT", "1", "100000");
-        context.dataBase().insertLimitOrder(buyLimitOrder2, BUY);
+        insertOrder(buyLimitOrder2);
 
         var buyLimitOrder3 = new BuyLimitOrder(17, now + 3, "BTC|USDT", "1", "100000");
-        context.dataBase().insertLimitOrder(buyLimitOrder3, BUY);
-        context.dataBase().cancelOrder(context.dataBase().postgresql(), buyLimitOrder3);
+        insertOrder(buyLimitOrder3);
+        context.dataBase().updateOrderMessages(context.dataBase().postgresql(), "BTC|USDT",
+                of(new OrderMessageUpdate(17, null, null, ZERO)));
 
         var buyLimitOrder4 = new BuyLimitOrder(18, now + 4, "BTC|USDT", "1", "100000");
-        context.dataBase().insertLimitOrder(buyLimitOrder4, BUY);
+        insertOrder(buyLimitOrder4);
 
         var buyLimitOrder5 = new BuyLimitOrder(19, now + 5, "BTC|USDT", "1", "100000");
-        context.dataBase().insertLimitOrder(buyLimitOrder5, BUY);
-        context.dataBase().executeOrder(context.dataBase().postgresql(), buyLimitOrder5.getId(), "BTC|USDT", "0.5");
+        insertOrder(buyLimitOrder5);
+        context.dataBase().updateOrderMessages(context.dataBase().postgresql(), "BTC|USDT",
+                of(new OrderMessageUpdate(19, new BigDecimal("0.5"), EXECUTED, null)));
 
         var recordsFetched = context.dataBase().fetchActiveOrderMessages(Instant.ofEpochMilli(now), 10);
         assertEquals(3, recordsFetched.size());
@@ -239,6 +360,10 @@ public class DatabaseTest {
         assertEquals(1, recordsFetched.size());
     }
 
+    private int insertOrder(Order order) {
+        return context.dataBase().insertOrders(context.dataBase().postgresql(), of(order));
+    }
+
     private boolean tradeExistsAndIsMatched(Trade trade) {
         var recordFetched = context.dataBase().postgresql()
                 .select(TRADE.BUY_ORDER_ID,
@@ -259,9 +384,9 @@ public class DatabaseTest {
                 && recordFetched.component1().equals(trade.getBuyOrderId())
                 && recordFetched.component2().equals(trade.getSellOrderId())
                 && recordFetched.component3().equals(trade.getSymbol())
-                && recordFetched.component4().equals(trade.getQuantity())
-                && recordFetched.component5().equals(trade.getBuyPrice())
-                && recordFetched.component6().equals(trade.getSellPrice())
+                && recordFetched.component4().equals(new BigDecimal(trade.getQuantity()))
+                && recordFetched.component5().equals(new BigDecimal(trade.getBuyPrice()))
+                && recordFetched.component6().equals(new BigDecimal(trade.getSellPrice()))
                 && recordFetched.component7().equals(trade.getMetadata())
                 && recordFetched.component8().equals(Instant.ofEpochMilli(trade.getTs()));
     }
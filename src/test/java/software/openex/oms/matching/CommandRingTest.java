@@ -0,0 +1,77 @@
+package software.openex.oms.matching;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public class CommandRingTest {
+
+    @Test
+    public void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new CommandRing(1000));
+    }
+
+    @Test
+    public void testPublishAndRelease() {
+        var ring = new CommandRing(4);
+        assertTrue(ring.isEmpty());
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 4; i++) {
+                ring.publish(i, "payload-" + i, null, null);
+            }
+
+            for (int i = 0; i < 4; i++) {
+                var slot = ring.peek();
+                assertNotNull(slot);
+                assertEquals(i, slot.type());
+                assertEquals("payload-" + i, slot.payload());
+                ring.release(slot);
+                assertNull(slot.payload());
+            }
+
+            assertTrue(ring.isEmpty());
+        }
+    }
+
+    @Test
+    public void testMultipleProducers() throws Exception {
+        var ring = new CommandRing(64);
+        var producers = new Thread[4];
+        for (int p = 0; p < producers.length; p++) {
+            var producer = p;
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    ring.publish(producer, i, null, null);
+                }
+            });
+            producers[p].start();
+        }
+
+        // Commands of every single producer must be consumed in publish order.
+        var last = new int[]{-1, -1, -1, -1};
+        var consumed = 0;
+        while (consumed < 40000) {
+            var slot = ring.peek();
+            if (slot == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            var value = (int) slot.payload();
+            assertEquals(last[slot.type()] + 1, value);
+            last[slot.type()] = value;
+            ring.release(slot);
+            consumed++;
+        }
+
+        for (var producer : producers) {
+            producer.join();
+        }
+
+        assertTrue(ring.isEmpty());
+    }
+}
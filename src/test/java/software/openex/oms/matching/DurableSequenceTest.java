@@ -0,0 +1,73 @@
+package software.openex.oms.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public class DurableSequenceTest {
+
+    @Test
+    public void testWhenDurable() throws Exception {
+        var published = new AtomicInteger();
+        var sequence = new DurableSequence(published::incrementAndGet);
+        var first = sequence.next();
+        var second = sequence.next();
+        var future = sequence.whenDurable(second);
+
+        sequence.publish(first, null);
+        assertFalse(future.isDone());
+        sequence.publish(second, null);
+        future.get();
+
+        assertEquals(second, sequence.durable());
+        assertTrue(sequence.whenDurable(first).isDone());
+        assertEquals(2, published.get());
+    }
+
+    @Test
+    public void testFailureBeforeWaiterRegisters() {
+        var published = new AtomicInteger();
+        var sequence = new DurableSequence(published::incrementAndGet);
+        var first = sequence.next();
+        var second = sequence.next();
+        var third = sequence.next();
+
+        sequence.publish(first, null);
+        // Append fails before engine waits on its batch.
+        sequence.publish(second, new IOException("disk full"));
+        sequence.publish(third, null);
+
+        assertEquals(first, sequence.durable());
+        assertEquals(1, published.get());
+        assertTrue(sequence.whenDurable(first).isDone());
+        assertFalse(sequence.whenDurable(first).isCompletedExceptionally());
+
+        var ex = assertThrows(ExecutionException.class, () -> sequence.whenDurable(second).get());
+        assertEquals("disk full", ex.getCause().getMessage());
+        assertTrue(sequence.whenDurable(third).isCompletedExceptionally());
+        // Sequence is poisoned; later batches can not become durable either.
+        assertTrue(sequence.whenDurable(sequence.next()).isCompletedExceptionally());
+    }
+
+    @Test
+    public void testFailureAfterWaiterRegisters() {
+        var sequence = new DurableSequence(() -> {});
+        var first = sequence.next();
+        var second = sequence.next();
+        var firstFuture = sequence.whenDurable(first);
+        var secondFuture = sequence.whenDurable(second);
+
+        sequence.publish(first, new IOException("disk full"));
+
+        assertTrue(firstFuture.isCompletedExceptionally());
+        assertTrue(secondFuture.isCompletedExceptionally());
+        assertEquals(0, sequence.durable());
+    }
+}
@@ -0,0 +1,56 @@
+package software.openex.oms.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+import static software.openex.oms.matching.WaitStrategy.BLOCK;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public class EngineShardsTest {
+
+    @Test
+    public void testAssignment() throws Exception {
+        try (var shards = new EngineShards(4, BLOCK, Map.of("BTC|USDT", 3), 1, 64)) {
+            assertEquals(4, shards.size());
+            assertEquals(3, shards.index("BTC|USDT"));
+            assertSame(shards.shard("ETH|USDT"), shards.shard("ETH|USDT"));
+            assertEquals(1, shards.symbols(shards.index("ETH|USDT")).stream().filter("ETH|USDT"::equals).count());
+        }
+    }
+
+    @Test
+    public void testInvalidMapping() {
+        assertThrows(IllegalArgumentException.class, () -> new EngineShards(2, BLOCK, Map.of("BTC|USDT", 2), 1, 64));
+    }
+
+    @Test
+    public void testSequentialExecution() throws Exception {
+        try (var shards = new EngineShards(2, BLOCK, Map.of(), 1, 64)) {
+            var latch = new CountDownLatch(1000);
+            var last = new int[]{-1};
+            var ordered = new boolean[]{true};
+            var shard = shards.shard("BTC|USDT");
+            for (int i = 0; i < 1000; i++) {
+                var value = i;
+                shard.execute(() -> {
+                    ordered[0] &= last[0] == value - 1;
+                    last[0] = value;
+                    latch.countDown();
+                });
+            }
+
+            assertTrue(latch.await(5, SECONDS));
+            assertTrue(ordered[0]);
+
+            shard.shutdown();
+            assertTrue(shard.awaitTermination(5, SECONDS));
+            assertEquals(1000, shards.executed(shards.index("BTC|USDT")));
+        }
+    }
+}
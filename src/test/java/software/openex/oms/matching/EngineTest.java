@@ -0,0 +1,189 @@
+package software.openex.oms.matching;
+
+import org.junit.jupiter.api.*;
+import org.testcontainers.containers.PostgreSQLContainer;
+import software.openex.oms.binary.order.BuyLimitOrder;
+import software.openex.oms.binary.order.CancelOrder;
+import software.openex.oms.binary.order.SellLimitOrder;
+import software.openex.oms.binary.order.book.FetchOrderBook;
+import software.openex.oms.context.AppContext;
+import software.openex.oms.storage.DurableFile;
+import software.openex.oms.storage.WriteAheadLogFile;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.List.of;
+import static org.junit.jupiter.api.Assertions.*;
+import static software.openex.oms.context.AppContext.contextTest;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public class EngineTest {
+    private static final PostgreSQLContainer<?> postgresql = new PostgreSQLContainer<>("postgres:16");
+    private volatile AppContext context;
+
+    @Test
+    public void testHaltOnJournalFailure() throws Exception {
+        var symbol = "HALT" + currentTimeMillis();
+        var file = new FailingFile(Path.of("/tmp/" + symbol + ".events"));
+        var engine = new Engine(symbol, 16, context.matchingEngines().shards(), file, _ -> {}, true);
+        try {
+            engine.offer(new BuyLimitOrder(1, currentTimeMillis(), symbol, "1", "100000")).get();
+            engine.offer(new SellLimitOrder(2, currentTimeMillis(), symbol, "1", "100000")).get();
+            assertEquals(1, file.appended);
+
+            // Trade of the next match can not be journaled.
+            file.failing = true;
+            engine.offer(new BuyLimitOrder(3, currentTimeMillis(), symbol, "1", "100000")).get();
+            var ex = assertThrows(ExecutionException.class,
+                    () -> engine.offer(new SellLimitOrder(4, currentTimeMillis(), symbol, "1", "100000")).get());
+            assertEquals("disk full", ex.getCause().getMessage());
+
+            // Symbol is halted even though file works again.
+            file.failing = false;
+            assertHalted(engine.offer(new BuyLimitOrder(5, currentTimeMillis(), symbol, "1", "100000")));
+            assertHalted(engine.offer(new SellLimitOrder(6, currentTimeMillis(), symbol, "1", "100000")));
+            assertHalted(engine.cancel(new CancelOrder(3, currentTimeMillis(), symbol, "1")));
+            assertHalted(engine.orderBook(new FetchOrderBook(symbol, 10)));
+            assertHalted(engine.submit(of(new BuyLimitOrder(7, currentTimeMillis(), symbol, "1", "100000"))).getFirst());
+
+            // Nothing is appended after the missing batch.
+            assertEquals(1, file.appended);
+        } finally {
+            // Engine's tasks must be finished before closing its file.
+            context.matchingEngines().shards().close();
+            engine.close();
+        }
+    }
+
+    @Test
+    public void testHaltOnMatchingFailure() throws Exception {
+        var symbol = "MATCH" + currentTimeMillis();
+        var file = new FailingFile(Path.of("/tmp/" + symbol + ".events"));
+        var broken = new AtomicBoolean(false);
+        var engine = new Engine(symbol, 16, context.matchingEngines().shards(), file, _ -> {
+            if (broken.get()) throw new IllegalStateException("broken order book");
+        }, true);
+
+        try {
+            engine.offer(new BuyLimitOrder(1, currentTimeMillis(), symbol, "1", "100000")).get();
+
+            // Matching fails halfway, after the sell order rests and its trade is made.
+            broken.set(true);
+            engine.offer(new SellLimitOrder(2, currentTimeMillis(), symbol, "1", "100000")).get();
+            assertEquals(1, file.appended);
+
+            var deadline = currentTimeMillis() + 5000;
+            while (engine.bestBidOffer().getAskPrice().isEmpty() && currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // Accepted order is live; crossed order book does not take new commands.
+            assertEquals("100000", engine.bestBidOffer().getAskPrice());
+            assertHalted(engine.offer(new BuyLimitOrder(3, currentTimeMillis(), symbol, "1", "100000")));
+            assertHalted(engine.cancel(new CancelOrder(2, currentTimeMillis(), symbol, "1")));
+            assertEquals(1, file.appended);
+        } finally {
+            // Engine's tasks must be finished before closing its file.
+            context.matchingEngines().shards().close();
+            engine.close();
+        }
+    }
+
+    private static void assertHalted(final CompletableFuture<?> future) {
+        var ex = assertThrows(ExecutionException.class, future::get);
+        assertInstanceOf(IllegalStateException.class, ex.getCause());
+    }
+
+    /**
+     * An events file whose appends fail on demand.
+     *
+     * @author Alireza Pourtaghi
+     */
+    private static final class FailingFile implements DurableFile {
+        private final WriteAheadLogFile file;
+        private volatile boolean failing;
+        private volatile int appended;
+
+        private FailingFile(final Path source) throws IOException {
+            this.file = new WriteAheadLogFile(source);
+            this.failing = false;
+            this.appended = 0;
+        }
+
+        @Override
+        public void append(final MemorySegment segment) {
+            if (failing) {
+                throw new RuntimeException("disk full");
+            }
+
+            file.append(segment);
+            appended++;
+        }
+
+        @Override
+        public MemorySegment read(final Arena arena, final long position, final long size) throws IOException {
+            return file.read(arena, position, size);
+        }
+
+        @Override
+        public CompletableFuture<Void> whenDurable() {
+            return file.whenDurable();
+        }
+
+        @Override
+        public long durable() {
+            return file.durable();
+        }
+
+        @Override
+        public Path source() {
+            return file.source();
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+
+    @BeforeAll
+    public static void setup() {
+        // Start postgresql container.
+        postgresql.setPortBindings(of("127.0.0.1:5432:5432"));
+        postgresql.withDatabaseName("oms");
+        postgresql.withUsername("oms");
+        postgresql.withPassword("oms");
+        postgresql.start();
+    }
+
+    @BeforeEach
+    public void buildContext() {
+        // Start/Replace application context.
+        context = contextTest();
+        context.databaseMigrator().migrate();
+        context.matchingEngines().start();
+    }
+
+    @AfterEach
+    public void closeContext() {
+        // Stop application context.
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @AfterAll
+    public static void stop() {
+        // Stop postgresql container.
+        postgresql.stop();
+    }
+}
@@ -0,0 +1,83 @@
+package software.openex.oms.matching;
+
+import org.junit.jupiter.api.Test;
+import software.openex.oms.binary.BinaryRepresentable;
+import software.openex.oms.binary.file.BatchHeaderBinaryRepresentation;
+import software.openex.oms.binary.file.FileHeader;
+import software.openex.oms.binary.file.FileHeaderBinaryRepresentation;
+import software.openex.oms.binary.order.BuyLimitOrder;
+import software.openex.oms.binary.order.CancelOrder;
+import software.openex.oms.binary.order.FOKSellLimitOrder;
+import software.openex.oms.binary.trade.Trade;
+import software.openex.oms.binary.trade.TradeBinaryRepresentation;
+import software.openex.oms.storage.AtomicFile;
+
+import java.lang.foreign.Arena;
+import java.nio.file.Path;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+import static software.openex.oms.binary.BinaryRepresentable.RHS;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public class EventsBatchTest {
+
+    @Test
+    public void testFlush() throws Exception {
+        var path = Path.of("/tmp/" + currentTimeMillis() + ".events.test");
+        var order = new FOKSellLimitOrder(2, currentTimeMillis(), "BTC|USDT", "2", "100000");
+        var trade1 = new Trade(1, 2, "BTC|USDT", "1", "100000", "100000", "bor:1;sor:0", currentTimeMillis());
+        var trade2 = new Trade(1, 3, "BTC|USDT", "1", "100001", "100001", "bor:0;sor:0", currentTimeMillis());
+        var cancelOrder = new CancelOrder(4, currentTimeMillis(), "BTC|USDT", "0");
+
+        try (var header = new FileHeaderBinaryRepresentation(new FileHeader(0));
+             var arena = Arena.ofConfined();
+             var file = new AtomicFile(path);
+             var journal = new Journal("journal-test", 4)) {
+
+            var batch = new EventsBatch(file, journal, () -> {});
+            batch.add(order);
+            batch.add(trade1);
+            batch.add(trade2);
+            batch.add(cancelOrder);
+            assertEquals(4, batch.size());
+
+            var before = currentTimeMillis();
+            batch.flush().get(5, SECONDS);
+            assertTrue(batch.isEmpty());
+            assertEquals(1, batch.sequence().durable());
+
+            // Records must be laid out back to back, after header of batch.
+            long position = header.representationSize();
+            var ids = new int[5];
+            for (int i = 0; i < 5; i++) {
+                var recordHeader = file.read(arena, position, RHS);
+                ids[i] = BinaryRepresentable.id(recordHeader);
+                var size = RHS + BinaryRepresentable.size(recordHeader);
+                if (i == 0) {
+                    var ts = BatchHeaderBinaryRepresentation.decode(file.read(arena, position, size)).getTs();
+                    assertTrue(ts >= before && ts <= currentTimeMillis());
+                }
+
+                if (i == 1) {
+                    var decoded = BuyLimitOrder.decode(file.read(arena, position, size));
+                    assertEquals(order.getId(), decoded.getId());
+                    assertEquals(order.getPrice(), decoded.getPrice());
+                }
+
+                if (i == 3) {
+                    var decoded = TradeBinaryRepresentation.decode(file.read(arena, position, size));
+                    assertEquals(trade2.getSellOrderId(), decoded.getSellOrderId());
+                }
+
+                position += size;
+            }
+
+            assertArrayEquals(new int[]{3, 112, 103, 103, 104}, ids);
+            assertEquals(position, file.source().toFile().length());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package software.openex.oms.matching;
+
+import org.junit.jupiter.api.Test;
+
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public class JournalRingTest {
+
+    @Test
+    public void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new JournalRing(1000));
+    }
+
+    @Test
+    public void testClaimGrowsBuffer() {
+        var ring = new JournalRing(2);
+        var slot = ring.claim(10);
+        assertTrue(slot.buffer().byteSize() >= 10);
+        ring.publish(slot, null, null, 1, 10);
+        ring.release(ring.peek());
+
+        ring.publish(ring.claim(10), null, null, 2, 10);
+        ring.release(ring.peek());
+
+        // Same slot again, with a bigger buffer.
+        slot = ring.claim(100000);
+        assertTrue(slot.buffer().byteSize() >= 100000);
+    }
+
+    @Test
+    public void testProducerAndConsumer() throws Exception {
+        var ring = new JournalRing(8);
+        var sequence = new DurableSequence(() -> {});
+        var producer = new Thread(() -> {
+            for (int i = 1; i <= 100000; i++) {
+                var slot = ring.claim(JAVA_LONG.byteSize());
+                slot.buffer().set(JAVA_LONG, 0, i);
+                ring.publish(slot, null, sequence, i, JAVA_LONG.byteSize());
+            }
+        });
+        producer.start();
+
+        // Batches must be consumed in publish order with their content.
+        var consumed = 0;
+        while (consumed < 100000) {
+            var slot = ring.peek();
+            if (slot == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            consumed++;
+            assertEquals(consumed, slot.number());
+            assertEquals(consumed, slot.records().get(JAVA_LONG, 0));
+            assertSame(sequence, slot.sequence());
+            ring.release(slot);
+        }
+
+        producer.join();
+        assertTrue(ring.isEmpty());
+    }
+}
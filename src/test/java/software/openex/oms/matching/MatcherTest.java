@@ -4,6 +4,7 @@ import org.junit.jupiter.api.*;
 import org.testcontainers.containers.PostgreSQLContainer;
 import software.openex.oms.binary.order.BuyLimitOrder;
 import software.openex.oms.binary.order.SellLimitOrder;
+import software.openex.oms.binary.order.book.FetchBestBidOffer;
 import software.openex.oms.binary.order.book.FetchOrderBook;
 import software.openex.oms.binary.trade.Trade;
 import software.openex.oms.context.AppContext;
@@ -143,6 +144,65 @@ public class MatcherTest {
         assertEquals(1, orderBook.getAsks().size());
     }
 
+    @Test
+    public void testBestBidOffer() throws Exception {
+        var blo1 = new BuyLimitOrder(1000 + 13, currentTimeMillis(), "BTC|USDT", "1", "99000");
+        var slo = new SellLimitOrder(1000 + 14, currentTimeMillis(), "BTC|USDT", "2", "100000");
+        var blo2 = new BuyLimitOrder(1000 + 15, currentTimeMillis(), "BTC|USDT", "1", "100000");
+
+        context.matchingEngines().offer(blo1).get();
+        context.matchingEngines().offer(slo).get();
+        context.matchingEngines().offer(blo2).get();
+
+        sleep(500);
+        var bestBidOffer = context.matchingEngines().bestBidOffer(new FetchBestBidOffer("BTC|USDT"));
+
+        assertTrue(bestBidOffer.getSequence() > 0);
+        assertEquals("99000", bestBidOffer.getBidPrice());
+        assertEquals("1", bestBidOffer.getBidQuantity());
+        assertEquals("100000", bestBidOffer.getAskPrice());
+        assertEquals("1", bestBidOffer.getAskQuantity());
+        assertEquals("1", bestBidOffer.getLastTradeQuantity());
+        assertEquals("100000", bestBidOffer.getLastTradeBuyPrice());
+        assertEquals("100000", bestBidOffer.getLastTradeSellPrice());
+    }
+
+    @Test
+    public void testScaledAndDecimalTradesAreEqual() {
+        assertEquals(trade(false, "300.0", "100000.10", "100.00", "100000.1"),
+                trade(true, "300.0", "100000.10", "100.00", "100000.1"));
+        assertEquals(trade(false, "0.500", "100000", "1.50", "100000"),
+                trade(true, "0.500", "100000", "1.50", "100000"));
+        assertEquals(trade(false, "1.0", "100000", "1", "100000"),
+                trade(true, "1.0", "100000", "1", "100000"));
+    }
+
+    /**
+     * Matches one buy and one sell order in a book that is scaled or not.
+     *
+     * @return quantity and metadata of the trade
+     */
+    private static String trade(boolean scaled, String buyQuantity, String buyPrice, String sellQuantity,
+                                String sellPrice) {
+
+        var blo = new BuyLimitOrder(1, currentTimeMillis(), "BTC|USDT", buyQuantity, buyPrice);
+        var slo = new SellLimitOrder(2, currentTimeMillis(), "BTC|USDT", sellQuantity, sellPrice);
+        var buyOrders = scaled ? PriceLevelBook.bids(16, 2, 8, _ -> {}) : PriceLevelBook.bids(16);
+        var sellOrders = scaled ? PriceLevelBook.asks(16, 2, 8, _ -> {}) : PriceLevelBook.asks(16);
+        if (scaled) {
+            blo.scale(2, 8);
+            slo.scale(2, 8);
+        }
+
+        buyOrders.offer(blo);
+        sellOrders.offer(slo);
+        var lastTrade = new LastTrade();
+        new Matcher(buyOrders, sellOrders, new EventsBatch(null, null, () -> {}), lastTrade).run();
+
+        var trade = lastTrade.get();
+        return trade.getQuantity() + " " + trade.getMetadata();
+    }
+
     private boolean tradeExistsAndIsValid(Trade trade) {
         var recordFetched = context.dataBase().postgresql()
                 .select(TRADE.BUY_ORDER_ID,
@@ -163,9 +223,9 @@ public class MatcherTest {
                 && recordFetched.component1().equals(trade.getBuyOrderId())
                 && recordFetched.component2().equals(trade.getSellOrderId())
                 && recordFetched.component3().equals(trade.getSymbol())
-                && recordFetched.component4().equals(trade.getQuantity())
-                && recordFetched.component5().equals(trade.getBuyPrice())
-                && recordFetched.component6().equals(trade.getSellPrice())
+                && recordFetched.component4().equals(new BigDecimal(trade.getQuantity()))
+                && recordFetched.component5().equals(new BigDecimal(trade.getBuyPrice()))
+                && recordFetched.component6().equals(new BigDecimal(trade.getSellPrice()))
                 && recordFetched.component7().equals(trade.getMetadata())
                 && recordFetched.component8().toEpochMilli() < trade.getTs();
     }
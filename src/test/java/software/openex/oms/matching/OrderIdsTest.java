@@ -0,0 +1,71 @@
+package software.openex.oms.matching;
+
+import org.junit.jupiter.api.Test;
+import software.openex.oms.binary.order.BuyLimitOrder;
+
+import java.util.ArrayList;
+
+import static java.lang.System.currentTimeMillis;
+import static org.junit.jupiter.api.Assertions.*;
+import static software.openex.oms.matching.PriceLevelBook.bids;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public class OrderIdsTest {
+
+    @Test
+    public void testInvalidWindow() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderIds(0));
+    }
+
+    @Test
+    public void testReserve() {
+        var ids = new OrderIds(2);
+        assertTrue(ids.reserve(1));
+        assertFalse(ids.reserve(1));
+        assertTrue(ids.reserve(2));
+        assertTrue(ids.contains(1));
+        assertFalse(ids.contains(3));
+    }
+
+    @Test
+    public void testCompletedWindow() {
+        var ids = new OrderIds(2);
+        for (long id = 1; id <= 4; id++) {
+            ids.reserve(id);
+        }
+
+        ids.complete(1);
+        ids.complete(2);
+        assertFalse(ids.reserve(1));
+        assertFalse(ids.reserve(2));
+        assertTrue(ids.isCompleted(1));
+        assertFalse(ids.isCompleted(3));
+
+        // The oldest completed order is forgotten; live orders never are.
+        ids.complete(3);
+        assertFalse(ids.isCompleted(1));
+        assertTrue(ids.isCompleted(3));
+        assertTrue(ids.reserve(1));
+        assertFalse(ids.reserve(2));
+        assertFalse(ids.reserve(3));
+        assertFalse(ids.reserve(4));
+    }
+
+    @Test
+    public void testCompletedByOrderBook() {
+        var removed = new ArrayList<Long>();
+        var book = bids(16, removed::add);
+        var order1 = new BuyLimitOrder(1, currentTimeMillis(), "BTC|USDT", "1", "100000");
+        var order2 = new BuyLimitOrder(2, currentTimeMillis(), "BTC|USDT", "1", "100001");
+        book.offer(order1);
+        book.offer(order2);
+
+        book.poll();
+        book.remove(order1);
+        assertEquals(2, removed.size());
+        assertEquals(2L, removed.get(0));
+        assertEquals(1L, removed.get(1));
+    }
+}
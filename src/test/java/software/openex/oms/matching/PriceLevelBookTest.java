@@ -0,0 +1,249 @@
+package software.openex.oms.matching;
+
+import org.junit.jupiter.api.Test;
+import software.openex.oms.binary.order.BuyLimitOrder;
+import software.openex.oms.binary.order.SellLimitOrder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static software.openex.oms.matching.PriceLevelBook.asks;
+import static software.openex.oms.matching.PriceLevelBook.bids;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public class PriceLevelBookTest {
+
+    @Test
+    public void testBidsPriority() {
+        var book = bids(16);
+        var blo1 = new BuyLimitOrder(1, 1, "BTC|USDT", "1", "100000");
+        var blo2 = new BuyLimitOrder(2, 2, "BTC|USDT", "1", "100001");
+        var blo3 = new BuyLimitOrder(3, 3, "BTC|USDT", "1", "100000.00");
+        var blo4 = new BuyLimitOrder(4, 0, "BTC|USDT", "1", "100000");
+
+        book.offer(blo1);
+        book.offer(blo2);
+        book.offer(blo3);
+        book.offer(blo4);
+
+        assertEquals(4, book.size());
+        assertEquals(2, book.levels());
+        // Orders of a level are matched in arrival order, whatever their ts.
+        assertSame(blo2, book.poll());
+        assertSame(blo1, book.poll());
+        assertSame(blo3, book.poll());
+        assertSame(blo4, book.poll());
+        assertNull(book.poll());
+        assertTrue(book.isEmpty());
+    }
+
+    @Test
+    public void testAsksPriority() {
+        var book = asks(16);
+        var slo1 = new SellLimitOrder(1, 1, "BTC|USDT", "1", "100001");
+        var slo2 = new SellLimitOrder(2, 2, "BTC|USDT", "1", "100000");
+        var slo3 = new SellLimitOrder(3, 3, "BTC|USDT", "1", "100000");
+
+        book.offer(slo1);
+        book.offer(slo2);
+        book.offer(slo3);
+
+        assertSame(slo2, book.peek());
+        assertSame(slo2, book.poll());
+        assertSame(slo3, book.poll());
+        assertSame(slo1, book.poll());
+        assertNull(book.peek());
+    }
+
+    @Test
+    public void testDuplicateId() {
+        var book = bids(16);
+        var blo1 = new BuyLimitOrder(1, 1, "BTC|USDT", "1", "100000");
+        var blo2 = new BuyLimitOrder(1, 2, "BTC|USDT", "2", "100001");
+
+        assertTrue(book.offer(blo1));
+        assertFalse(book.offer(blo2));
+
+        // Resting order is kept and no level is made for the duplicate.
+        assertEquals(1, book.size());
+        assertEquals(1, book.levels());
+        assertSame(blo1, book.find(1));
+        assertSame(blo1, book.peek());
+    }
+
+    @Test
+    public void testTop() {
+        var book = asks(16);
+        var slo1 = new SellLimitOrder(1, 1, "BTC|USDT", "1", "100002");
+        var slo2 = new SellLimitOrder(2, 2, "BTC|USDT", "1", "100000");
+        var slo3 = new SellLimitOrder(3, 3, "BTC|USDT", "1", "100001");
+        var slo4 = new SellLimitOrder(4, 4, "BTC|USDT", "1", "100000");
+
+        book.offer(slo1);
+        book.offer(slo2);
+        book.offer(slo3);
+        book.offer(slo4);
+
+        assertEquals(List.of(slo2, slo4, slo3), book.top(3, 0));
+        assertEquals(List.of(slo2, slo4, slo3, slo1), book.top(10, 0));
+        assertEquals(List.of(slo2, slo4), book.top(10, 1));
+        assertEquals(List.of(slo2), book.top(1, 2));
+        assertTrue(book.top(0, 0).isEmpty());
+
+        // Book must not be modified.
+        assertEquals(4, book.size());
+        assertSame(slo2, book.peek());
+    }
+
+    @Test
+    public void testDepth() {
+        var book = bids(16);
+        var blo1 = new BuyLimitOrder(1, 1, "BTC|USDT", "1.5", "100000");
+        var blo2 = new BuyLimitOrder(2, 2, "BTC|USDT", "2", "100001");
+        var blo3 = new BuyLimitOrder(3, 3, "BTC|USDT", "0.5", "100000.0");
+        var blo4 = new BuyLimitOrder(4, 4, "BTC|USDT", "3", "99999");
+
+        book.offer(blo1);
+        book.offer(blo2);
+        book.offer(blo3);
+        book.offer(blo4);
+
+        var depth = book.depth(2);
+        assertEquals(2, depth.size());
+        assertEquals("100001", depth.get(0).getPrice());
+        assertEquals("2", depth.get(0).getQuantity());
+        assertEquals(1, depth.get(0).getCount());
+        assertEquals("100000", depth.get(1).getPrice());
+        assertEquals("2", depth.get(1).getQuantity());
+        assertEquals(2, depth.get(1).getCount());
+        assertEquals(3, book.depth(0).size());
+
+        // Partial fill of a resting order.
+        blo1.set_remaining(new BigDecimal("1"));
+        book.update(blo1);
+        assertEquals("1.5", book.depth(2).get(1).getQuantity());
+
+        // Full fill clears remaining before removal.
+        blo2.set_remaining(BigDecimal.ZERO);
+        assertSame(blo2, book.poll());
+        assertEquals("100000", book.depth(1).get(0).getPrice());
+
+        book.remove(blo3);
+        depth = book.depth(0);
+        assertEquals(2, depth.size());
+        assertEquals("1", depth.get(0).getQuantity());
+        assertEquals(1, depth.get(0).getCount());
+        assertEquals("3", depth.get(1).getQuantity());
+    }
+
+    @Test
+    public void testScaledDepth() {
+        var book = bids(16, 2, 8, _ -> {});
+        var blo1 = new BuyLimitOrder(1, 1, "BTC|USDT", "1.5", "100000.5");
+        var blo2 = new BuyLimitOrder(2, 2, "BTC|USDT", "2", "100001");
+        var blo3 = new BuyLimitOrder(3, 3, "BTC|USDT", "0.25", "100000.50");
+        for (var blo : List.of(blo1, blo2, blo3)) {
+            blo.scale(2, 8);
+            book.offer(blo);
+        }
+
+        assertEquals(2, book.levels());
+        assertEquals(0, new BigDecimal("100001").compareTo(book.bestPrice()));
+        assertEquals(0, new BigDecimal("2").compareTo(book.bestQuantity()));
+
+        var depth = book.depth(0);
+        assertEquals("100001", depth.get(0).getPrice());
+        assertEquals("100000.5", depth.get(1).getPrice());
+        assertEquals("1.75", depth.get(1).getQuantity());
+        assertEquals(2, depth.get(1).getCount());
+
+        // Changes of the best level change book's version.
+        var version = book.version();
+        blo2.set_remaining(new BigDecimal("1"));
+        book.update(blo2);
+        assertNotEquals(version, book.version());
+        assertEquals(0, BigDecimal.ONE.compareTo(book.bestQuantity()));
+
+        assertSame(blo2, book.poll());
+        assertEquals(0, new BigDecimal("100000.5").compareTo(book.bestPrice()));
+
+        // Orders of a scaled book must be scaled.
+        assertThrows(IllegalArgumentException.class,
+                () -> book.offer(new BuyLimitOrder(4, 4, "BTC|USDT", "1", "100000")));
+    }
+
+    @Test
+    public void testRemove() {
+        var book = asks(16);
+        var slo1 = new SellLimitOrder(1, 1, "BTC|USDT", "1", "100000");
+        var slo2 = new SellLimitOrder(2, 2, "BTC|USDT", "1", "100000");
+        var slo3 = new SellLimitOrder(3, 3, "BTC|USDT", "1", "100001");
+
+        book.offer(slo1);
+        book.offer(slo2);
+        book.offer(slo3);
+
+        assertTrue(book.remove(slo1));
+        assertFalse(book.remove(slo1));
+        assertSame(slo2, book.peek());
+
+        assertTrue(book.remove(slo2));
+        assertEquals(1, book.levels());
+        assertSame(slo3, book.peek());
+    }
+
+    @Test
+    public void testIterator() {
+        var book = bids(16);
+        var blo1 = new BuyLimitOrder(1, 1, "BTC|USDT", "1", "100000");
+        var blo2 = new BuyLimitOrder(2, 2, "BTC|USDT", "1", "100002");
+        var blo3 = new BuyLimitOrder(3, 3, "BTC|USDT", "1", "100001");
+
+        book.offer(blo1);
+        book.offer(blo2);
+        book.offer(blo3);
+
+        var orders = new ArrayList<>();
+        book.forEach(orders::add);
+
+        assertEquals(3, book.size());
+        assertSame(blo2, orders.get(0));
+        assertSame(blo3, orders.get(1));
+        assertSame(blo1, orders.get(2));
+    }
+
+    @Test
+    public void testFind() {
+        var book = asks(16);
+        var orders = new ArrayList<SellLimitOrder>();
+        for (int i = 1; i <= 10000; i++) {
+            var slo = new SellLimitOrder(i, i, "BTC|USDT", "1", String.valueOf(100000 + i % 100));
+            orders.add(slo);
+            book.offer(slo);
+        }
+
+        for (var slo : orders) {
+            assertSame(slo, book.find(slo.getId()));
+        }
+
+        for (int i = 0; i < orders.size(); i += 2) {
+            assertTrue(book.remove(orders.get(i)));
+        }
+
+        for (int i = 0; i < orders.size(); i++) {
+            var slo = orders.get(i);
+            if (i % 2 == 0) {
+                assertNull(book.find(slo.getId()));
+            } else {
+                assertSame(slo, book.find(slo.getId()));
+            }
+        }
+
+        assertEquals(5000, book.size());
+        assertNull(book.find(20000));
+    }
+}
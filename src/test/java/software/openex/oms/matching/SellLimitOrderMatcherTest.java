@@ -228,9 +228,9 @@ public class SellLimitOrderMatcherTest {
                 && recordFetched.component1().equals(trade.getBuyOrderId())
                 && recordFetched.component2().equals(trade.getSellOrderId())
                 && recordFetched.component3().equals(trade.getSymbol())
-                && recordFetched.component4().equals(trade.getQuantity())
-                && recordFetched.component5().equals(trade.getBuyPrice())
-                && recordFetched.component6().equals(trade.getSellPrice())
+                && recordFetched.component4().equals(new BigDecimal(trade.getQuantity()))
+                && recordFetched.component5().equals(new BigDecimal(trade.getBuyPrice()))
+                && recordFetched.component6().equals(new BigDecimal(trade.getSellPrice()))
                 && recordFetched.component7().equals(trade.getMetadata())
                 && recordFetched.component8().toEpochMilli() < trade.getTs();
     }
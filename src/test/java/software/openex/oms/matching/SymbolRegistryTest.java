@@ -0,0 +1,43 @@
+package software.openex.oms.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public class SymbolRegistryTest {
+
+    @Test
+    public void testRegister() {
+        var symbols = new SymbolRegistry();
+        assertEquals(-1, symbols.id("BTC|USDT"));
+        assertEquals(0, symbols.register("BTC|USDT"));
+        assertEquals(1, symbols.register("ETH|USDT"));
+        assertEquals(0, symbols.register("BTC|USDT"));
+        assertEquals(2, symbols.size());
+        assertEquals("ETH|USDT", symbols.symbol(1));
+    }
+
+    @Test
+    public void testIdOfBytes() {
+        var symbols = new SymbolRegistry();
+        // More symbols than initial table capacity, so table is grown.
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, symbols.register("SYM" + i + "|USDT"));
+        }
+
+        // Symbol bytes in the middle of a message, like an order's symbol.
+        var message = MemorySegment.ofArray("xxSYM42|USDTyy".getBytes(UTF_8));
+        assertEquals(42, symbols.id(message, 2, 10));
+        assertEquals(-1, symbols.id(message, 2, 9));
+        assertEquals(-1, symbols.id(message, 0, 12));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, symbols.id("SYM" + i + "|USDT"));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package software.openex.oms.net;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public class BufferPoolTest {
+
+    @Test
+    public void testInvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new BufferPool(0, 1024, 8));
+        assertThrows(IllegalArgumentException.class, () -> new BufferPool(1024, 512, 8));
+    }
+
+    @Test
+    public void testSizeClasses() {
+        var pool = new BufferPool(1000, 5000, 8);
+        assertEquals(1024, pool.minSize());
+        assertEquals(1024, pool.acquire(1).byteSize());
+        assertEquals(1024, pool.acquire(1024).byteSize());
+        assertEquals(2048, pool.acquire(1025).byteSize());
+        assertEquals(8192, pool.acquire(8192).byteSize());
+
+        // Bigger than the biggest class; not pooled.
+        assertEquals(8193, pool.acquire(8193).byteSize());
+    }
+
+    @Test
+    public void testReuse() {
+        var pool = new BufferPool(1024, 4096, 1);
+        var segment1 = pool.acquire(2000);
+        var segment2 = pool.acquire(2000);
+        pool.release(segment1);
+        pool.release(segment2);
+
+        assertSame(segment1, pool.acquire(1500));
+        // Only one free segment per class is kept.
+        assertNotSame(segment2, pool.acquire(1500));
+    }
+}
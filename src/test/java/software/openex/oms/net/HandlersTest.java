@@ -0,0 +1,117 @@
+package software.openex.oms.net;
+
+import org.junit.jupiter.api.*;
+import org.testcontainers.containers.PostgreSQLContainer;
+import software.openex.oms.binary.BinaryRepresentable;
+import software.openex.oms.binary.base.ErrorMessageBinaryRepresentation;
+import software.openex.oms.binary.batch.Batch;
+import software.openex.oms.binary.batch.BatchBinaryRepresentation;
+import software.openex.oms.binary.order.BuyLimitOrder;
+import software.openex.oms.binary.order.CancelOrder;
+import software.openex.oms.binary.order.LimitOrderBinaryRepresentation;
+import software.openex.oms.binary.order.OrderBinaryRepresentation;
+import software.openex.oms.binary.order.book.FetchOrderBook;
+import software.openex.oms.binary.order.book.FetchOrderBookBinaryRepresentation;
+import software.openex.oms.context.AppContext;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.List.of;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static software.openex.oms.binary.BinaryRepresentable.RHS;
+import static software.openex.oms.context.AppContext.contextTest;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public class HandlersTest {
+    private static final PostgreSQLContainer<?> postgresql = new PostgreSQLContainer<>("postgres:16");
+    private volatile AppContext context;
+
+    @Test
+    public void testBatch() throws Exception {
+        var order = new BuyLimitOrder(1, currentTimeMillis(), "BTC|USDT", "1", "100000");
+        try (var orderBinaryRepresentation = new LimitOrderBinaryRepresentation(order);
+             var fetchBinaryRepresentation = new FetchOrderBookBinaryRepresentation(new FetchOrderBook("BTC|USDT", 10));
+             var cancelBinaryRepresentation =
+                     new OrderBinaryRepresentation(new CancelOrder(2, currentTimeMillis(), "BTC|USDT", "1"));
+             var client = SocketChannel.open(new InetSocketAddress("localhost", 7178))) {
+
+            orderBinaryRepresentation.encodeV1();
+            fetchBinaryRepresentation.encodeV1();
+            cancelBinaryRepresentation.encodeV1();
+            var batch = new Batch(of(orderBinaryRepresentation.segment(), fetchBinaryRepresentation.segment(),
+                    cancelBinaryRepresentation.segment()));
+            try (var binaryRepresentation = new BatchBinaryRepresentation(batch)) {
+                binaryRepresentation.encodeV1();
+                var buffer = binaryRepresentation.buffer();
+                while (buffer.hasRemaining()) client.write(buffer);
+            }
+
+            var response = read(client);
+            assertEquals(126, BinaryRepresentable.id(response));
+
+            var messages = BatchBinaryRepresentation.messages(response);
+            assertEquals(3, messages.size());
+            assertEquals(order, BuyLimitOrder.decode(messages.get(0)));
+            assertEquals("message.not_supported", ErrorMessageBinaryRepresentation.decode(messages.get(1)).getCode());
+            assertEquals("order.not_found", ErrorMessageBinaryRepresentation.decode(messages.get(2)).getCode());
+        }
+
+        // Accepted order rests in order book.
+        assertEquals(1, context.matchingEngines().orderBook(new FetchOrderBook("BTC|USDT", 10)).get().getBids().size());
+    }
+
+    private static MemorySegment read(final SocketChannel client) throws IOException {
+        var header = ByteBuffer.allocate(RHS);
+        while (header.hasRemaining()) {
+            if (client.read(header) < 0) throw new IOException("connection closed");
+        }
+
+        var message = ByteBuffer.allocate(RHS + BinaryRepresentable.size(MemorySegment.ofBuffer(header.flip())));
+        message.put(header.rewind());
+        while (message.hasRemaining()) {
+            if (client.read(message) < 0) throw new IOException("connection closed");
+        }
+
+        return MemorySegment.ofBuffer(message.flip());
+    }
+
+    @BeforeAll
+    public static void start() {
+        // Start postgresql container.
+        postgresql.setPortBindings(of("127.0.0.1:5432:5432"));
+        postgresql.withDatabaseName("oms");
+        postgresql.withUsername("oms");
+        postgresql.withPassword("oms");
+        postgresql.start();
+    }
+
+    @BeforeEach
+    public void buildContext() {
+        // Start/Replace application context.
+        context = contextTest();
+        context.databaseMigrator().migrate();
+        context.matchingEngines().start();
+        context.socketServer().listen();
+    }
+
+    @AfterEach
+    public void closeContext() {
+        // Stop application context.
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @AfterAll
+    public static void stop() {
+        // Stop postgresql container.
+        postgresql.stop();
+    }
+}
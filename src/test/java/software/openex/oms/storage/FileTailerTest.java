@@ -0,0 +1,55 @@
+package software.openex.oms.storage;
+
+import org.junit.jupiter.api.Test;
+import software.openex.oms.binary.file.FileHeader;
+import software.openex.oms.binary.file.FileHeaderBinaryRepresentation;
+import software.openex.oms.binary.trade.Trade;
+import software.openex.oms.binary.trade.TradeBinaryRepresentation;
+
+import java.lang.foreign.Arena;
+import java.nio.file.Path;
+
+import static java.lang.System.currentTimeMillis;
+import static org.junit.jupiter.api.Assertions.*;
+import static software.openex.oms.binary.BinaryRepresentable.RHS;
+import static software.openex.oms.binary.BinaryRepresentable.size;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public class FileTailerTest {
+
+    @Test
+    public void testTail() throws Exception {
+        var path = Path.of("/tmp/" + currentTimeMillis() + ".tailer.test");
+        var trade = new Trade(1, 2, "BTC|USDT", "1", "100000", "100000", "bor:0;sor:0", currentTimeMillis());
+
+        try (var header = new FileHeaderBinaryRepresentation(new FileHeader(0));
+             var arena = Arena.ofConfined();
+             var file = new ThreadSafeAtomicFile(path, 1000);
+             var tailer = new FileTailer(file)) {
+
+            long position = header.representationSize();
+            assertNull(tailer.segment(position, RHS));
+
+            var binary = new TradeBinaryRepresentation(arena, trade);
+            binary.encodeV1();
+            file.append(binary.segment());
+
+            // The first record maps the file.
+            var recordHeader = tailer.segment(position, RHS);
+            assertNotNull(recordHeader);
+            var recordSize = RHS + size(recordHeader);
+            var decoded = TradeBinaryRepresentation.decode(tailer.segment(position, recordSize));
+            assertEquals(trade.getSellOrderId(), decoded.getSellOrderId());
+            assertEquals(position + recordSize, tailer.mapped());
+
+            // Nothing after the last record until the file grows; then it is remapped.
+            position += recordSize;
+            assertNull(tailer.segment(position, RHS));
+            file.append(binary.segment());
+            assertNotNull(tailer.segment(position, recordSize));
+            assertEquals(position + recordSize, tailer.mapped());
+        }
+    }
+}
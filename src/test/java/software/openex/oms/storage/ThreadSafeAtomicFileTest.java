@@ -10,7 +10,9 @@ import java.security.SecureRandom;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 /**
  * @author Alireza Pourtaghi
@@ -48,4 +50,41 @@ public class ThreadSafeAtomicFileTest {
             assertEquals(succeeded.get(), (file.source().toFile().length() - header.representationSize()) / bufferSize);
         }
     }
+
+    @Test
+    public void testReadWhileAppending() throws Exception {
+        var path = Path.of("/tmp/" + System.currentTimeMillis() + ".read.test");
+        var recordSize = 64;
+        var records = 1000;
+
+        try (var arena = Arena.ofShared();
+             var header = new FileHeaderBinaryRepresentation(new FileHeader(0));
+             var file = new ThreadSafeAtomicFile(path, 5000)) {
+
+            var writer = new Thread(() -> {
+                for (int i = 1; i <= records; i++) {
+                    var segment = arena.allocate(recordSize);
+                    segment.fill((byte) (i % 100 + 1));
+                    file.append(segment);
+                }
+            });
+            writer.start();
+
+            // Readers only ever see completely appended records and nothing after published position.
+            var end = header.representationSize() + (long) records * recordSize;
+            while (file.durable() < end) {
+                var published = file.durable();
+                if (published > header.representationSize()) {
+                    var record = file.read(arena, published - recordSize, recordSize);
+                    var value = record.get(JAVA_BYTE, 0);
+                    assertNotEquals(0, value);
+                    assertEquals(value, record.get(JAVA_BYTE, recordSize - 1));
+                }
+            }
+
+            writer.join();
+            assertEquals(end, file.source().toFile().length());
+            assertEquals(0, file.read(arena, end, 1).get(JAVA_BYTE, 0));
+        }
+    }
 }
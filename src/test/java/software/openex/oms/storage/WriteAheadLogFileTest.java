@@ -0,0 +1,169 @@
+package software.openex.oms.storage;
+
+import org.junit.jupiter.api.Test;
+import software.openex.oms.binary.file.FileHeader;
+import software.openex.oms.binary.file.FileHeaderBinaryRepresentation;
+import software.openex.oms.matching.Journal;
+
+import java.io.RandomAccessFile;
+import java.lang.foreign.Arena;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.lang.System.currentTimeMillis;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.time.Duration.ZERO;
+import static java.time.Duration.ofMillis;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+import static software.openex.oms.binary.BinaryRepresentable.INT;
+import static software.openex.oms.binary.BinaryRepresentable.RHS;
+import static software.openex.oms.storage.DurabilityPolicy.Mode.ASYNC;
+import static software.openex.oms.storage.DurabilityPolicy.Mode.GROUP;
+
+/**
+ * @author Alireza Pourtaghi
+ */
+public class WriteAheadLogFileTest {
+    private static final int FRAME_HEADER_SIZE = RHS + 8;
+
+    @Test
+    public void testAppendAndRecover() throws Exception {
+        var path = Path.of("/tmp/" + currentTimeMillis() + ".wal.test");
+        long headerSize;
+        try (var header = new FileHeaderBinaryRepresentation(new FileHeader(0))) {
+            headerSize = header.representationSize();
+        }
+
+        try (var arena = Arena.ofConfined();
+             var file = new WriteAheadLogFile(path)) {
+
+            assertEquals(headerSize, file.position());
+            for (int i = 1; i <= 10; i++) {
+                var segment = arena.allocate(100);
+                segment.fill((byte) i);
+                file.append(segment);
+            }
+
+            assertEquals(headerSize + 10 * (FRAME_HEADER_SIZE + 100), file.position());
+
+            // Records of the third frame.
+            var read = file.read(arena, headerSize + 2 * (FRAME_HEADER_SIZE + 100) + FRAME_HEADER_SIZE, 100);
+            assertEquals(3, read.get(JAVA_BYTE, 99));
+
+            // Nothing is visible after last frame.
+            read = file.read(arena, file.position() - 1, 10);
+            assertEquals(10, read.get(JAVA_BYTE, 0));
+            assertEquals(0, read.get(JAVA_BYTE, 1));
+        }
+
+        // Corrupt a byte of the last frame and add a torn tail.
+        var length = path.toFile().length();
+        try (var raf = new RandomAccessFile(path.toFile(), "rw")) {
+            raf.seek(length - 1);
+            raf.write(0);
+            raf.seek(length);
+            raf.write(new byte[]{1, 2, 3});
+        }
+
+        try (var file = new WriteAheadLogFile(path)) {
+            assertEquals(headerSize + 9 * (FRAME_HEADER_SIZE + 100), file.position());
+            assertEquals(file.position(), path.toFile().length());
+        }
+    }
+
+    @Test
+    public void testNotAWriteAheadLog() throws Exception {
+        var path = Path.of("/tmp/" + currentTimeMillis() + ".atomic.test");
+        try (var arena = Arena.ofConfined();
+             var file = new AtomicFile(path)) {
+
+            var segment = arena.allocate(RHS + 8);
+            segment.set(INT, 2, 103);
+            file.append(segment);
+        }
+
+        assertThrows(RuntimeException.class, () -> new WriteAheadLogFile(path));
+    }
+
+    @Test
+    public void testGroupDurability() throws Exception {
+        var path = Path.of("/tmp/" + currentTimeMillis() + ".group.wal.test");
+        var scheduler = newSingleThreadScheduledExecutor();
+        var policy = new DurabilityPolicy(GROUP, 3, ofMillis(50), ZERO);
+        try (var arena = Arena.ofConfined();
+             var file = new WriteAheadLogFile(path, policy, scheduler)) {
+
+            var segment = arena.allocate(100);
+            file.append(segment);
+            var first = file.whenDurable();
+            assertTrue(file.durable() < file.position());
+
+            // Group delay forces the pending frame.
+            first.get(5, SECONDS);
+            assertEquals(file.position(), file.durable());
+
+            // Group records force without waiting for the delay.
+            file.append(segment);
+            file.append(segment);
+            file.append(segment);
+            assertEquals(file.position(), file.durable());
+            assertTrue(file.whenDurable().isDone());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGroupForcesRunOnForcer() throws Exception {
+        var path = Path.of("/tmp/" + currentTimeMillis() + ".forcer.wal.test");
+        var scheduler = newSingleThreadScheduledExecutor();
+        var journal = new Journal("journal-test", 64);
+        var policy = new DurabilityPolicy(GROUP, 3, ofMillis(50), ZERO);
+        try (var arena = Arena.ofConfined();
+             var file = new WriteAheadLogFile(path, policy, scheduler, journal)) {
+
+            var thread = new AtomicReference<String>();
+            file.append(arena.allocate(100));
+            var first = file.whenDurable().thenRun(() -> thread.set(Thread.currentThread().getName()));
+
+            // Scheduler only times the force; it is run by journal's thread.
+            first.get(5, SECONDS);
+            assertEquals("journal-test", thread.get());
+            assertEquals(file.position(), file.durable());
+        } finally {
+            scheduler.shutdownNow();
+            journal.close();
+        }
+    }
+
+    @Test
+    public void testAsyncDurability() throws Exception {
+        var path = Path.of("/tmp/" + currentTimeMillis() + ".async.wal.test");
+        var scheduler = newSingleThreadScheduledExecutor();
+        var policy = new DurabilityPolicy(ASYNC, 1, ZERO, ofMillis(10));
+        try (var arena = Arena.ofConfined();
+             var file = new WriteAheadLogFile(path, policy, scheduler)) {
+
+            file.append(arena.allocate(100));
+            assertTrue(file.whenDurable().isDone());
+
+            var deadline = currentTimeMillis() + 5000;
+            while (file.durable() < file.position() && currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(file.position(), file.durable());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPolicyRequiresScheduler() {
+        var path = Path.of("/tmp/" + currentTimeMillis() + ".scheduler.wal.test");
+        var policy = new DurabilityPolicy(GROUP, 3, ofMillis(50), ZERO);
+        assertThrows(NullPointerException.class, () -> new WriteAheadLogFile(path, policy, null));
+    }
+}